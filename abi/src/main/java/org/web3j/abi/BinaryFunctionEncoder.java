@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.abi;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+
+/**
+ * {@link FunctionEncoder} which encodes into byte arrays via {@link BinaryTypeEncoder}, only
+ * converting to hex once the whole encoding has been written.
+ *
+ * <p>Register {@link org.web3j.abi.spi.BinaryFunctionEncoderProvider} as a {@link
+ * org.web3j.abi.spi.FunctionEncoderProvider} service to use it in place of {@link
+ * DefaultFunctionEncoder}. The byte oriented methods may also be called directly to avoid hex
+ * strings altogether.
+ */
+public class BinaryFunctionEncoder extends FunctionEncoder {
+
+    private static final int METHOD_ID_LENGTH = 4;
+
+    @Override
+    public String encodeFunction(final Function function) {
+        return Numeric.toHexString(encodeFunctionToBytes(function));
+    }
+
+    @Override
+    public String encodeParameters(final List<Type> parameters) {
+        return Numeric.toHexStringNoPrefix(encodeParametersToBytes(parameters));
+    }
+
+    @Override
+    public String encodeWithSelector(final String methodId, final List<Type> parameters) {
+        return methodId + Numeric.toHexStringNoPrefix(encodeParametersToBytes(parameters));
+    }
+
+    @Override
+    protected String encodePackedParameters(final List<Type> parameters) {
+        final StringBuilder result = new StringBuilder();
+        for (Type parameter : parameters) {
+            result.append(TypeEncoder.encodePacked(parameter));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Encodes the function call, being the method id followed by the encoded input parameters.
+     *
+     * @param function function to encode
+     * @return ABI encoded call data
+     */
+    public byte[] encodeFunctionToBytes(final Function function) {
+        final List<Type> parameters = function.getInputParameters();
+        final byte[] result =
+                new byte[METHOD_ID_LENGTH + BinaryTypeEncoder.parametersLength(parameters)];
+        final ByteBuffer buffer = ByteBuffer.wrap(result);
+        buffer.put(buildMethodIdBytes(buildMethodSignature(function.getName(), parameters)));
+        BinaryTypeEncoder.encodeParameters(parameters, buffer);
+        return result;
+    }
+
+    /**
+     * Encodes the parameters into a new byte array.
+     *
+     * @param parameters values to encode
+     * @return ABI encoded parameters
+     */
+    public byte[] encodeParametersToBytes(final List<Type> parameters) {
+        final byte[] result = new byte[BinaryTypeEncoder.parametersLength(parameters)];
+        BinaryTypeEncoder.encodeParameters(parameters, ByteBuffer.wrap(result));
+        return result;
+    }
+
+    /**
+     * Encodes the parameters into a caller supplied buffer, starting at its current position.
+     *
+     * @param parameters values to encode
+     * @param buffer destination buffer with at least {@link
+     *     BinaryTypeEncoder#parametersLength(List)} bytes remaining
+     * @return the number of bytes written
+     */
+    public int encodeParameters(final List<Type> parameters, final ByteBuffer buffer) {
+        final int start = buffer.position();
+        BinaryTypeEncoder.encodeParameters(parameters, buffer);
+        return buffer.position() - start;
+    }
+
+    private static byte[] buildMethodIdBytes(final String methodSignature) {
+        final byte[] hash = Hash.sha3(methodSignature.getBytes(StandardCharsets.UTF_8));
+        final byte[] methodId = new byte[METHOD_ID_LENGTH];
+        System.arraycopy(hash, 0, methodId, 0, METHOD_ID_LENGTH);
+        return methodId;
+    }
+}
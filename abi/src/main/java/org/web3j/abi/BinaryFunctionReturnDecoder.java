@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.abi;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+import org.web3j.abi.datatypes.Array;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.utils.Numeric;
+import org.web3j.utils.Strings;
+
+/**
+ * {@link FunctionReturnDecoder} which converts hex input to bytes once and decodes it via {@link
+ * BinaryTypeDecoder}, avoiding the per value substrings of {@link DefaultFunctionReturnDecoder}.
+ *
+ * <p>Register {@link org.web3j.abi.spi.BinaryFunctionReturnDecoderProvider} as a {@link
+ * org.web3j.abi.spi.FunctionReturnDecoderProvider} service to use it in place of {@link
+ * DefaultFunctionReturnDecoder}. The byte oriented methods may also be called directly when the raw
+ * bytes are already available.
+ */
+public class BinaryFunctionReturnDecoder extends FunctionReturnDecoder {
+
+    @Override
+    public List<Type> decodeFunctionResult(
+            String rawInput, List<TypeReference<Type>> outputParameters) {
+
+        String input = Numeric.cleanHexPrefix(rawInput);
+
+        if (Strings.isEmpty(input)) {
+            return Collections.emptyList();
+        } else {
+            return decodeFunctionResult(Numeric.hexStringToByteArray(input), outputParameters);
+        }
+    }
+
+    /**
+     * Decode ABI encoded return values from smart contract function call.
+     *
+     * @param input ABI encoded input
+     * @param outputParameters list of return types as {@link TypeReference}
+     * @return {@link List} of values returned by function, {@link Collections#emptyList()} if
+     *     invalid response
+     */
+    public List<Type> decodeFunctionResult(
+            byte[] input, List<TypeReference<Type>> outputParameters) {
+        return decodeFunctionResult(ByteBuffer.wrap(input), outputParameters);
+    }
+
+    /**
+     * Decode ABI encoded return values from smart contract function call, starting at the current
+     * position of the buffer.
+     *
+     * @param input ABI encoded input
+     * @param outputParameters list of return types as {@link TypeReference}
+     * @return {@link List} of values returned by function, {@link Collections#emptyList()} if
+     *     invalid response
+     */
+    public List<Type> decodeFunctionResult(
+            ByteBuffer input, List<TypeReference<Type>> outputParameters) {
+        if (!input.hasRemaining()) {
+            return Collections.emptyList();
+        }
+        return BinaryTypeDecoder.decodeParameters(input, input.position(), outputParameters);
+    }
+
+    @Override
+    public <T extends Type> Type decodeEventParameter(
+            String rawInput, TypeReference<T> typeReference) {
+        return decodeEventParameter(
+                Numeric.hexStringToByteArray(Numeric.cleanHexPrefix(rawInput)), typeReference);
+    }
+
+    /**
+     * Decodes an indexed event parameter from its raw topic bytes.
+     *
+     * @param input topic value
+     * @param typeReference of expected result type
+     * @param <T> type of TypeReference
+     * @return the decoded value
+     * @see FunctionReturnDecoder#decodeIndexedValue(String, TypeReference)
+     */
+    public <T extends Type> Type decodeEventParameter(
+            byte[] input, TypeReference<T> typeReference) {
+        try {
+            Class<T> type = typeReference.getClassType();
+            ByteBuffer buffer = ByteBuffer.wrap(input);
+
+            if (Array.class.isAssignableFrom(type)
+                    || DynamicBytes.class.isAssignableFrom(type)
+                    || Utf8String.class.isAssignableFrom(type)) {
+                // dynamic values are indexed by their Keccak-256 hash
+                return BinaryTypeDecoder.decode(buffer, 0, Bytes32.class);
+            } else {
+                return BinaryTypeDecoder.decode(buffer, 0, type);
+            }
+        } catch (ClassNotFoundException e) {
+            throw new UnsupportedOperationException("Invalid class reference provided", e);
+        }
+    }
+}
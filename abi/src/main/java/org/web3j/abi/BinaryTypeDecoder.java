@@ -0,0 +1,255 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.abi;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.web3j.abi.DecodingPlan.Node;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint160;
+
+import static org.web3j.abi.datatypes.Type.MAX_BYTE_LENGTH;
+
+/**
+ * Ethereum Contract Application Binary Interface (ABI) decoding for types, reading directly from a
+ * {@link ByteBuffer} rather than from hex strings.
+ *
+ * <p>Decoding is driven by a {@link DecodingPlan}, so only the data dependent work is performed per
+ * call. All offsets are absolute indexes into the buffer; the buffer's position and limit are left
+ * untouched.
+ */
+public class BinaryTypeDecoder {
+
+    private BinaryTypeDecoder() {}
+
+    /**
+     * Decodes a list of values encoded as a tuple starting at the given offset.
+     *
+     * @param input ABI encoded input
+     * @param offset index of the first head word
+     * @param outputParameters list of expected types
+     * @return decoded values
+     */
+    public static List<Type> decodeParameters(
+            ByteBuffer input, int offset, List<TypeReference<Type>> outputParameters) {
+        return decodeParameters(input, offset, DecodingPlan.of(outputParameters));
+    }
+
+    /**
+     * Decodes a list of values encoded as a tuple starting at the given offset.
+     *
+     * @param input ABI encoded input
+     * @param offset index of the first head word
+     * @param plan decoding plan of the expected types
+     * @return decoded values
+     */
+    public static List<Type> decodeParameters(ByteBuffer input, int offset, DecodingPlan plan) {
+        return decodeTuple(input, offset, plan.getParameters());
+    }
+
+    /**
+     * Decodes a single value located at the given offset. For dynamic types the offset is that of
+     * the value's data, not of its head.
+     *
+     * @param input ABI encoded input
+     * @param offset index of the encoded value
+     * @param typeReference expected type
+     * @param <T> type of TypeReference
+     * @return decoded value
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Type> T decode(
+            ByteBuffer input, int offset, TypeReference<T> typeReference) {
+        DecodingPlan plan = DecodingPlan.of(Arrays.asList((TypeReference<Type>) typeReference));
+        return (T) decode(input, offset, plan.get(0));
+    }
+
+    /**
+     * Decodes a single atomic value located at the given offset.
+     *
+     * @param input ABI encoded input
+     * @param offset index of the encoded value
+     * @param type expected type
+     * @param <T> type to decode
+     * @return decoded value
+     */
+    public static <T extends Type> T decode(ByteBuffer input, int offset, Class<T> type) {
+        if (org.web3j.abi.datatypes.Array.class.isAssignableFrom(type)) {
+            throw new UnsupportedOperationException(
+                    "Array types must be wrapped in a TypeReference");
+        }
+        return decode(input, offset, TypeReference.create(type));
+    }
+
+    static Type decode(ByteBuffer input, int offset, Node node) {
+        switch (node.kind) {
+            case NUMERIC:
+                return instantiate(node, decodeNumeric(input, offset, node.length, node.signed));
+            case ADDRESS:
+                return new Address(new Uint160(decodeNumeric(input, offset, 20, false)));
+            case BOOL:
+                return decodeBool(input, offset);
+            case BYTES:
+                return instantiate(node, read(input, offset, node.length));
+            case DYNAMIC_BYTES:
+                return new DynamicBytes(decodeDynamicBytes(input, offset));
+            case UTF8_STRING:
+                return new Utf8String(
+                        new String(decodeDynamicBytes(input, offset), StandardCharsets.UTF_8));
+            case DYNAMIC_ARRAY:
+                {
+                    int length = decodeUintAsInt(input, offset);
+                    List<Type> elements =
+                            decodeArrayElements(
+                                    input, offset + MAX_BYTE_LENGTH, node.component, length);
+                    return newDynamicArray(node, elements);
+                }
+            case STATIC_ARRAY:
+                {
+                    List<Type> elements =
+                            decodeArrayElements(input, offset, node.component, node.length);
+                    if (elements.isEmpty()) {
+                        throw new UnsupportedOperationException(
+                                "Zero length fixed array is invalid type");
+                    }
+                    return instantiate(node, elements);
+                }
+            case STATIC_STRUCT:
+            case DYNAMIC_STRUCT:
+                return node.structFactory.newInstance(decodeTuple(input, offset, node.fields));
+            default:
+                throw new UnsupportedOperationException(
+                        "Type cannot be decoded: " + node.classType.getName());
+        }
+    }
+
+    static BigInteger decodeNumeric(ByteBuffer input, int offset, int length, boolean signed) {
+        byte[] resultByteArray = new byte[length + 1];
+
+        if (signed) {
+            resultByteArray[0] = input.get(offset); // take MSB as sign bit
+        }
+        read(input, offset + MAX_BYTE_LENGTH - length, resultByteArray, 1, length);
+
+        return new BigInteger(resultByteArray);
+    }
+
+    static Bool decodeBool(ByteBuffer input, int offset) {
+        for (int i = 0; i < MAX_BYTE_LENGTH - 1; i++) {
+            if (input.get(offset + i) != 0) {
+                return new Bool(false);
+            }
+        }
+        return new Bool(input.get(offset + MAX_BYTE_LENGTH - 1) == 1);
+    }
+
+    static byte[] decodeDynamicBytes(ByteBuffer input, int offset) {
+        int encodedLength = decodeUintAsInt(input, offset);
+        return read(input, offset + MAX_BYTE_LENGTH, encodedLength);
+    }
+
+    /**
+     * Reads the low 32 bits of the word at the given offset, as {@link
+     * java.math.BigInteger#intValue()} would for the full value.
+     */
+    static int decodeUintAsInt(ByteBuffer input, int offset) {
+        return input.getInt(offset + MAX_BYTE_LENGTH - Integer.BYTES);
+    }
+
+    /**
+     * Decodes values laid out as a tuple: static values and the offsets of dynamic values relative
+     * to the start of the tuple, followed by the dynamic values.
+     */
+    private static List<Type> decodeTuple(ByteBuffer input, int offset, List<Node> nodes) {
+        List<Type> results = new ArrayList<>(nodes.size());
+
+        int headOffset = offset;
+        for (Node node : nodes) {
+            if (node.dynamic) {
+                results.add(decode(input, offset + decodeUintAsInt(input, headOffset), node));
+            } else {
+                results.add(decode(input, headOffset, node));
+            }
+            headOffset += node.headLength;
+        }
+        return results;
+    }
+
+    private static List<Type> decodeArrayElements(
+            ByteBuffer input, int offset, Node component, int length) {
+        List<Type> elements = new ArrayList<>(length);
+        for (int i = 0, headOffset = offset; i < length; i++) {
+            if (component.dynamic) {
+                elements.add(decode(input, offset + decodeUintAsInt(input, headOffset), component));
+            } else {
+                elements.add(decode(input, headOffset, component));
+            }
+            headOffset += component.headLength;
+        }
+        return elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Type newDynamicArray(Node node, List<Type> elements) {
+        return new DynamicArray(node.componentType, elements);
+    }
+
+    private static Type instantiate(Node node, Object... arguments) {
+        try {
+            return (Type) node.constructor.newInstance(arguments);
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            throw new UnsupportedOperationException(
+                    "Unable to create instance of "
+                            + node.classType.getName()
+                            + " from "
+                            + Arrays.toString(arguments),
+                    e);
+        }
+    }
+
+    private static byte[] read(ByteBuffer input, int offset, int length) {
+        byte[] result = new byte[length];
+        read(input, offset, result, 0, length);
+        return result;
+    }
+
+    private static void read(
+            ByteBuffer input, int offset, byte[] destination, int destinationOffset, int length) {
+        if (offset < 0 || length < 0 || offset + length > input.limit()) {
+            throw new IndexOutOfBoundsException(
+                    "Cannot read " + length + " bytes at offset " + offset);
+        }
+        if (input.hasArray()) {
+            System.arraycopy(
+                    input.array(),
+                    input.arrayOffset() + offset,
+                    destination,
+                    destinationOffset,
+                    length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                destination[destinationOffset + i] = input.get(offset + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.abi;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Array;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.Bytes;
+import org.web3j.abi.datatypes.BytesType;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.DynamicStruct;
+import org.web3j.abi.datatypes.NumericType;
+import org.web3j.abi.datatypes.StaticArray;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Ufixed;
+import org.web3j.abi.datatypes.Uint;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.primitive.PrimitiveType;
+
+import static org.web3j.abi.TypeEncoder.isDynamic;
+import static org.web3j.abi.datatypes.Type.MAX_BIT_LENGTH;
+import static org.web3j.abi.datatypes.Type.MAX_BYTE_LENGTH;
+
+/**
+ * Ethereum Contract Application Binary Interface (ABI) encoding for types, writing directly into a
+ * {@link ByteBuffer} rather than building hex strings.
+ *
+ * <p>The produced encoding is the binary equivalent of {@link TypeEncoder#encode(Type)}. Callers
+ * size their buffer with {@link #encodedLength(Type)} and then {@link #encode(Type, ByteBuffer)}
+ * writes the value at the buffer's current position.
+ */
+public class BinaryTypeEncoder {
+
+    private static final byte[] ZERO_WORD = new byte[MAX_BYTE_LENGTH];
+
+    private BinaryTypeEncoder() {}
+
+    /**
+     * Returns the number of bytes {@link #encode(Type, ByteBuffer)} will write for the given value.
+     *
+     * @param parameter value to be encoded
+     * @return length of the encoded value in bytes
+     */
+    public static int encodedLength(Type parameter) {
+        if (parameter instanceof NumericType
+                || parameter instanceof Address
+                || parameter instanceof Bool) {
+            return MAX_BYTE_LENGTH;
+        } else if (parameter instanceof Bytes) {
+            return paddedLength(((Bytes) parameter).getValue().length);
+        } else if (parameter instanceof DynamicBytes) {
+            return MAX_BYTE_LENGTH + paddedLength(((DynamicBytes) parameter).getValue().length);
+        } else if (parameter instanceof Utf8String) {
+            return MAX_BYTE_LENGTH + paddedLength(utf8Length(((Utf8String) parameter).getValue()));
+        } else if (parameter instanceof StaticArray) {
+            int length = valuesLength((StaticArray<?>) parameter);
+            if (hasDynamicStructComponent((StaticArray<?>) parameter)) {
+                length += ((StaticArray<?>) parameter).getValue().size() * MAX_BYTE_LENGTH;
+            }
+            return length;
+        } else if (parameter instanceof DynamicStruct) {
+            return parametersLength(((DynamicStruct) parameter).getValue());
+        } else if (parameter instanceof DynamicArray) {
+            DynamicArray<?> array = (DynamicArray<?>) parameter;
+            int length = MAX_BYTE_LENGTH + valuesLength(array);
+            if (hasOffsets(array)) {
+                length += array.getValue().size() * MAX_BYTE_LENGTH;
+            }
+            return length;
+        } else if (parameter instanceof PrimitiveType) {
+            return encodedLength(((PrimitiveType) parameter).toSolidityType());
+        } else {
+            throw new UnsupportedOperationException(
+                    "Type cannot be encoded: " + parameter.getClass());
+        }
+    }
+
+    /**
+     * Returns the number of bytes {@link #encodeParameters(List, ByteBuffer)} will write for the
+     * given parameters.
+     *
+     * @param parameters values to be encoded
+     * @return length of the encoded parameters in bytes
+     */
+    public static int parametersLength(List<? extends Type> parameters) {
+        int length = 0;
+        for (Type parameter : parameters) {
+            length += encodedLength(parameter);
+            if (isDynamic(parameter)) {
+                length += MAX_BYTE_LENGTH;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Encodes the value at the current position of the buffer, advancing it by {@link
+     * #encodedLength(Type)} bytes.
+     *
+     * @param parameter value to be encoded
+     * @param buffer destination buffer
+     */
+    @SuppressWarnings("unchecked")
+    public static void encode(Type parameter, ByteBuffer buffer) {
+        if (parameter instanceof NumericType) {
+            encodeNumeric((NumericType) parameter, buffer);
+        } else if (parameter instanceof Address) {
+            encodeNumeric(((Address) parameter).toUint(), buffer);
+        } else if (parameter instanceof Bool) {
+            encodeBool((Bool) parameter, buffer);
+        } else if (parameter instanceof Bytes) {
+            encodeBytes((BytesType) parameter, buffer);
+        } else if (parameter instanceof DynamicBytes) {
+            encodeDynamicBytes(((DynamicBytes) parameter).getValue(), buffer);
+        } else if (parameter instanceof Utf8String) {
+            encodeDynamicBytes(
+                    ((Utf8String) parameter).getValue().getBytes(StandardCharsets.UTF_8), buffer);
+        } else if (parameter instanceof StaticArray) {
+            if (hasDynamicStructComponent((StaticArray<?>) parameter)) {
+                encodeOffsets(((StaticArray<Type>) parameter).getValue(), buffer);
+            }
+            encodeArrayValues((StaticArray<Type>) parameter, buffer);
+        } else if (parameter instanceof DynamicStruct) {
+            encodeParameters(((DynamicStruct) parameter).getValue(), buffer);
+        } else if (parameter instanceof DynamicArray) {
+            encodeDynamicArray((DynamicArray<Type>) parameter, buffer);
+        } else if (parameter instanceof PrimitiveType) {
+            encode(((PrimitiveType) parameter).toSolidityType(), buffer);
+        } else {
+            throw new UnsupportedOperationException(
+                    "Type cannot be encoded: " + parameter.getClass());
+        }
+    }
+
+    /**
+     * Encodes a list of values as a tuple: the static values and the offsets of the dynamic values
+     * first, followed by the dynamic values themselves.
+     *
+     * @param parameters values to be encoded
+     * @param buffer destination buffer
+     */
+    public static void encodeParameters(List<? extends Type> parameters, ByteBuffer buffer) {
+        int dynamicDataOffset = 0;
+        for (Type parameter : parameters) {
+            dynamicDataOffset += isDynamic(parameter) ? MAX_BYTE_LENGTH : encodedLength(parameter);
+        }
+
+        for (Type parameter : parameters) {
+            if (isDynamic(parameter)) {
+                encodeLength(dynamicDataOffset, buffer);
+                dynamicDataOffset += encodedLength(parameter);
+            } else {
+                encode(parameter, buffer);
+            }
+        }
+        for (Type parameter : parameters) {
+            if (isDynamic(parameter)) {
+                encode(parameter, buffer);
+            }
+        }
+    }
+
+    static void encodeNumeric(NumericType numericType, ByteBuffer buffer) {
+        BigInteger value = numericType.getValue();
+        byte[] rawValue = value.toByteArray();
+        int start = 0;
+        if ((numericType instanceof Ufixed || numericType instanceof Uint)
+                && value.bitLength() == MAX_BIT_LENGTH) {
+            // As BigInteger is signed, a 256 bit value carries a sign byte in its MSB, which we
+            // should ignore for this unsigned integer type.
+            start = 1;
+        }
+        int length = rawValue.length - start;
+        if (length > MAX_BYTE_LENGTH) {
+            throw new UnsupportedOperationException(
+                    "Value exceeds " + MAX_BIT_LENGTH + " bits: " + value);
+        }
+
+        byte paddingValue = value.signum() == -1 ? (byte) 0xff : 0;
+        for (int i = length; i < MAX_BYTE_LENGTH; i++) {
+            buffer.put(paddingValue);
+        }
+        buffer.put(rawValue, start, length);
+    }
+
+    static void encodeBool(Bool value, ByteBuffer buffer) {
+        buffer.put(ZERO_WORD, 0, MAX_BYTE_LENGTH - 1);
+        buffer.put(value.getValue() ? (byte) 1 : 0);
+    }
+
+    static void encodeBytes(BytesType bytesType, ByteBuffer buffer) {
+        byte[] value = bytesType.getValue();
+        buffer.put(value);
+        encodePadding(value.length, buffer);
+    }
+
+    static void encodeDynamicBytes(byte[] value, ByteBuffer buffer) {
+        encodeLength(value.length, buffer);
+        buffer.put(value);
+        encodePadding(value.length, buffer);
+    }
+
+    static <T extends Type> void encodeDynamicArray(DynamicArray<T> value, ByteBuffer buffer) {
+        encodeLength(value.getValue().size(), buffer);
+        if (hasOffsets(value)) {
+            encodeOffsets(value.getValue(), buffer);
+        }
+        encodeArrayValues(value, buffer);
+    }
+
+    private static <T extends Type> void encodeArrayValues(Array<T> value, ByteBuffer buffer) {
+        for (Type type : value.getValue()) {
+            encode(type, buffer);
+        }
+    }
+
+    /**
+     * Writes the head of an array of dynamic elements, being the offsets of each element relative
+     * to the start of the heads.
+     */
+    private static <T extends Type> void encodeOffsets(List<T> values, ByteBuffer buffer) {
+        int offset = values.size() * MAX_BYTE_LENGTH;
+        for (Type type : values) {
+            encodeLength(offset, buffer);
+            offset += encodedLength(type);
+        }
+    }
+
+    private static void encodeLength(long value, ByteBuffer buffer) {
+        buffer.put(ZERO_WORD, 0, MAX_BYTE_LENGTH - Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    private static void encodePadding(int length, ByteBuffer buffer) {
+        int mod = length % MAX_BYTE_LENGTH;
+        if (mod != 0) {
+            buffer.put(ZERO_WORD, 0, MAX_BYTE_LENGTH - mod);
+        }
+    }
+
+    private static <T extends Type> int valuesLength(Array<T> value) {
+        int length = 0;
+        for (Type type : value.getValue()) {
+            length += encodedLength(type);
+        }
+        return length;
+    }
+
+    private static boolean hasDynamicStructComponent(StaticArray<?> value) {
+        return DynamicStruct.class.isAssignableFrom(value.getComponentType());
+    }
+
+    /** Mirrors the element types for which {@link TypeEncoder} emits element offsets. */
+    private static boolean hasOffsets(DynamicArray<?> value) {
+        if (value.getValue().isEmpty()) {
+            return false;
+        }
+        Type first = value.getValue().get(0);
+        return first instanceof DynamicBytes
+                || first instanceof Utf8String
+                || first instanceof DynamicStruct;
+    }
+
+    private static int paddedLength(int length) {
+        return (length + MAX_BYTE_LENGTH - 1) / MAX_BYTE_LENGTH * MAX_BYTE_LENGTH;
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)
+                    && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogates are replaced with '?' by the UTF-8 encoder
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
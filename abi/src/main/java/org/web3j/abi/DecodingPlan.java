@@ -0,0 +1,431 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.abi;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.ParameterizedType;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.web3j.abi.datatypes.AbiTypes;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Array;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.Bytes;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.DynamicStruct;
+import org.web3j.abi.datatypes.Event;
+import org.web3j.abi.datatypes.Fixed;
+import org.web3j.abi.datatypes.Int;
+import org.web3j.abi.datatypes.NumericType;
+import org.web3j.abi.datatypes.StaticArray;
+import org.web3j.abi.datatypes.StaticStruct;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+
+import static org.web3j.abi.TypeDecoder.getTypeLengthInBytes;
+import static org.web3j.abi.Utils.getSimpleTypeName;
+import static org.web3j.abi.datatypes.Type.MAX_BYTE_LENGTH;
+
+/**
+ * Decoding instructions compiled once for a list of {@link TypeReference}s, such as the output
+ * parameters of a function or the non-indexed parameters of an {@link Event}.
+ *
+ * <p>A plan records everything about the expected types that does not depend on the data being
+ * decoded: which values are dynamic, the length of each head, static array sizes and the
+ * constructors used to instantiate each value. Plans are immutable and cached, keyed on the
+ * structure of the referenced types rather than on the {@link TypeReference} instances, so
+ * repeatedly decoding the same function result or event only performs the data dependent work.
+ */
+public final class DecodingPlan {
+
+    /** Upper bound on the number of plans kept in the cache. */
+    static final int MAX_CACHED_PLANS = 1024;
+
+    private static final ConcurrentMap<List<Object>, DecodingPlan> cache =
+            new ConcurrentHashMap<>();
+
+    private final List<Node> parameters;
+
+    private DecodingPlan(List<Node> parameters) {
+        this.parameters = parameters;
+    }
+
+    /**
+     * Returns the plan for decoding the given output parameters, compiling it on first use.
+     *
+     * @param outputParameters list of expected types
+     * @return the decoding plan
+     */
+    public static DecodingPlan of(List<TypeReference<Type>> outputParameters) {
+        List<Object> key = cacheKey(outputParameters);
+        DecodingPlan plan = cache.get(key);
+        if (plan == null) {
+            plan = compile(outputParameters);
+            evictIfFull();
+            DecodingPlan existing = cache.putIfAbsent(key, plan);
+            if (existing != null) {
+                plan = existing;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Returns the plan for decoding the non-indexed parameters of an event.
+     *
+     * @param event event definition
+     * @return the decoding plan
+     */
+    public static DecodingPlan of(Event event) {
+        return of(event.getNonIndexedParameters());
+    }
+
+    static DecodingPlan compile(List<TypeReference<Type>> outputParameters) {
+        List<Node> parameters = new ArrayList<>(outputParameters.size());
+        for (TypeReference<Type> typeReference : outputParameters) {
+            parameters.add(compile(typeReference.getType(), staticArraySize(typeReference)));
+        }
+        return new DecodingPlan(Collections.unmodifiableList(parameters));
+    }
+
+    static Node compile(java.lang.reflect.Type type, int size) {
+        Class<Type> classType = rawClass(type);
+        if (DynamicStruct.class.isAssignableFrom(classType)) {
+            return Node.struct(Kind.DYNAMIC_STRUCT, classType);
+        } else if (StaticStruct.class.isAssignableFrom(classType)) {
+            return Node.struct(Kind.STATIC_STRUCT, classType);
+        } else if (DynamicArray.class.isAssignableFrom(classType)) {
+            return Node.array(Kind.DYNAMIC_ARRAY, classType, componentType(type), 0);
+        } else if (StaticArray.class.isAssignableFrom(classType)) {
+            int length = size > 0 ? size : staticArraySize(classType);
+            return Node.array(Kind.STATIC_ARRAY, classType, componentType(type), length);
+        } else if (NumericType.class.isAssignableFrom(classType)) {
+            return Node.numeric(classType);
+        } else if (Address.class.isAssignableFrom(classType)) {
+            return Node.atomic(Kind.ADDRESS, classType, MAX_BYTE_LENGTH, null);
+        } else if (Bool.class.isAssignableFrom(classType)) {
+            return Node.atomic(Kind.BOOL, classType, MAX_BYTE_LENGTH, null);
+        } else if (Bytes.class.isAssignableFrom(classType)) {
+            String[] splitName = classType.getSimpleName().split(Bytes.class.getSimpleName());
+            return Node.atomic(
+                    Kind.BYTES,
+                    classType,
+                    Integer.parseInt(splitName[1]),
+                    constructor(classType, byte[].class));
+        } else if (DynamicBytes.class.isAssignableFrom(classType)) {
+            return Node.atomic(Kind.DYNAMIC_BYTES, classType, 0, null);
+        } else if (Utf8String.class.isAssignableFrom(classType)) {
+            return Node.atomic(Kind.UTF8_STRING, classType, 0, null);
+        } else {
+            throw new UnsupportedOperationException(
+                    "Type cannot be decoded: " + classType.getName());
+        }
+    }
+
+    /** @return the number of parameters decoded by this plan */
+    public int size() {
+        return parameters.size();
+    }
+
+    Node get(int index) {
+        return parameters.get(index);
+    }
+
+    List<Node> getParameters() {
+        return parameters;
+    }
+
+    static int cacheSize() {
+        return cache.size();
+    }
+
+    static void clearCache() {
+        cache.clear();
+    }
+
+    private static void evictIfFull() {
+        Iterator<List<Object>> keys = cache.keySet().iterator();
+        while (cache.size() >= MAX_CACHED_PLANS && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Builds a key describing the structure of the referenced types. {@link TypeReference}s are
+     * typically created anew for every call, and the parameterized types created by {@link
+     * TypeReference#makeTypeReference(String)} do not implement equality, so neither can be used as
+     * a key directly.
+     */
+    private static List<Object> cacheKey(List<TypeReference<Type>> outputParameters) {
+        List<Object> key = new ArrayList<>(outputParameters.size() * 2);
+        for (TypeReference<Type> typeReference : outputParameters) {
+            key.add(typeKey(typeReference.getType()));
+            key.add(staticArraySize(typeReference));
+        }
+        return key;
+    }
+
+    private static Object typeKey(java.lang.reflect.Type type) {
+        if (type instanceof Class) {
+            return type;
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            java.lang.reflect.Type[] arguments = parameterizedType.getActualTypeArguments();
+            List<Object> key = new ArrayList<>(arguments.length + 1);
+            key.add(parameterizedType.getRawType());
+            for (java.lang.reflect.Type argument : arguments) {
+                key.add(typeKey(argument));
+            }
+            return key;
+        } else {
+            return Utils.getTypeName(type);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Class<Type> rawClass(java.lang.reflect.Type type) {
+        if (type instanceof ParameterizedType) {
+            return (Class<Type>) ((ParameterizedType) type).getRawType();
+        } else if (type instanceof Class) {
+            return (Class<Type>) type;
+        } else {
+            try {
+                return (Class<Type>) Class.forName(Utils.getTypeName(type));
+            } catch (ClassNotFoundException e) {
+                throw new UnsupportedOperationException("Invalid class reference provided", e);
+            }
+        }
+    }
+
+    private static java.lang.reflect.Type componentType(java.lang.reflect.Type arrayType) {
+        if (!(arrayType instanceof ParameterizedType)) {
+            throw new UnsupportedOperationException(
+                    "Unable to access parameterized type " + Utils.getTypeName(arrayType));
+        }
+        return ((ParameterizedType) arrayType).getActualTypeArguments()[0];
+    }
+
+    private static int staticArraySize(TypeReference<?> typeReference) {
+        return typeReference instanceof TypeReference.StaticArrayTypeReference
+                ? ((TypeReference.StaticArrayTypeReference<?>) typeReference).getSize()
+                : 0;
+    }
+
+    private static int staticArraySize(Class<?> classType) {
+        return Integer.parseInt(
+                classType.getSimpleName().substring(StaticArray.class.getSimpleName().length()));
+    }
+
+    private static Constructor<?> constructor(Class<?> classType, Class<?>... parameterTypes) {
+        try {
+            return classType.getConstructor(parameterTypes);
+        } catch (NoSuchMethodException | SecurityException e) {
+            throw new UnsupportedOperationException(
+                    "Unable to create instance of " + classType.getName(), e);
+        }
+    }
+
+    private static Constructor<?> staticArrayConstructor(int length) {
+        try {
+            return Class.forName("org.web3j.abi.datatypes.generated.StaticArray" + length)
+                    .getConstructor(List.class);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException(e);
+        }
+    }
+
+    enum Kind {
+        NUMERIC,
+        ADDRESS,
+        BOOL,
+        BYTES,
+        DYNAMIC_BYTES,
+        UTF8_STRING,
+        DYNAMIC_ARRAY,
+        STATIC_ARRAY,
+        STATIC_STRUCT,
+        DYNAMIC_STRUCT
+    }
+
+    /** Compiled decoding instructions for a single type. */
+    static final class Node {
+
+        final Kind kind;
+        final Class<Type> classType;
+
+        /** Whether the value is encoded in the tail, with its offset in the head. */
+        final boolean dynamic;
+
+        /** Length in bytes of the value's head: 32 for dynamic values, else the full encoding. */
+        final int headLength;
+
+        /** Byte length of numeric and bytes types, or the size of static arrays. */
+        final int length;
+
+        /** Whether the most significant bit of a numeric type is its sign. */
+        final boolean signed;
+
+        /** Constructor of numeric, bytes and static array types. */
+        final Constructor<?> constructor;
+
+        /** Factory of struct types. */
+        final StructFactory<Type> structFactory;
+
+        /** Array element plan, for array types. */
+        final Node component;
+
+        /** Type of the elements of decoded dynamic arrays. */
+        final Class<? extends Type> componentType;
+
+        /** Struct component plans, in constructor parameter order. */
+        final List<Node> fields;
+
+        private Node(
+                Kind kind,
+                Class<Type> classType,
+                boolean dynamic,
+                int headLength,
+                int length,
+                boolean signed,
+                Constructor<?> constructor,
+                StructFactory<Type> structFactory,
+                Node component,
+                Class<? extends Type> componentType,
+                List<Node> fields) {
+            this.kind = kind;
+            this.classType = classType;
+            this.dynamic = dynamic;
+            this.headLength = headLength;
+            this.length = length;
+            this.signed = signed;
+            this.constructor = constructor;
+            this.structFactory = structFactory;
+            this.component = component;
+            this.componentType = componentType;
+            this.fields = fields;
+        }
+
+        static Node atomic(
+                Kind kind, Class<Type> classType, int length, Constructor<?> constructor) {
+            boolean dynamic = kind == Kind.DYNAMIC_BYTES || kind == Kind.UTF8_STRING;
+            return new Node(
+                    kind,
+                    classType,
+                    dynamic,
+                    MAX_BYTE_LENGTH,
+                    length,
+                    false,
+                    constructor,
+                    null,
+                    null,
+                    null,
+                    Collections.emptyList());
+        }
+
+        @SuppressWarnings("unchecked")
+        static Node numeric(Class<Type> classType) {
+            Class<NumericType> numericType = (Class<NumericType>) (Class<?>) classType;
+            return new Node(
+                    Kind.NUMERIC,
+                    classType,
+                    false,
+                    MAX_BYTE_LENGTH,
+                    getTypeLengthInBytes(numericType),
+                    Int.class.isAssignableFrom(classType)
+                            || Fixed.class.isAssignableFrom(classType),
+                    constructor(classType, BigInteger.class),
+                    null,
+                    null,
+                    null,
+                    Collections.emptyList());
+        }
+
+        static Node array(
+                Kind kind,
+                Class<Type> classType,
+                java.lang.reflect.Type componentReflectedType,
+                int length) {
+            Class<Type> componentClass = rawClass(componentReflectedType);
+            if (Array.class.isAssignableFrom(componentClass)
+                    && !DynamicStruct.class.isAssignableFrom(componentClass)
+                    && !StaticStruct.class.isAssignableFrom(componentClass)) {
+                throw new UnsupportedOperationException(
+                        "Arrays of arrays are not currently supported for external functions, see"
+                                + "http://solidity.readthedocs.io/en/develop/types.html#members");
+            }
+            Node component = compile(componentReflectedType, 0);
+
+            if (kind == Kind.DYNAMIC_ARRAY) {
+                return new Node(
+                        kind,
+                        classType,
+                        true,
+                        MAX_BYTE_LENGTH,
+                        0,
+                        false,
+                        null,
+                        null,
+                        component,
+                        AbiTypes.getType(getSimpleTypeName(componentClass)),
+                        Collections.emptyList());
+            } else {
+                return new Node(
+                        kind,
+                        classType,
+                        component.dynamic,
+                        component.dynamic ? MAX_BYTE_LENGTH : length * component.headLength,
+                        length,
+                        false,
+                        staticArrayConstructor(length),
+                        null,
+                        component,
+                        null,
+                        Collections.emptyList());
+            }
+        }
+
+        static Node struct(Kind kind, Class<Type> classType) {
+            StructFactory<Type> structFactory = StructFactory.of(classType);
+
+            List<Node> fields = new ArrayList<>(structFactory.getParameterCount());
+            int headLength = 0;
+            for (int i = 0; i < structFactory.getParameterCount(); i++) {
+                Node field = compile(structFactory.getGenericParameterType(i), 0);
+                fields.add(field);
+                headLength += field.headLength;
+            }
+
+            boolean dynamic = kind == Kind.DYNAMIC_STRUCT;
+            return new Node(
+                    kind,
+                    classType,
+                    dynamic,
+                    dynamic ? MAX_BYTE_LENGTH : headLength,
+                    0,
+                    false,
+                    null,
+                    structFactory,
+                    null,
+                    null,
+                    Collections.unmodifiableList(fields));
+        }
+    }
+}
@@ -23,17 +23,14 @@ import org.web3j.abi.datatypes.DynamicArray;
 import org.web3j.abi.datatypes.DynamicBytes;
 import org.web3j.abi.datatypes.DynamicStruct;
 import org.web3j.abi.datatypes.StaticArray;
-import org.web3j.abi.datatypes.StaticStruct;
 import org.web3j.abi.datatypes.Type;
 import org.web3j.abi.datatypes.Utf8String;
 import org.web3j.abi.datatypes.generated.Bytes32;
 import org.web3j.utils.Numeric;
 import org.web3j.utils.Strings;
 
-import static org.web3j.abi.TypeDecoder.MAX_BYTE_LENGTH_FOR_HEX_STRING;
 import static org.web3j.abi.TypeDecoder.isDynamic;
 import static org.web3j.abi.Utils.getParameterizedTypeFromArray;
-import static org.web3j.abi.Utils.staticStructNestedPublicFieldsFlatList;
 
 /**
  * Ethereum Contract Application Binary Interface (ABI) encoding for functions. Further details are
@@ -78,79 +75,44 @@ public class DefaultFunctionReturnDecoder extends FunctionReturnDecoder {
     }
 
     private static List<Type> build(String input, List<TypeReference<Type>> outputParameters) {
+        DecodingPlan plan = DecodingPlan.of(outputParameters);
         List<Type> results = new ArrayList<>(outputParameters.size());
 
         int offset = 0;
-        for (TypeReference<?> typeReference : outputParameters) {
-            try {
-                int hexStringDataOffset = getDataOffset(input, offset, typeReference);
+        for (int i = 0; i < outputParameters.size(); i++) {
+            TypeReference<Type> typeReference = outputParameters.get(i);
+            DecodingPlan.Node node = plan.get(i);
 
-                @SuppressWarnings("unchecked")
-                Class<Type> classType = (Class<Type>) typeReference.getClassType();
+            int hexStringDataOffset =
+                    node.dynamic ? TypeDecoder.decodeUintAsInt(input, offset) << 1 : offset;
 
-                Type result;
-                if (DynamicStruct.class.isAssignableFrom(classType)) {
+            Type result;
+            switch (node.kind) {
+                case DYNAMIC_STRUCT:
                     result =
                             TypeDecoder.decodeDynamicStruct(
                                     input, hexStringDataOffset, typeReference);
-                    offset += MAX_BYTE_LENGTH_FOR_HEX_STRING;
-
-                } else if (DynamicArray.class.isAssignableFrom(classType)) {
+                    break;
+                case DYNAMIC_ARRAY:
                     result =
                             TypeDecoder.decodeDynamicArray(
                                     input, hexStringDataOffset, typeReference);
-                    offset += MAX_BYTE_LENGTH_FOR_HEX_STRING;
-
-                } else if (typeReference instanceof TypeReference.StaticArrayTypeReference) {
-                    int length = ((TypeReference.StaticArrayTypeReference) typeReference).getSize();
+                    break;
+                case STATIC_ARRAY:
                     result =
                             TypeDecoder.decodeStaticArray(
-                                    input, hexStringDataOffset, typeReference, length);
-                    offset += length * MAX_BYTE_LENGTH_FOR_HEX_STRING;
-
-                } else if (StaticStruct.class.isAssignableFrom(classType)) {
+                                    input, hexStringDataOffset, typeReference, node.length);
+                    break;
+                case STATIC_STRUCT:
                     result =
                             TypeDecoder.decodeStaticStruct(
                                     input, hexStringDataOffset, typeReference);
-                    offset +=
-                            staticStructNestedPublicFieldsFlatList(classType).size()
-                                    * MAX_BYTE_LENGTH_FOR_HEX_STRING;
-                } else if (StaticArray.class.isAssignableFrom(classType)) {
-                    int length =
-                            Integer.parseInt(
-                                    classType
-                                            .getSimpleName()
-                                            .substring(StaticArray.class.getSimpleName().length()));
-                    result =
-                            TypeDecoder.decodeStaticArray(
-                                    input, hexStringDataOffset, typeReference, length);
-                    if (DynamicStruct.class.isAssignableFrom(
-                            getParameterizedTypeFromArray(typeReference))) {
-                        offset += MAX_BYTE_LENGTH_FOR_HEX_STRING;
-                    } else if (StaticStruct.class.isAssignableFrom(
-                            getParameterizedTypeFromArray(typeReference))) {
-                        offset +=
-                                staticStructNestedPublicFieldsFlatList(
-                                                        getParameterizedTypeFromArray(
-                                                                typeReference))
-                                                .size()
-                                        * length
-                                        * MAX_BYTE_LENGTH_FOR_HEX_STRING;
-                    } else if (Utf8String.class.isAssignableFrom(
-                            getParameterizedTypeFromArray(typeReference))) {
-                        offset += MAX_BYTE_LENGTH_FOR_HEX_STRING;
-                    } else {
-                        offset += length * MAX_BYTE_LENGTH_FOR_HEX_STRING;
-                    }
-                } else {
-                    result = TypeDecoder.decode(input, hexStringDataOffset, classType);
-                    offset += MAX_BYTE_LENGTH_FOR_HEX_STRING;
-                }
-                results.add(result);
-
-            } catch (ClassNotFoundException e) {
-                throw new UnsupportedOperationException("Invalid class reference provided", e);
+                    break;
+                default:
+                    result = TypeDecoder.decode(input, hexStringDataOffset, node.classType);
             }
+            results.add(result);
+            offset += node.headLength << 1;
         }
         return results;
     }
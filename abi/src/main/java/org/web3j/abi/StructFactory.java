@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.abi;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.List;
+
+import org.web3j.abi.datatypes.StructType;
+import org.web3j.abi.datatypes.Type;
+
+import static org.web3j.abi.Utils.staticStructNestedPublicFieldsFlatList;
+
+/**
+ * Instantiates {@link org.web3j.abi.datatypes.StaticStruct} and {@link
+ * org.web3j.abi.datatypes.DynamicStruct} subclasses from their decoded components.
+ *
+ * <p>Each struct class is resolved once, on first use, to a {@link MethodHandle} for its
+ * constructor accepting {@link Type} components, together with its flattened field layout. The
+ * factories are held in a registry keyed on the struct class, so decoding the same struct again
+ * does not repeat any reflection.
+ *
+ * @param <T> struct type
+ */
+public final class StructFactory<T extends Type> {
+
+    private static final ClassValue<StructFactory<?>> registry =
+            new ClassValue<StructFactory<?>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                protected StructFactory<?> computeValue(Class<?> type) {
+                    return new StructFactory<>((Class<Type>) type);
+                }
+            };
+
+    private final Class<T> structType;
+    private final Class<?>[] parameterTypes;
+    private final java.lang.reflect.Type[] genericParameterTypes;
+    private final MethodHandle constructor;
+    private final int flatFieldCount;
+
+    @SuppressWarnings("unchecked")
+    private StructFactory(Class<T> structType) {
+        if (!StructType.class.isAssignableFrom(structType)) {
+            throw new UnsupportedOperationException("Not a struct type: " + structType.getName());
+        }
+        Constructor<?> declaredConstructor = findConstructor(structType);
+        this.structType = structType;
+        this.parameterTypes = declaredConstructor.getParameterTypes();
+        this.genericParameterTypes = declaredConstructor.getGenericParameterTypes();
+        this.constructor = unreflect(declaredConstructor);
+        this.flatFieldCount =
+                staticStructNestedPublicFieldsFlatList((Class<Type>) (Class<?>) structType).size();
+    }
+
+    /**
+     * Returns the factory for the given struct class, resolving it on first use.
+     *
+     * @param structType struct class
+     * @param <T> struct type
+     * @return the struct factory
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Type> StructFactory<T> of(Class<T> structType) {
+        return (StructFactory<T>) registry.get(structType);
+    }
+
+    /**
+     * Creates a new struct instance.
+     *
+     * @param components struct components, in constructor parameter order
+     * @return the new struct
+     */
+    public T newInstance(List<?> components) {
+        return newInstance(components.toArray());
+    }
+
+    /**
+     * Creates a new struct instance.
+     *
+     * @param components struct components, in constructor parameter order
+     * @return the new struct
+     */
+    public T newInstance(Object... components) {
+        try {
+            return structType.cast(constructor.invokeExact(components));
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UnsupportedOperationException(
+                    "Constructor cannot accept" + Arrays.toString(components), e);
+        }
+    }
+
+    public Class<T> getStructType() {
+        return structType;
+    }
+
+    /** @return the number of components accepted by the struct constructor */
+    public int getParameterCount() {
+        return parameterTypes.length;
+    }
+
+    /**
+     * Returns the declared type of a struct component.
+     *
+     * @param index component index
+     * @return the component class
+     */
+    @SuppressWarnings("unchecked")
+    public <U extends Type> Class<U> getParameterType(int index) {
+        return (Class<U>) parameterTypes[index];
+    }
+
+    /**
+     * Returns the declared type of a struct component, including the element type of arrays.
+     *
+     * @param index component index
+     * @return the component type
+     */
+    public java.lang.reflect.Type getGenericParameterType(int index) {
+        return genericParameterTypes[index];
+    }
+
+    /**
+     * Returns the number of fields of the struct once nested static structs are flattened, as given
+     * by {@link Utils#staticStructNestedPublicFieldsFlatList(Class)}.
+     *
+     * @return flattened field count
+     */
+    public int getFlatFieldCount() {
+        return flatFieldCount;
+    }
+
+    private static Constructor<?> findConstructor(Class<?> structType) {
+        return Arrays.stream(structType.getDeclaredConstructors())
+                .filter(
+                        declaredConstructor ->
+                                Arrays.stream(declaredConstructor.getParameterTypes())
+                                        .allMatch(Type.class::isAssignableFrom))
+                .findAny()
+                .orElseThrow(
+                        () ->
+                                new RuntimeException(
+                                        "TypeReference struct must contain a constructor with types that extend Type"));
+    }
+
+    /** Adapts the constructor to a handle of type {@code (Object[])Object}. */
+    private static MethodHandle unreflect(Constructor<?> declaredConstructor) {
+        try {
+            declaredConstructor.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(declaredConstructor);
+            return handle.asSpreader(Object[].class, declaredConstructor.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new UnsupportedOperationException(
+                    "Unable to access constructor of " + declaredConstructor.getName(), e);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 
 import org.web3j.abi.datatypes.AbiTypes;
@@ -54,7 +55,6 @@ import org.web3j.utils.Numeric;
 import static org.web3j.abi.DefaultFunctionReturnDecoder.getDataOffset;
 import static org.web3j.abi.TypeReference.makeTypeReference;
 import static org.web3j.abi.Utils.getSimpleTypeName;
-import static org.web3j.abi.Utils.staticStructNestedPublicFieldsFlatList;
 
 /**
  * Ethereum Contract Application Binary Interface (ABI) decoding for types. Decoding is not
@@ -65,6 +65,8 @@ public class TypeDecoder {
 
     static final int MAX_BYTE_LENGTH_FOR_HEX_STRING = Type.MAX_BYTE_LENGTH << 1;
 
+    private static final Map<Class<?>, Integer> typeLengths = new ConcurrentHashMap<>();
+
     public static Type instantiateType(String solidityType, Object value)
             throws InvocationTargetException, NoSuchMethodException, InstantiationException,
                     IllegalAccessException, ClassNotFoundException {
@@ -159,6 +161,10 @@ public class TypeDecoder {
     }
 
     static <T extends NumericType> int getTypeLength(Class<T> type) {
+        return typeLengths.computeIfAbsent(type, TypeDecoder::parseTypeLength);
+    }
+
+    private static int parseTypeLength(Class<?> type) {
         if (IntType.class.isAssignableFrom(type)) {
             String regex = "(" + Uint.class.getSimpleName() + "|" + Int.class.getSimpleName() + ")";
             String[] splitName = type.getSimpleName().split(regex);
@@ -265,7 +271,7 @@ public class TypeDecoder {
             // length field + data value
             return (decodeUintAsInt(input, offset) / Type.MAX_BYTE_LENGTH) + 2;
         } else if (StaticStruct.class.isAssignableFrom(type)) {
-            return staticStructNestedPublicFieldsFlatList((Class<Type>) type).size();
+            return StructFactory.of(type).getFlatFieldCount();
         } else {
             return 1;
         }
@@ -368,33 +374,17 @@ public class TypeDecoder {
             final BiFunction<List<T>, String, T> consumer) {
         try {
             Class<T> classType = typeReference.getClassType();
-            Constructor<?> constructor =
-                    Arrays.stream(classType.getDeclaredConstructors())
-                            .filter(
-                                    declaredConstructor ->
-                                            Arrays.stream(declaredConstructor.getParameterTypes())
-                                                    .allMatch(Type.class::isAssignableFrom))
-                            .findAny()
-                            .orElseThrow(
-                                    () ->
-                                            new RuntimeException(
-                                                    "TypeReferenced struct must contain a constructor with types that extend Type"));
-            final int length = constructor.getParameterCount();
+            final StructFactory<T> factory = StructFactory.of(classType);
+            final int length = factory.getParameterCount();
             List<T> elements = new ArrayList<>(length);
 
             for (int i = 0, currOffset = offset; i < length; i++) {
                 T value;
-                final Class<T> declaredField = (Class<T>) constructor.getParameterTypes()[i];
+                final Class<T> declaredField = factory.getParameterType(i);
 
                 if (StaticStruct.class.isAssignableFrom(declaredField)) {
                     final int nestedStructLength =
-                            classType
-                                            .getDeclaredFields()[i]
-                                            .getType()
-                                            .getConstructors()[0]
-                                            .getParameters()
-                                            .length
-                                    * 64;
+                            StructFactory.of(declaredField).getFlatFieldCount() * 64;
                     value =
                             decodeStaticStruct(
                                     input.substring(currOffset, currOffset + nestedStructLength),
@@ -419,27 +409,15 @@ public class TypeDecoder {
         }
     }
 
-    @SuppressWarnings("unchecked")
     private static <T extends Type> T instantiateStruct(
             final TypeReference<T> typeReference, final List<T> parameters) {
         try {
-            Constructor ctor =
-                    Arrays.stream(typeReference.getClassType().getDeclaredConstructors())
-                            .filter(
-                                    declaredConstructor ->
-                                            Arrays.stream(declaredConstructor.getParameterTypes())
-                                                    .allMatch(Type.class::isAssignableFrom))
-                            .findAny()
-                            .orElseThrow(
-                                    () ->
-                                            new RuntimeException(
-                                                    "TypeReference struct must contain a constructor with types that extend Type"));
-            ;
-            ctor.setAccessible(true);
-            return (T) ctor.newInstance(parameters.toArray());
-        } catch (ReflectiveOperationException e) {
+            return StructFactory.of(typeReference.getClassType()).newInstance(parameters);
+        } catch (ClassNotFoundException e) {
             throw new UnsupportedOperationException(
-                    "Constructor cannot accept" + Arrays.toString(parameters.toArray()), e);
+                    "Unable to access parameterized type "
+                            + Utils.getTypeName(typeReference.getType()),
+                    e);
         }
     }
 
@@ -481,23 +459,13 @@ public class TypeDecoder {
             final BiFunction<List<T>, String, T> consumer) {
         try {
             final Class<T> classType = typeReference.getClassType();
-            Constructor<?> constructor =
-                    Arrays.stream(classType.getDeclaredConstructors())
-                            .filter(
-                                    declaredConstructor ->
-                                            Arrays.stream(declaredConstructor.getParameterTypes())
-                                                    .allMatch(Type.class::isAssignableFrom))
-                            .findAny()
-                            .orElseThrow(
-                                    () ->
-                                            new RuntimeException(
-                                                    "TypeReferenced struct must contain a constructor with types that extend Type"));
-            final int length = constructor.getParameterCount();
+            final StructFactory<T> factory = StructFactory.of(classType);
+            final int length = factory.getParameterCount();
             final Map<Integer, T> parameters = new HashMap<>();
             int staticOffset = 0;
             final List<Integer> parameterOffsets = new ArrayList<>();
             for (int i = 0; i < length; ++i) {
-                final Class<T> declaredField = (Class<T>) constructor.getParameterTypes()[i];
+                final Class<T> declaredField = factory.getParameterType(i);
                 final T value;
                 final int beginIndex = offset + staticOffset;
                 if (isDynamic(declaredField)) {
@@ -518,9 +486,7 @@ public class TypeDecoder {
                                         0,
                                         TypeReference.create(declaredField));
                         staticOffset +=
-                                staticStructNestedPublicFieldsFlatList((Class<Type>) classType)
-                                                .size()
-                                        * MAX_BYTE_LENGTH_FOR_HEX_STRING;
+                                factory.getFlatFieldCount() * MAX_BYTE_LENGTH_FOR_HEX_STRING;
                     } else {
                         value = decode(input.substring(beginIndex), 0, declaredField);
                         staticOffset += value.bytes32PaddedLength() * 2;
@@ -529,10 +495,9 @@ public class TypeDecoder {
                 }
             }
             int dynamicParametersProcessed = 0;
-            int dynamicParametersToProcess =
-                    getDynamicStructDynamicParametersCount(constructor.getParameterTypes());
+            int dynamicParametersToProcess = getDynamicStructDynamicParametersCount(factory);
             for (int i = 0; i < length; ++i) {
-                final Class<T> declaredField = (Class<T>) constructor.getParameterTypes()[i];
+                final Class<T> declaredField = factory.getParameterType(i);
                 if (isDynamic(declaredField)) {
                     final boolean isLastParameterInStruct =
                             dynamicParametersProcessed == (dynamicParametersToProcess - 1);
@@ -569,10 +534,15 @@ public class TypeDecoder {
         }
     }
 
-    @SuppressWarnings("unchecked")
     private static <T extends Type> int getDynamicStructDynamicParametersCount(
-            final Class<?>[] cls) {
-        return (int) Arrays.stream(cls).filter(c -> isDynamic((Class<T>) c)).count();
+            final StructFactory<T> factory) {
+        int count = 0;
+        for (int i = 0; i < factory.getParameterCount(); i++) {
+            if (isDynamic(factory.<T>getParameterType(i))) {
+                count++;
+            }
+        }
+        return count;
     }
 
     private static <T extends Type> T decodeDynamicParameterFromStruct(
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.abi;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Int;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Uint;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Bytes10;
+import org.web3j.abi.datatypes.generated.StaticArray2;
+import org.web3j.abi.datatypes.generated.Uint32;
+import org.web3j.utils.Numeric;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BinaryFunctionEncoderTest {
+
+    private final BinaryFunctionEncoder encoder = new BinaryFunctionEncoder();
+    private final DefaultFunctionEncoder defaultEncoder = new DefaultFunctionEncoder();
+
+    @Test
+    public void testEncodeFunctionMatchesDefaultEncoder() {
+        List<Function> functions =
+                Arrays.asList(
+                        new Function(
+                                "baz",
+                                Arrays.asList(
+                                        new Uint32(BigInteger.valueOf(69)),
+                                        new Bool(true),
+                                        new Int(BigInteger.valueOf(-1)),
+                                        new Address("0xbe5422d15f39373eb0a97ff8c10fbd0e40e29338")),
+                                Collections.emptyList()),
+                        new Function(
+                                "sam",
+                                Arrays.asList(
+                                        new DynamicBytes("dave".getBytes()),
+                                        new Bool(true),
+                                        new DynamicArray<>(
+                                                Uint.class,
+                                                new Uint(BigInteger.ONE),
+                                                new Uint(BigInteger.valueOf(2)),
+                                                new Uint(BigInteger.valueOf(3)))),
+                                Collections.emptyList()),
+                        new Function(
+                                "f",
+                                Arrays.asList(
+                                        new Uint(BigInteger.valueOf(0x123)),
+                                        new StaticArray2<>(
+                                                Uint32.class,
+                                                new Uint32(BigInteger.valueOf(0x456)),
+                                                new Uint32(BigInteger.valueOf(0x789))),
+                                        new Bytes10("1234567890".getBytes()),
+                                        new DynamicArray<>(
+                                                Utf8String.class,
+                                                new Utf8String("Hello, world!"),
+                                                new Utf8String("web3j"))),
+                                Collections.emptyList()),
+                        AbiV2TestFixture.setFooFunction,
+                        AbiV2TestFixture.setNuuFunction,
+                        AbiV2TestFixture.setNazFunction,
+                        AbiV2TestFixture.setFuzzFunction,
+                        AbiV2TestFixture.setBarStaticArrayFunction,
+                        AbiV2TestFixture.setFooDynamicArrayFunction,
+                        AbiV2TestFixture.setDoubleFooStaticArrayFunction);
+
+        for (Function function : functions) {
+            assertEquals(defaultEncoder.encodeFunction(function), encoder.encodeFunction(function));
+        }
+    }
+
+    @Test
+    public void testEncodeParametersIntoBuffer() {
+        List<Type> parameters =
+                Arrays.asList(new Uint32(BigInteger.valueOf(69)), new Utf8String("dave"));
+        ByteBuffer buffer = ByteBuffer.allocate(4 + BinaryTypeEncoder.parametersLength(parameters));
+        buffer.putInt(0xcafebabe);
+
+        int written = encoder.encodeParameters(parameters, buffer);
+
+        assertEquals(BinaryTypeEncoder.parametersLength(parameters), written);
+        assertEquals(buffer.capacity(), buffer.position());
+        assertEquals(
+                "0xcafebabe" + defaultEncoder.encodeParameters(parameters),
+                Numeric.toHexString(buffer.array()));
+    }
+
+    @Test
+    public void testEncodedLengthOfMultiByteString() {
+        Utf8String value = new Utf8String("\u00e9t\u00e9 \ud83d\ude00");
+
+        assertEquals(64, BinaryTypeEncoder.encodedLength(value));
+        assertEquals(TypeEncoder.encode(value), encodeToHex(value));
+    }
+
+    @Test
+    public void testEncodeFunctionToBytes() {
+        Function function =
+                new Function(
+                        "baz",
+                        Arrays.asList(new Uint32(BigInteger.valueOf(69)), new Bool(true)),
+                        Collections.emptyList());
+
+        assertArrayEquals(
+                Numeric.hexStringToByteArray(
+                        "0xcdcd77c0"
+                                + "0000000000000000000000000000000000000000000000000000000000000045"
+                                + "0000000000000000000000000000000000000000000000000000000000000001"),
+                encoder.encodeFunctionToBytes(function));
+    }
+
+    private static String encodeToHex(Type value) {
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryTypeEncoder.encodedLength(value));
+        BinaryTypeEncoder.encode(value, buffer);
+        return Numeric.toHexStringNoPrefix(buffer.array());
+    }
+}
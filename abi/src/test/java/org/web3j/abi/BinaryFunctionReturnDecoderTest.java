@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.abi;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.utils.Numeric;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BinaryFunctionReturnDecoderTest {
+
+    private final BinaryFunctionReturnDecoder decoder = new BinaryFunctionReturnDecoder();
+
+    @Test
+    public void testDecodeFromBufferPosition() {
+        List<Type> values =
+                Arrays.asList(
+                        new Uint256(BigInteger.valueOf(55)),
+                        new Utf8String("one more time"),
+                        new DynamicArray<>(
+                                Uint256.class,
+                                new Uint256(BigInteger.ONE),
+                                new Uint256(BigInteger.TEN)));
+        byte[] encoded = new BinaryFunctionEncoder().encodeParametersToBytes(values);
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + encoded.length);
+        buffer.putInt(0xcafebabe).put(encoded).position(4);
+
+        assertEquals(
+                values,
+                decoder.decodeFunctionResult(
+                        buffer,
+                        Utils.convert(
+                                Arrays.asList(
+                                        new TypeReference<Uint256>() {},
+                                        new TypeReference<Utf8String>() {},
+                                        new TypeReference<DynamicArray<Uint256>>() {}))));
+    }
+
+    @Test
+    public void testDecodeEmptyInput() {
+        assertEquals(
+                Collections.emptyList(),
+                decoder.decodeFunctionResult(
+                        new byte[0], AbiV2TestFixture.getFooFunction.getOutputParameters()));
+        assertEquals(
+                Collections.emptyList(),
+                decoder.decodeFunctionResult(
+                        "0x", AbiV2TestFixture.getFooFunction.getOutputParameters()));
+    }
+
+    @Test
+    public void testDecodeStructsMatchesEncoding() {
+        assertRoundTrip(AbiV2TestFixture.setNazFunction, AbiV2TestFixture.getNazFunction);
+        assertRoundTrip(AbiV2TestFixture.setFuzzFunction, AbiV2TestFixture.getFuzzFunction);
+        assertRoundTrip(AbiV2TestFixture.setBozFunction, AbiV2TestFixture.getBozFunction);
+    }
+
+    @Test
+    public void testDecodeEventParameter() {
+        assertEquals(
+                new Address("0xbe5422d15f39373eb0a97ff8c10fbd0e40e29338"),
+                decoder.decodeEventParameter(
+                        Numeric.hexStringToByteArray(
+                                "000000000000000000000000be5422d15f39373eb0a97ff8c10fbd0e40e29338"),
+                        new TypeReference<Address>() {}));
+
+        byte[] hash =
+                Numeric.hexStringToByteArray(
+                        "0x3c8d7e0ba6d5b0f0a1c3e9a4e2d5f7b8c1a2e3f4a5b6c7d8e9f0a1b2c3d4e5f6");
+        assertEquals(
+                new Bytes32(hash),
+                decoder.decodeEventParameter(hash, new TypeReference<Utf8String>() {}));
+    }
+
+    private void assertRoundTrip(Function setter, Function getter) {
+        byte[] encoded =
+                new BinaryFunctionEncoder().encodeParametersToBytes(setter.getInputParameters());
+
+        assertEquals(
+                setter.getInputParameters(),
+                decoder.decodeFunctionResult(encoded, getter.getOutputParameters()));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.abi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Event;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.StaticArray2;
+import org.web3j.abi.datatypes.generated.Uint256;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DecodingPlanTest {
+
+    @Test
+    public void testPlanIsReusedForNewTypeReferences() {
+        assertSame(DecodingPlan.of(transferParameters()), DecodingPlan.of(transferParameters()));
+    }
+
+    @Test
+    public void testPlanIsReusedForSolidityTypeReferences() throws ClassNotFoundException {
+        assertSame(solidityTypePlan("uint256[2]"), solidityTypePlan("uint256[2]"));
+        assertNotSame(solidityTypePlan("uint256[2]"), solidityTypePlan("uint256[3]"));
+    }
+
+    @Test
+    public void testEventPlan() {
+        Event transfer =
+                new Event(
+                        "Transfer",
+                        Arrays.asList(
+                                new TypeReference<Address>(true) {},
+                                new TypeReference<Address>(true) {},
+                                new TypeReference<Uint256>() {}));
+
+        DecodingPlan plan = DecodingPlan.of(transfer);
+
+        assertEquals(1, plan.size());
+        assertEquals(DecodingPlan.Kind.NUMERIC, plan.get(0).kind);
+        assertEquals(32, plan.get(0).length);
+    }
+
+    @Test
+    public void testHeadLengths() {
+        DecodingPlan plan =
+                DecodingPlan.of(
+                        Utils.convert(
+                                Arrays.asList(
+                                        new TypeReference<Utf8String>() {},
+                                        new TypeReference<StaticArray2<Uint256>>() {},
+                                        new TypeReference<AbiV2TestFixture.Fuzz>() {},
+                                        new TypeReference<DynamicArray<AbiV2TestFixture.Foo>>() {},
+                                        new TypeReference<AbiV2TestFixture.Foo>() {})));
+
+        assertTrue(plan.get(0).dynamic);
+        assertEquals(32, plan.get(0).headLength);
+        assertFalse(plan.get(1).dynamic);
+        assertEquals(64, plan.get(1).headLength);
+        assertFalse(plan.get(2).dynamic);
+        assertEquals(96, plan.get(2).headLength);
+        assertTrue(plan.get(3).dynamic);
+        assertEquals(DecodingPlan.Kind.DYNAMIC_STRUCT, plan.get(3).component.kind);
+        assertTrue(plan.get(4).dynamic);
+        assertEquals(2, plan.get(4).fields.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCacheIsBounded() {
+        DecodingPlan.clearCache();
+        for (int i = 0; i <= DecodingPlan.MAX_CACHED_PLANS; i++) {
+            // each bit of i selects a different type, giving distinct parameter lists
+            List<TypeReference<Type>> parameters = new ArrayList<>();
+            for (int bit = 0; bit < 11; bit++) {
+                Class<?> type = ((i >> bit) & 1) == 0 ? Address.class : Uint256.class;
+                parameters.add(TypeReference.create((Class<Type>) type));
+            }
+            DecodingPlan.of(parameters);
+        }
+
+        assertTrue(DecodingPlan.cacheSize() <= DecodingPlan.MAX_CACHED_PLANS);
+    }
+
+    private static DecodingPlan solidityTypePlan(String solidityType)
+            throws ClassNotFoundException {
+        return DecodingPlan.of(
+                Utils.convert(Arrays.asList(TypeReference.makeTypeReference(solidityType))));
+    }
+
+    private static List<TypeReference<Type>> transferParameters() {
+        return Utils.convert(
+                Arrays.asList(
+                        new TypeReference<Address>() {},
+                        new TypeReference<Address>() {},
+                        new TypeReference<Uint256>() {}));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.abi;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint256;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StructFactoryTest {
+
+    @Test
+    public void testFactoryIsResolvedOnce() {
+        assertSame(
+                StructFactory.of(AbiV2TestFixture.Fuzz.class),
+                StructFactory.of(AbiV2TestFixture.Fuzz.class));
+    }
+
+    @Test
+    public void testParameters() {
+        StructFactory<AbiV2TestFixture.Fuzz> factory =
+                StructFactory.of(AbiV2TestFixture.Fuzz.class);
+
+        assertEquals(2, factory.getParameterCount());
+        assertEquals(AbiV2TestFixture.Bar.class, factory.getParameterType(0));
+        assertEquals(Uint256.class, factory.getParameterType(1));
+        assertEquals(3, factory.getFlatFieldCount());
+        assertEquals(2, StructFactory.of(AbiV2TestFixture.Foo.class).getFlatFieldCount());
+    }
+
+    @Test
+    public void testNewInstance() {
+        AbiV2TestFixture.Bar bar =
+                StructFactory.of(AbiV2TestFixture.Bar.class)
+                        .newInstance(new Uint256(BigInteger.ONE), new Uint256(BigInteger.TEN));
+        assertEquals(new AbiV2TestFixture.Bar(BigInteger.ONE, BigInteger.TEN), bar);
+
+        AbiV2TestFixture.Fuzz fuzz =
+                StructFactory.of(AbiV2TestFixture.Fuzz.class)
+                        .newInstance(Arrays.asList(bar, new Uint256(BigInteger.ZERO)));
+        assertEquals(new AbiV2TestFixture.Fuzz(bar, BigInteger.ZERO), fuzz);
+
+        assertEquals(
+                new AbiV2TestFixture.Foo("id", "name"),
+                StructFactory.of(AbiV2TestFixture.Foo.class)
+                        .newInstance(new Utf8String("id"), new Utf8String("name")));
+    }
+
+    @Test
+    public void testNewInstanceWithInvalidComponents() {
+        StructFactory<AbiV2TestFixture.Bar> factory = StructFactory.of(AbiV2TestFixture.Bar.class);
+
+        assertThrows(
+                UnsupportedOperationException.class,
+                () -> factory.newInstance(new Utf8String("id"), new Uint256(BigInteger.ONE)));
+        assertThrows(
+                UnsupportedOperationException.class,
+                () -> factory.newInstance(new Uint256(BigInteger.ONE)));
+    }
+
+    @Test
+    public void testNotAStruct() {
+        assertThrows(UnsupportedOperationException.class, () -> StructFactory.of(Uint256.class));
+    }
+}
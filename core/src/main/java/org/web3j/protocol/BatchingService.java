@@ -0,0 +1,306 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.utils.Async;
+
+/**
+ * Web3jService which coalesces requests sent from any number of threads into JSON-RPC batches.
+ *
+ * <p>Requests are collected until either {@code maxBatchSize} requests are pending or {@code
+ * maxLingerMillis} have passed since the first of them arrived, and are then sent as a single batch
+ * through the underlying service. Each caller's response is completed individually, so existing
+ * {@link Request#send()} and {@link Request#sendAsync()} call sites are unaffected. At most {@code
+ * maxInFlightBatches} batches are sent at once; further batches are queued, without blocking the
+ * caller, and sent as those complete.
+ *
+ * <p>Explicit batch requests and subscriptions are passed straight to the underlying service.
+ */
+public class BatchingService implements Web3jService {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    public static final long DEFAULT_MAX_LINGER_MILLIS = 2;
+    public static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 16;
+
+    private final Web3jService web3jService;
+    private final int maxBatchSize;
+    private final long maxLingerMillis;
+    private final Semaphore inFlightBatches;
+    private final Queue<List<PendingRequest<?>>> queuedBatches = new ConcurrentLinkedQueue<>();
+    // Executor to schedule the sending of partially filled batches
+    private final ScheduledExecutorService executor;
+
+    private final Object lock = new Object();
+    private List<PendingRequest<?>> pendingRequests = new ArrayList<>();
+    private Set<Long> pendingRequestIds = new HashSet<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public BatchingService(Web3jService web3jService) {
+        this(
+                web3jService,
+                DEFAULT_MAX_BATCH_SIZE,
+                DEFAULT_MAX_LINGER_MILLIS,
+                DEFAULT_MAX_IN_FLIGHT_BATCHES);
+    }
+
+    public BatchingService(
+            Web3jService web3jService,
+            int maxBatchSize,
+            long maxLingerMillis,
+            int maxInFlightBatches) {
+        this(
+                web3jService,
+                maxBatchSize,
+                maxLingerMillis,
+                maxInFlightBatches,
+                Async.daemonExecutorService("web3j-batching"));
+    }
+
+    BatchingService(
+            Web3jService web3jService,
+            int maxBatchSize,
+            long maxLingerMillis,
+            int maxInFlightBatches,
+            ScheduledExecutorService executor) {
+        if (maxBatchSize < 1 || maxLingerMillis < 0 || maxInFlightBatches < 1) {
+            throw new IllegalArgumentException("Invalid batching limits");
+        }
+        this.web3jService = web3jService;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerMillis = maxLingerMillis;
+        this.inFlightBatches = new Semaphore(maxInFlightBatches);
+        this.executor = executor;
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        try {
+            return sendAsync(request, responseType).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted batched request", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw new RuntimeException("Unexpected exception", e.getCause());
+        }
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(
+            Request request, Class<T> responseType) {
+        if (responseType != request.getResponseType()) {
+            // batch responses are deserialized to the response type of their request
+            return web3jService.sendAsync(request, responseType);
+        }
+
+        PendingRequest<T> pendingRequest = new PendingRequest<>(request, responseType);
+        List<PendingRequest<?>> batch = null;
+        synchronized (lock) {
+            if (!pendingRequestIds.add(request.getId())) {
+                // the same request is already pending and the responses could not be told apart
+                pendingRequest = null;
+            } else {
+                pendingRequests.add(pendingRequest);
+                if (pendingRequests.size() >= maxBatchSize) {
+                    batch = takePendingRequests();
+                } else if (pendingRequests.size() == 1) {
+                    scheduledFlush =
+                            executor.schedule(this::flush, maxLingerMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+
+        if (pendingRequest == null) {
+            return web3jService.sendAsync(request, responseType);
+        }
+        sendBatch(batch);
+        return pendingRequest.result;
+    }
+
+    /** Sends all pending requests without waiting for the batch to fill up. */
+    public void flush() {
+        List<PendingRequest<?>> batch;
+        synchronized (lock) {
+            batch = takePendingRequests();
+        }
+        sendBatch(batch);
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        return web3jService.sendBatch(batchRequest);
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        return web3jService.sendBatchAsync(batchRequest);
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(
+            Request request, String unsubscribeMethod, Class<T> responseType) {
+        return web3jService.subscribe(request, unsubscribeMethod, responseType);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        executor.shutdown();
+        web3jService.close();
+    }
+
+    private List<PendingRequest<?>> takePendingRequests() {
+        if (pendingRequests.isEmpty()) {
+            return null;
+        }
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<PendingRequest<?>> batch = pendingRequests;
+        pendingRequests = new ArrayList<>();
+        pendingRequestIds = new HashSet<>();
+        return batch;
+    }
+
+    private void sendBatch(List<PendingRequest<?>> batch) {
+        if (batch != null) {
+            queuedBatches.add(batch);
+        }
+        sendQueuedBatches();
+    }
+
+    private void sendQueuedBatches() {
+        // a batch queued after a failed tryAcquire is sent by the batch releasing the permit
+        while (!queuedBatches.isEmpty() && inFlightBatches.tryAcquire()) {
+            List<PendingRequest<?>> batch = queuedBatches.poll();
+            if (batch == null) {
+                inFlightBatches.release();
+            } else {
+                dispatch(batch);
+            }
+        }
+    }
+
+    private void dispatch(List<PendingRequest<?>> batch) {
+        CompletableFuture<?> sent;
+        try {
+            if (batch.size() == 1) {
+                sent = batch.get(0).send(web3jService);
+            } else {
+                sent = sendBatchRequest(batch);
+            }
+        } catch (RuntimeException e) {
+            inFlightBatches.release();
+            batch.forEach(pendingRequest -> pendingRequest.result.completeExceptionally(e));
+            return;
+        }
+        sent.whenComplete(
+                (value, throwable) -> {
+                    inFlightBatches.release();
+                    sendQueuedBatches();
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<BatchResponse> sendBatchRequest(List<PendingRequest<?>> batch) {
+        BatchRequest batchRequest = new BatchRequest(web3jService);
+        for (PendingRequest<?> pendingRequest : batch) {
+            batchRequest.add(pendingRequest.request);
+        }
+
+        return web3jService
+                .sendBatchAsync(batchRequest)
+                .whenComplete(
+                        (batchResponse, throwable) -> {
+                            for (int i = 0; i < batch.size(); i++) {
+                                PendingRequest<?> pendingRequest = batch.get(i);
+                                if (throwable != null) {
+                                    pendingRequest.completeExceptionally(throwable);
+                                } else if (batchResponse == null) {
+                                    pendingRequest.complete(null);
+                                } else if (i >= batchResponse.getResponses().size()
+                                        || batchResponse.getResponses().get(i) == null) {
+                                    pendingRequest.completeExceptionally(
+                                            new ClientConnectionException(
+                                                    "No response received for request "
+                                                            + pendingRequest.request.getId()));
+                                } else {
+                                    pendingRequest.complete(batchResponse.getResponses().get(i));
+                                }
+                            }
+                        });
+    }
+
+    private static class PendingRequest<T extends Response> {
+        private final Request<?, ? extends Response<?>> request;
+        private final Class<T> responseType;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        @SuppressWarnings("unchecked")
+        PendingRequest(Request request, Class<T> responseType) {
+            this.request = request;
+            this.responseType = responseType;
+        }
+
+        CompletableFuture<T> send(Web3jService web3jService) {
+            return web3jService
+                    .sendAsync(request, responseType)
+                    .whenComplete(
+                            (response, throwable) -> {
+                                if (throwable != null) {
+                                    completeExceptionally(throwable);
+                                } else {
+                                    result.complete(response);
+                                }
+                            });
+        }
+
+        void complete(Response<?> response) {
+            result.complete(responseType.cast(response));
+        }
+
+        void completeExceptionally(Throwable throwable) {
+            if (throwable instanceof CompletionException && throwable.getCause() != null) {
+                throwable = throwable.getCause();
+            }
+            result.completeExceptionally(throwable);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Flowable;
+
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.utils.Async;
+
+/**
+ * Web3jService which reduces tail latency by sending a duplicate, or hedge, request to a second
+ * service when the first has not answered within a delay.
+ *
+ * <p>The delay is the given percentile of recently observed response times, so only the slowest
+ * requests are hedged. Whichever response arrives first is returned, and the other request is
+ * cancelled. A request only fails once both the primary and, if sent, the hedge request have
+ * failed. Only idempotent read methods are hedged; all other requests, batches and subscriptions
+ * are sent to the primary service alone.
+ */
+public class HedgingService implements Web3jService {
+
+    public static final double DEFAULT_PERCENTILE = 95;
+    public static final long DEFAULT_INITIAL_DELAY_MILLIS = 500;
+
+    private final Web3jService primary;
+    private final Web3jService hedge;
+    private final LatencyTracker latencyTracker;
+    // Executor to schedule hedge requests
+    private final ScheduledExecutorService executor;
+
+    private final AtomicLong hedgesFired = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+
+    public HedgingService(Web3jService primary, Web3jService hedge) {
+        this(primary, hedge, DEFAULT_PERCENTILE, DEFAULT_INITIAL_DELAY_MILLIS);
+    }
+
+    /**
+     * Create a hedging service.
+     *
+     * @param primary service every request is sent to first
+     * @param hedge service hedge requests are sent to
+     * @param percentile percentile of response times after which a hedge request is sent
+     * @param initialDelayMillis delay used until enough response times have been observed
+     */
+    public HedgingService(
+            Web3jService primary, Web3jService hedge, double percentile, long initialDelayMillis) {
+        this(
+                primary,
+                hedge,
+                percentile,
+                initialDelayMillis,
+                Async.daemonExecutorService("web3j-hedging"));
+    }
+
+    HedgingService(
+            Web3jService primary,
+            Web3jService hedge,
+            double percentile,
+            long initialDelayMillis,
+            ScheduledExecutorService executor) {
+        if (percentile <= 0 || percentile > 100 || initialDelayMillis < 0) {
+            throw new IllegalArgumentException("Invalid hedging configuration");
+        }
+        this.primary = primary;
+        this.hedge = hedge;
+        this.latencyTracker =
+                new LatencyTracker(percentile, TimeUnit.MILLISECONDS.toNanos(initialDelayMillis));
+        this.executor = executor;
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        if (!JsonRpcMethods.isIdempotent(request.getMethod())) {
+            return primary.send(request, responseType);
+        }
+        try {
+            return sendAsync(request, responseType).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted hedged request", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw new RuntimeException("Unexpected exception", e.getCause());
+        }
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(
+            Request request, Class<T> responseType) {
+        if (!JsonRpcMethods.isIdempotent(request.getMethod())) {
+            return primary.sendAsync(request, responseType);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // requests sent which have not yet failed; the result fails once all of them have
+        AtomicInteger remainingAttempts = new AtomicInteger(1);
+        // set by whichever response completes the result, before the caller is notified
+        AtomicBoolean answered = new AtomicBoolean();
+        CompletableFuture<T> primaryResponse = primary.sendAsync(request, responseType);
+
+        ScheduledFuture<?> scheduledHedge =
+                executor.schedule(
+                        () -> {
+                            if (result.isDone()) {
+                                return;
+                            }
+                            remainingAttempts.incrementAndGet();
+                            hedgesFired.incrementAndGet();
+                            CompletableFuture<T> hedgeResponse =
+                                    hedge.sendAsync(request, responseType);
+                            hedgeResponse.whenComplete(
+                                    (response, throwable) -> {
+                                        if (throwable != null) {
+                                            if (remainingAttempts.decrementAndGet() == 0
+                                                    && answered.compareAndSet(false, true)) {
+                                                result.completeExceptionally(unwrap(throwable));
+                                            }
+                                        } else if (answered.compareAndSet(false, true)) {
+                                            hedgesWon.incrementAndGet();
+                                            latencyTracker.record(System.nanoTime() - start);
+                                            result.complete(response);
+                                        }
+                                    });
+                            result.whenComplete(
+                                    (response, throwable) -> hedgeResponse.cancel(true));
+                        },
+                        latencyTracker.getDelayNanos(),
+                        TimeUnit.NANOSECONDS);
+
+        primaryResponse.whenComplete(
+                (response, throwable) -> {
+                    if (throwable != null) {
+                        if (remainingAttempts.decrementAndGet() == 0
+                                && answered.compareAndSet(false, true)) {
+                            result.completeExceptionally(unwrap(throwable));
+                        }
+                    } else if (answered.compareAndSet(false, true)) {
+                        latencyTracker.record(System.nanoTime() - start);
+                        result.complete(response);
+                    }
+                });
+        result.whenComplete(
+                (response, throwable) -> {
+                    scheduledHedge.cancel(false);
+                    primaryResponse.cancel(true);
+                });
+        return result;
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        return primary.sendBatch(batchRequest);
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        return primary.sendBatchAsync(batchRequest);
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(
+            Request request, String unsubscribeMethod, Class<T> responseType) {
+        return primary.subscribe(request, unsubscribeMethod, responseType);
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        try {
+            primary.close();
+        } finally {
+            hedge.close();
+        }
+    }
+
+    /** @return number of hedge requests sent */
+    public long getHedgesFired() {
+        return hedgesFired.get();
+    }
+
+    /** @return number of hedge requests which answered before the primary request */
+    public long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+    /** @return current delay after which a request is hedged, in milliseconds */
+    public long getHedgeDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(latencyTracker.getDelayNanos());
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * Keeps the most recent response times and periodically recomputes the configured percentile of
+     * them.
+     */
+    static class LatencyTracker {
+        static final int SAMPLE_SIZE = 1024;
+        // Number of samples after which the percentile is recomputed
+        static final int RECOMPUTE_INTERVAL = 64;
+
+        private final double percentile;
+        private final long[] samples = new long[SAMPLE_SIZE];
+        private long count;
+        private volatile long delayNanos;
+
+        LatencyTracker(double percentile, long initialDelayNanos) {
+            this.percentile = percentile;
+            this.delayNanos = initialDelayNanos;
+        }
+
+        long getDelayNanos() {
+            return delayNanos;
+        }
+
+        synchronized void record(long latencyNanos) {
+            samples[(int) (count % SAMPLE_SIZE)] = latencyNanos;
+            count++;
+            if (count % RECOMPUTE_INTERVAL == 0) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, SAMPLE_SIZE));
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+                delayNanos = sorted[Math.max(index, 0)];
+            }
+        }
+    }
+}
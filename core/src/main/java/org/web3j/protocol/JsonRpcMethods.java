@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/** Classification of JSON-RPC methods by whether they may safely be sent more than once. */
+final class JsonRpcMethods {
+
+    private static final Set<String> IDEMPOTENT_METHODS =
+            new HashSet<>(
+                    Arrays.asList(
+                            "web3_clientVersion",
+                            "web3_sha3",
+                            "net_version",
+                            "net_listening",
+                            "net_peerCount",
+                            "eth_protocolVersion",
+                            "eth_chainId",
+                            "eth_syncing",
+                            "eth_coinbase",
+                            "eth_mining",
+                            "eth_hashrate",
+                            "eth_gasPrice",
+                            "eth_maxPriorityFeePerGas",
+                            "eth_feeHistory",
+                            "eth_accounts",
+                            "eth_blockNumber",
+                            "eth_getBalance",
+                            "eth_getStorageAt",
+                            "eth_getTransactionCount",
+                            "eth_getBlockTransactionCountByHash",
+                            "eth_getBlockTransactionCountByNumber",
+                            "eth_getUncleCountByBlockHash",
+                            "eth_getUncleCountByBlockNumber",
+                            "eth_getCode",
+                            "eth_call",
+                            "eth_estimateGas",
+                            "eth_getBlockByHash",
+                            "eth_getBlockByNumber",
+                            "eth_getBlockReceipts",
+                            "eth_getTransactionByHash",
+                            "eth_getTransactionByBlockHashAndIndex",
+                            "eth_getTransactionByBlockNumberAndIndex",
+                            "eth_getTransactionReceipt",
+                            "eth_getUncleByBlockHashAndIndex",
+                            "eth_getUncleByBlockNumberAndIndex",
+                            "eth_getLogs",
+                            "eth_getProof",
+                            "eth_getCompilers"));
+
+    private static final Set<String> NODE_BOUND_METHODS =
+            new HashSet<>(
+                    Arrays.asList(
+                            "eth_newFilter",
+                            "eth_newBlockFilter",
+                            "eth_newPendingTransactionFilter",
+                            "eth_getFilterChanges",
+                            "eth_getFilterLogs",
+                            "eth_uninstallFilter"));
+
+    private JsonRpcMethods() {}
+
+    /**
+     * Check whether a method only reads chain state, so that sending it again, or to another node,
+     * cannot change its outcome.
+     *
+     * @param method JSON-RPC method name
+     * @return true if the method may be retried or duplicated
+     */
+    static boolean isIdempotent(String method) {
+        return IDEMPOTENT_METHODS.contains(method);
+    }
+
+    /**
+     * Check whether a method refers to state held by the node that served a previous request, such
+     * as an installed filter.
+     *
+     * @param method JSON-RPC method name
+     * @return true if the method must be sent to the same node as related requests
+     */
+    static boolean isNodeBound(String method) {
+        return NODE_BOUND_METHODS.contains(method);
+    }
+}
@@ -0,0 +1,493 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.reactivex.Flowable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.utils.Async;
+
+/**
+ * Web3jService which spreads requests across several underlying services connected to different
+ * nodes of the same network.
+ *
+ * <p>Each request is sent to a node chosen by the configured {@link SelectionStrategy}. Nodes are
+ * probed with {@code eth_blockNumber} at a fixed interval; nodes which fail to respond, or which
+ * lag more than {@code maxBlockLag} blocks behind the most advanced node, are ejected until a later
+ * probe succeeds. A node is also ejected as soon as a request to it fails to connect.
+ *
+ * <p>Idempotent read requests which fail with a {@link ClientConnectionException} or an {@link
+ * IOException} are retried on the remaining nodes. All other requests, in particular those sending
+ * transactions, are never retried. Filter requests and subscriptions depend on state held by a
+ * single node, so they are always sent to the first healthy node in the configured order.
+ */
+public class LoadBalancingService implements Web3jService {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadBalancingService.class);
+
+    public static final long DEFAULT_HEALTH_CHECK_INTERVAL_MILLIS = 5_000;
+    public static final long DEFAULT_MAX_BLOCK_LAG = 5;
+
+    /** How requests are assigned to healthy nodes. */
+    public enum SelectionStrategy {
+        /** Cycle through the nodes in turn. */
+        ROUND_ROBIN,
+        /** Choose the node with the fewest requests awaiting a response. */
+        LEAST_OUTSTANDING,
+        /**
+         * Choose the node with the lowest exponentially weighted moving average of response
+         * latency, weighted by the number of requests awaiting a response from it.
+         */
+        LATENCY_EWMA
+    }
+
+    // Weight of the latest sample in the latency moving average
+    private static final double EWMA_ALPHA = 0.3;
+
+    private final List<Node> nodes;
+    private final SelectionStrategy selectionStrategy;
+    private final long healthCheckIntervalMillis;
+    private final long maxBlockLag;
+    // Executor to schedule health checks
+    private final ScheduledExecutorService executor;
+    private final AtomicInteger nextNode = new AtomicInteger();
+
+    public LoadBalancingService(
+            List<? extends Web3jService> web3jServices, SelectionStrategy selectionStrategy) {
+        this(
+                web3jServices,
+                selectionStrategy,
+                DEFAULT_HEALTH_CHECK_INTERVAL_MILLIS,
+                DEFAULT_MAX_BLOCK_LAG);
+    }
+
+    public LoadBalancingService(
+            List<? extends Web3jService> web3jServices,
+            SelectionStrategy selectionStrategy,
+            long healthCheckIntervalMillis,
+            long maxBlockLag) {
+        this(
+                web3jServices,
+                selectionStrategy,
+                healthCheckIntervalMillis,
+                maxBlockLag,
+                Async.daemonExecutorService("web3j-load-balancing"));
+        executor.scheduleWithFixedDelay(
+                this::checkHealth, 0, healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    LoadBalancingService(
+            List<? extends Web3jService> web3jServices,
+            SelectionStrategy selectionStrategy,
+            long healthCheckIntervalMillis,
+            long maxBlockLag,
+            ScheduledExecutorService executor) {
+        if (web3jServices.isEmpty() || healthCheckIntervalMillis <= 0 || maxBlockLag < 0) {
+            throw new IllegalArgumentException("Invalid load balancing configuration");
+        }
+        List<Node> nodes = new ArrayList<>(web3jServices.size());
+        for (Web3jService web3jService : web3jServices) {
+            nodes.add(new Node(web3jService));
+        }
+        this.nodes = Collections.unmodifiableList(nodes);
+        this.selectionStrategy = selectionStrategy;
+        this.healthCheckIntervalMillis = healthCheckIntervalMillis;
+        this.maxBlockLag = maxBlockLag;
+        this.executor = executor;
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        return send(
+                request.getMethod(),
+                web3jService -> {
+                    try {
+                        return web3jService.send(request, responseType);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(
+            Request request, Class<T> responseType) {
+        return sendAsync(
+                request.getMethod(), web3jService -> web3jService.sendAsync(request, responseType));
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        return send(
+                batchMethod(batchRequest),
+                web3jService -> {
+                    try {
+                        return web3jService.sendBatch(batchRequest);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        return sendAsync(
+                batchMethod(batchRequest),
+                web3jService -> web3jService.sendBatchAsync(batchRequest));
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(
+            Request request, String unsubscribeMethod, Class<T> responseType) {
+        return primaryNode().web3jService.subscribe(request, unsubscribeMethod, responseType);
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        IOException exception = null;
+        for (Node node : nodes) {
+            try {
+                node.web3jService.close();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Probe every node with {@code eth_blockNumber} and update which nodes are healthy.
+     *
+     * @return future completed once all probes have completed or timed out
+     */
+    CompletableFuture<Void> checkHealth() {
+        List<CompletableFuture<BigInteger>> probes = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            probes.add(probe(node));
+        }
+
+        return CompletableFuture.allOf(probes.toArray(new CompletableFuture[0]))
+                .thenRun(
+                        () -> {
+                            BigInteger highestBlock = null;
+                            for (CompletableFuture<BigInteger> probe : probes) {
+                                BigInteger blockNumber = probe.getNow(null);
+                                if (blockNumber != null
+                                        && (highestBlock == null
+                                                || blockNumber.compareTo(highestBlock) > 0)) {
+                                    highestBlock = blockNumber;
+                                }
+                            }
+                            for (int i = 0; i < nodes.size(); i++) {
+                                BigInteger blockNumber = probes.get(i).getNow(null);
+                                nodes.get(i).healthy =
+                                        blockNumber != null
+                                                && highestBlock.subtract(blockNumber).longValue()
+                                                        <= maxBlockLag;
+                            }
+                        });
+    }
+
+    /**
+     * Check whether a node has passed its most recent health check and has not failed since.
+     *
+     * @param index position of the node's service in the list given on construction
+     * @return true if requests are currently sent to the node
+     */
+    public boolean isHealthy(int index) {
+        return nodes.get(index).healthy;
+    }
+
+    /** Returns a future completed with the node's block number, or null if it has none. */
+    private CompletableFuture<BigInteger> probe(Node node) {
+        CompletableFuture<BigInteger> result = new CompletableFuture<>();
+        try {
+            new Request<>(
+                            "eth_blockNumber",
+                            Collections.<String>emptyList(),
+                            node.web3jService,
+                            EthBlockNumber.class)
+                    .sendAsync()
+                    .whenComplete(
+                            (ethBlockNumber, throwable) -> {
+                                if (throwable != null
+                                        || ethBlockNumber == null
+                                        || ethBlockNumber.hasError()
+                                        || ethBlockNumber.getResult() == null) {
+                                    log.debug(
+                                            "Health check of node {} failed",
+                                            nodes.indexOf(node),
+                                            throwable);
+                                    result.complete(null);
+                                } else {
+                                    result.complete(ethBlockNumber.getBlockNumber());
+                                }
+                            });
+        } catch (RuntimeException e) {
+            log.debug("Health check of node {} failed", nodes.indexOf(node), e);
+            result.complete(null);
+        }
+        executor.schedule(
+                () -> result.complete(null), healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    private <T> T send(String method, Function<Web3jService, T> send) throws IOException {
+        if (JsonRpcMethods.isNodeBound(method)) {
+            return sendTo(primaryNode(), send);
+        }
+
+        Set<Node> attempted = new HashSet<>();
+        while (true) {
+            Node node = selectNode(attempted);
+            try {
+                return sendTo(node, send);
+            } catch (IOException | ClientConnectionException e) {
+                if (!isConnectionFailure(e)) {
+                    throw e;
+                }
+                node.healthy = false;
+                if (!JsonRpcMethods.isIdempotent(method) || attempted.size() == nodes.size()) {
+                    throw e;
+                }
+                log.debug("Retrying {} after failure of node {}", method, nodes.indexOf(node), e);
+            }
+        }
+    }
+
+    private <T> T sendTo(Node node, Function<Web3jService, T> send) throws IOException {
+        long start = node.start();
+        boolean success = false;
+        try {
+            T result = send.apply(node.web3jService);
+            success = true;
+            return result;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        } finally {
+            node.complete(start, success);
+        }
+    }
+
+    private <T> CompletableFuture<T> sendAsync(
+            String method, Function<Web3jService, CompletableFuture<T>> send) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (JsonRpcMethods.isNodeBound(method)) {
+            sendAsyncTo(primaryNode(), send)
+                    .whenComplete(
+                            (response, throwable) -> {
+                                if (throwable != null) {
+                                    result.completeExceptionally(throwable);
+                                } else {
+                                    result.complete(response);
+                                }
+                            });
+        } else {
+            sendAsync(method, send, new HashSet<>(), result);
+        }
+        return result;
+    }
+
+    private <T> void sendAsync(
+            String method,
+            Function<Web3jService, CompletableFuture<T>> send,
+            Set<Node> attempted,
+            CompletableFuture<T> result) {
+        Node node = selectNode(attempted);
+        sendAsyncTo(node, send)
+                .whenComplete(
+                        (response, throwable) -> {
+                            if (throwable == null) {
+                                result.complete(response);
+                            } else if (!isConnectionFailure(throwable)) {
+                                result.completeExceptionally(throwable);
+                            } else {
+                                node.healthy = false;
+                                if (JsonRpcMethods.isIdempotent(method)
+                                        && attempted.size() < nodes.size()) {
+                                    log.debug(
+                                            "Retrying {} after failure of node {}",
+                                            method,
+                                            nodes.indexOf(node),
+                                            throwable);
+                                    sendAsync(method, send, attempted, result);
+                                } else {
+                                    result.completeExceptionally(throwable);
+                                }
+                            }
+                        });
+    }
+
+    private <T> CompletableFuture<T> sendAsyncTo(
+            Node node, Function<Web3jService, CompletableFuture<T>> send) {
+        long start = node.start();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<T> sent;
+        try {
+            sent = send.apply(node.web3jService);
+        } catch (RuntimeException e) {
+            node.complete(start, false);
+            result.completeExceptionally(e);
+            return result;
+        }
+        sent.whenComplete(
+                (response, throwable) -> {
+                    node.complete(start, throwable == null);
+                    if (throwable != null) {
+                        result.completeExceptionally(unwrap(throwable));
+                    } else {
+                        result.complete(response);
+                    }
+                });
+        return result;
+    }
+
+    /** Selects a node not yet attempted, preferring healthy ones, and marks it as attempted. */
+    private Node selectNode(Set<Node> attempted) {
+        List<Node> candidates = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            if (node.healthy && !attempted.contains(node)) {
+                candidates.add(node);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // fall back to nodes considered unhealthy rather than failing outright
+            for (Node node : nodes) {
+                if (!attempted.contains(node)) {
+                    candidates.add(node);
+                }
+            }
+        }
+
+        int offset = Math.floorMod(nextNode.getAndIncrement(), candidates.size());
+        Node selected = candidates.get(offset);
+        if (selectionStrategy != SelectionStrategy.ROUND_ROBIN) {
+            // start from the round robin position so that ties are spread across nodes
+            for (int i = 1; i < candidates.size(); i++) {
+                Node candidate = candidates.get((offset + i) % candidates.size());
+                if (cost(candidate) < cost(selected)) {
+                    selected = candidate;
+                }
+            }
+        }
+        attempted.add(selected);
+        return selected;
+    }
+
+    private double cost(Node node) {
+        int outstanding = node.outstanding.get();
+        if (selectionStrategy == SelectionStrategy.LEAST_OUTSTANDING) {
+            return outstanding;
+        }
+        return node.latencyEwmaNanos * (outstanding + 1);
+    }
+
+    private Node primaryNode() {
+        for (Node node : nodes) {
+            if (node.healthy) {
+                return node;
+            }
+        }
+        return nodes.get(0);
+    }
+
+    private static String batchMethod(BatchRequest batchRequest) {
+        // the batch is treated as its first non-idempotent request, so that it is only retried
+        // if every request in it may be
+        String method = null;
+        for (Request<?, ? extends Response<?>> request : batchRequest.getRequests()) {
+            if (JsonRpcMethods.isNodeBound(request.getMethod())) {
+                return request.getMethod();
+            }
+            if (method == null || JsonRpcMethods.isIdempotent(method)) {
+                method = request.getMethod();
+            }
+        }
+        return method;
+    }
+
+    /**
+     * Whether a failure was caused by the node or the connection to it, rather than by the client,
+     * such as a response which could not be deserialized into the expected type.
+     */
+    private static boolean isConnectionFailure(Throwable throwable) {
+        return (throwable instanceof IOException && !(throwable instanceof JsonProcessingException))
+                || throwable instanceof ClientConnectionException;
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    private static class Node {
+        private final Web3jService web3jService;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile boolean healthy = true;
+        private volatile double latencyEwmaNanos;
+
+        Node(Web3jService web3jService) {
+            this.web3jService = web3jService;
+        }
+
+        long start() {
+            outstanding.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        void complete(long start, boolean success) {
+            outstanding.decrementAndGet();
+            if (success) {
+                long latency = System.nanoTime() - start;
+                // races between concurrent updates only lose a sample
+                latencyEwmaNanos =
+                        latencyEwmaNanos == 0
+                                ? latency
+                                : EWMA_ALPHA * latency + (1 - EWMA_ALPHA) * latencyEwmaNanos;
+            }
+        }
+    }
+}
@@ -16,9 +16,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import io.reactivex.Flowable;
@@ -54,6 +60,42 @@ public abstract class Service implements Web3jService {
         }
     }
 
+    /**
+     * Perform a synchronous JSON-RPC request, passing each element of an array within the response
+     * to the consumer as soon as it has been parsed. This keeps memory use flat for responses with
+     * a large number of elements, such as the logs of an {@code eth_getLogs} call ({@code
+     * "/result"}) or the transactions of a block ({@code "/result/transactions"}).
+     *
+     * @param request request to perform
+     * @param responseType class of a data item returned by the request
+     * @param arrayPointer JSON pointer to the array to stream, relative to the response object
+     * @param elementType class of the streamed array elements
+     * @param consumer receives each array element in turn
+     * @param <T> type of a data item returned by the request
+     * @param <E> type of the streamed array elements
+     * @return deserialized JSON-RPC response, with the streamed array left empty
+     * @throws IOException thrown if failed to perform a request
+     */
+    public <T extends Response, E> T sendStreaming(
+            Request request,
+            Class<T> responseType,
+            String arrayPointer,
+            Class<E> elementType,
+            Consumer<? super E> consumer)
+            throws IOException {
+        String payload = objectMapper.writeValueAsString(request);
+
+        try (InputStream result = performIO(payload)) {
+            if (result != null) {
+                return new StreamingResponseReader<>(
+                                objectMapper, arrayPointer, elementType, consumer)
+                        .read(result, responseType);
+            } else {
+                return null;
+            }
+        }
+    }
+
     @Override
     public <T extends Response> CompletableFuture<T> sendAsync(
             Request jsonRpc20Request, Class<T> responseType) {
@@ -70,23 +112,69 @@ public abstract class Service implements Web3jService {
 
         try (InputStream result = performIO(payload)) {
             if (result != null) {
-                ArrayNode nodes = (ArrayNode) objectMapper.readTree(result);
-                List<Response<?>> responses = new ArrayList<>(nodes.size());
-
-                for (int i = 0; i < nodes.size(); i++) {
-                    Request<?, ? extends Response<?>> request = batchRequest.getRequests().get(i);
-                    Response<?> response =
-                            objectMapper.treeToValue(nodes.get(i), request.getResponseType());
-                    responses.add(response);
-                }
-
-                return new BatchResponse(batchRequest.getRequests(), responses);
+                return readBatchResponse(batchRequest, result);
             } else {
                 return null;
             }
         }
     }
 
+    /**
+     * Deserializes the responses to a batch request. Responses are matched to their requests by id,
+     * as a node may return them in any order, and are returned in the order of the requests.
+     *
+     * @param batchRequest requests performed
+     * @param result JSON-RPC batch response
+     * @return deserialized JSON-RPC responses
+     * @throws IOException thrown if the responses could not be read
+     */
+    protected BatchResponse readBatchResponse(BatchRequest batchRequest, InputStream result)
+            throws IOException {
+        List<Request<?, ? extends Response<?>>> requests = batchRequest.getRequests();
+        ArrayNode nodes = (ArrayNode) objectMapper.readTree(result);
+        int[] requestIndexes = matchRequests(requests, nodes);
+        List<Response<?>> responses = new ArrayList<>(Collections.nCopies(requests.size(), null));
+
+        for (int i = 0; i < nodes.size(); i++) {
+            Request<?, ? extends Response<?>> request = requests.get(requestIndexes[i]);
+            Response<?> response =
+                    objectMapper.treeToValue(nodes.get(i), request.getResponseType());
+            responses.set(requestIndexes[i], response);
+        }
+
+        return new BatchResponse(requests, responses);
+    }
+
+    /**
+     * Returns the index of the request each response node belongs to. If the ids do not identify
+     * the requests, responses are assumed to be in request order.
+     */
+    private static int[] matchRequests(
+            List<Request<?, ? extends Response<?>>> requests, ArrayNode nodes) {
+        int[] requestIndexes = new int[nodes.size()];
+        Map<Long, Integer> indexesById = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            indexesById.put(requests.get(i).getId(), i);
+        }
+
+        boolean matched = indexesById.size() == requests.size();
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; matched && i < nodes.size(); i++) {
+            JsonNode id = nodes.get(i).get("id");
+            Integer index =
+                    id != null && id.canConvertToLong() ? indexesById.get(id.asLong()) : null;
+            matched = index != null && seen.add(index);
+            requestIndexes[i] = matched ? index : i;
+        }
+
+        if (!matched) {
+            for (int i = 0; i < requestIndexes.length; i++) {
+                requestIndexes[i] = i;
+            }
+        }
+        return requestIndexes;
+    }
+
     @Override
     public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
         return Async.run(() -> sendBatch(batchRequest));
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Reads a JSON-RPC response, passing each element of one of its arrays to a consumer as soon as it
+ * has been parsed.
+ *
+ * <p>The streamed elements are never held together in memory: the rest of the response is buffered
+ * as tokens and deserialized once the input has been consumed, with the streamed array left empty.
+ *
+ * @param <E> type of the streamed elements
+ */
+class StreamingResponseReader<E> {
+
+    private final ObjectMapper objectMapper;
+    private final JsonPointer arrayPointer;
+    private final Class<E> elementType;
+    private final Consumer<? super E> consumer;
+
+    StreamingResponseReader(
+            ObjectMapper objectMapper,
+            String arrayPointer,
+            Class<E> elementType,
+            Consumer<? super E> consumer) {
+        this.objectMapper = objectMapper;
+        this.arrayPointer = JsonPointer.compile(arrayPointer);
+        this.elementType = elementType;
+        this.consumer = consumer;
+    }
+
+    <T> T read(InputStream input, Class<T> responseType) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(input);
+                TokenBuffer buffer = new TokenBuffer(parser)) {
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            copy(parser, buffer, arrayPointer);
+            return objectMapper.readValue(buffer.asParser(), responseType);
+        }
+    }
+
+    /**
+     * Copies the value at the current token into the buffer, streaming the elements of the array
+     * found at the remaining pointer instead of copying them.
+     */
+    private void copy(JsonParser parser, TokenBuffer buffer, JsonPointer pointer)
+            throws IOException {
+        if (pointer.matches() && parser.currentToken() == JsonToken.START_ARRAY) {
+            buffer.writeStartArray();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                consumer.accept(objectMapper.readValue(parser, elementType));
+            }
+            buffer.writeEndArray();
+        } else if (!pointer.matches() && parser.currentToken() == JsonToken.START_OBJECT) {
+            buffer.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                buffer.writeFieldName(fieldName);
+                parser.nextToken();
+
+                JsonPointer tail = pointer.matchProperty(fieldName);
+                if (tail != null) {
+                    copy(parser, buffer, tail);
+                } else {
+                    buffer.copyCurrentStructure(parser);
+                }
+            }
+            buffer.writeEndObject();
+        } else {
+            buffer.copyCurrentStructure(parser);
+        }
+    }
+}
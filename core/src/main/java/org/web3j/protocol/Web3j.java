@@ -18,6 +18,7 @@ import org.web3j.protocol.core.Batcher;
 import org.web3j.protocol.core.Ethereum;
 import org.web3j.protocol.core.JsonRpc2_0Web3j;
 import org.web3j.protocol.rx.Web3jRx;
+import org.web3j.utils.ExecutorStrategy;
 
 /** JSON-RPC Request object building factory. */
 public interface Web3j extends Ethereum, Web3jRx, Batcher {
@@ -48,6 +49,44 @@ public interface Web3j extends Ethereum, Web3jRx, Batcher {
         return new JsonRpc2_0Web3j(web3jService, pollingInterval, scheduledExecutorService);
     }
 
+    /**
+     * Construct a new Web3j instance which polls all of its filters together, fetching their
+     * changes with one batch request per polling interval rather than one request per filter. The
+     * web3j service must support batch requests.
+     *
+     * @param web3jService web3j service instance - i.e. HTTP or IPC
+     * @param pollingInterval polling interval for responses from network nodes
+     * @param scheduledExecutorService executor service to use for scheduled tasks. <strong>You are
+     *     responsible for terminating this thread pool</strong>
+     * @param multiplexFilters whether to poll filters together
+     * @return new Web3j instance
+     */
+    static Web3j build(
+            Web3jService web3jService,
+            long pollingInterval,
+            ScheduledExecutorService scheduledExecutorService,
+            boolean multiplexFilters) {
+        return new JsonRpc2_0Web3j(
+                web3jService, pollingInterval, scheduledExecutorService, multiplexFilters);
+    }
+
+    /**
+     * Construct a new Web3j instance whose scheduled tasks run on an executor created by the given
+     * strategy. Asynchronous requests are run according to {@link
+     * org.web3j.utils.Async#setExecutorStrategy(ExecutorStrategy)}.
+     *
+     * @param web3jService web3j service instance - i.e. HTTP or IPC
+     * @param pollingInterval polling interval for responses from network nodes
+     * @param executorStrategy strategy providing the executor service to use for scheduled tasks,
+     *     which is terminated on {@link #shutdown()}
+     * @return new Web3j instance
+     */
+    static Web3j build(
+            Web3jService web3jService, long pollingInterval, ExecutorStrategy executorStrategy) {
+        return new JsonRpc2_0Web3j(
+                web3jService, pollingInterval, executorStrategy.newScheduledExecutorService());
+    }
+
     /** Shutdowns a Web3j instance and closes opened resources. */
     void shutdown();
 }
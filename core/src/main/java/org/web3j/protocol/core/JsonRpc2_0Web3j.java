@@ -46,6 +46,7 @@ import org.web3j.protocol.core.methods.response.EthFeeHistory;
 import org.web3j.protocol.core.methods.response.EthFilter;
 import org.web3j.protocol.core.methods.response.EthGasPrice;
 import org.web3j.protocol.core.methods.response.EthGetBalance;
+import org.web3j.protocol.core.methods.response.EthGetBlockReceipts;
 import org.web3j.protocol.core.methods.response.EthGetBlockTransactionCountByHash;
 import org.web3j.protocol.core.methods.response.EthGetBlockTransactionCountByNumber;
 import org.web3j.protocol.core.methods.response.EthGetCode;
@@ -86,7 +87,12 @@ import org.web3j.protocol.core.methods.response.Web3Sha3;
 import org.web3j.protocol.core.methods.response.admin.AdminDataDir;
 import org.web3j.protocol.core.methods.response.admin.AdminNodeInfo;
 import org.web3j.protocol.core.methods.response.admin.AdminPeers;
+import org.web3j.protocol.rx.BlockCheckpoint;
+import org.web3j.protocol.rx.BlockEvent;
+import org.web3j.protocol.rx.BoundedBuffer;
 import org.web3j.protocol.rx.JsonRpc2_0Rx;
+import org.web3j.protocol.rx.ReplayedBlock;
+import org.web3j.protocol.websocket.events.FullPendingTransactionNotification;
 import org.web3j.protocol.websocket.events.LogNotification;
 import org.web3j.protocol.websocket.events.NewHeadsNotification;
 import org.web3j.utils.Async;
@@ -110,8 +116,16 @@ public class JsonRpc2_0Web3j implements Web3j {
             Web3jService web3jService,
             long pollingInterval,
             ScheduledExecutorService scheduledExecutorService) {
+        this(web3jService, pollingInterval, scheduledExecutorService, false);
+    }
+
+    public JsonRpc2_0Web3j(
+            Web3jService web3jService,
+            long pollingInterval,
+            ScheduledExecutorService scheduledExecutorService,
+            boolean multiplexFilters) {
         this.web3jService = web3jService;
-        this.web3jRx = new JsonRpc2_0Rx(this, scheduledExecutorService);
+        this.web3jRx = new JsonRpc2_0Rx(this, scheduledExecutorService, multiplexFilters);
         this.blockTime = pollingInterval;
         this.scheduledExecutorService = scheduledExecutorService;
     }
@@ -404,6 +418,16 @@ public class JsonRpc2_0Web3j implements Web3j {
                 EthBlock.class);
     }
 
+    @Override
+    public Request<?, EthGetBlockReceipts> ethGetBlockReceipts(
+            DefaultBlockParameter defaultBlockParameter) {
+        return new Request<>(
+                "eth_getBlockReceipts",
+                Arrays.asList(defaultBlockParameter.getValue()),
+                web3jService,
+                EthGetBlockReceipts.class);
+    }
+
     @Override
     public Request<?, EthTransaction> ethGetTransactionByHash(String transactionHash) {
         return new Request<>(
@@ -712,6 +736,18 @@ public class JsonRpc2_0Web3j implements Web3j {
                 NewHeadsNotification.class);
     }
 
+    @Override
+    public Flowable<FullPendingTransactionNotification> fullPendingTransactionsNotifications() {
+        return web3jService.subscribe(
+                new Request<>(
+                        "eth_subscribe",
+                        Arrays.asList("newPendingTransactions", true),
+                        web3jService,
+                        EthSubscribe.class),
+                "eth_unsubscribe",
+                FullPendingTransactionNotification.class);
+    }
+
     @Override
     public Flowable<LogNotification> logsNotifications(
             List<String> addresses, List<String> topics) {
@@ -744,17 +780,46 @@ public class JsonRpc2_0Web3j implements Web3j {
         return web3jRx.ethBlockHashFlowable(blockTime);
     }
 
+    @Override
+    public Flowable<String> ethBlockHashFlowable(BoundedBuffer buffer) {
+        return web3jRx.ethBlockHashFlowable(blockTime, buffer);
+    }
+
     @Override
     public Flowable<String> ethPendingTransactionHashFlowable() {
         return web3jRx.ethPendingTransactionHashFlowable(blockTime);
     }
 
+    @Override
+    public Flowable<String> ethPendingTransactionHashFlowable(BoundedBuffer buffer) {
+        return web3jRx.ethPendingTransactionHashFlowable(blockTime, buffer);
+    }
+
     @Override
     public Flowable<Log> ethLogFlowable(
             org.web3j.protocol.core.methods.request.EthFilter ethFilter) {
         return web3jRx.ethLogFlowable(ethFilter, blockTime);
     }
 
+    @Override
+    public Flowable<Log> ethLogFlowable(
+            org.web3j.protocol.core.methods.request.EthFilter ethFilter, BoundedBuffer buffer) {
+        return web3jRx.ethLogFlowable(ethFilter, blockTime, buffer);
+    }
+
+    @Override
+    public Flowable<Log> ethLogRangeFlowable(
+            org.web3j.protocol.core.methods.request.EthFilter ethFilter,
+            BlockCheckpoint checkpoint) {
+        return web3jRx.ethLogRangeFlowable(ethFilter, checkpoint, blockTime);
+    }
+
+    @Override
+    public Flowable<Log> reorgAwareLogFlowable(
+            org.web3j.protocol.core.methods.request.EthFilter ethFilter, int confirmations) {
+        return web3jRx.reorgAwareLogFlowable(ethFilter, confirmations, blockTime);
+    }
+
     @Override
     public Flowable<org.web3j.protocol.core.methods.response.Transaction> transactionFlowable() {
         return web3jRx.transactionFlowable(blockTime);
@@ -766,11 +831,23 @@ public class JsonRpc2_0Web3j implements Web3j {
         return web3jRx.pendingTransactionFlowable(blockTime);
     }
 
+    @Override
+    public Flowable<org.web3j.protocol.core.methods.response.Transaction>
+            pendingTransactionFlowable(int batchSize) {
+        return web3jRx.pendingTransactionFlowable(blockTime, batchSize);
+    }
+
     @Override
     public Flowable<EthBlock> blockFlowable(boolean fullTransactionObjects) {
         return web3jRx.blockFlowable(fullTransactionObjects, blockTime);
     }
 
+    @Override
+    public Flowable<BlockEvent> reorgAwareBlockFlowable(
+            boolean fullTransactionObjects, int confirmations) {
+        return web3jRx.reorgAwareBlockFlowable(fullTransactionObjects, confirmations, blockTime);
+    }
+
     @Override
     public Flowable<EthBlock> replayPastBlocksFlowable(
             DefaultBlockParameter startBlock,
@@ -789,6 +866,25 @@ public class JsonRpc2_0Web3j implements Web3j {
                 startBlock, endBlock, fullTransactionObjects, ascending);
     }
 
+    @Override
+    public Flowable<ReplayedBlock> replayBlocksFlowable(
+            DefaultBlockParameter startBlock,
+            DefaultBlockParameter endBlock,
+            boolean fullTransactionObjects,
+            boolean includeReceipts,
+            int batchSize,
+            int parallelism,
+            BlockCheckpoint checkpoint) {
+        return web3jRx.replayBlocksFlowable(
+                startBlock,
+                endBlock,
+                fullTransactionObjects,
+                includeReceipts,
+                batchSize,
+                parallelism,
+                checkpoint);
+    }
+
     @Override
     public Flowable<EthBlock> replayPastBlocksFlowable(
             DefaultBlockParameter startBlock,
@@ -21,6 +21,8 @@ public final class RpcErrors {
 
     public static final int INVALID_REQUEST = -32601;
 
+    public static final int METHOD_NOT_FOUND = -32601;
+
     public static final int INVALID_PARAMS = -32602;
 
     public static final int INTERNAL_ERROR = -32603;
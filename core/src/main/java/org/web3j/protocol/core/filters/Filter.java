@@ -20,6 +20,7 @@ import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,8 +48,12 @@ public abstract class Filter<T> {
 
     private ScheduledExecutorService scheduledExecutorService;
 
+    private FilterMultiplexer filterMultiplexer;
+
     private long blockTime;
 
+    private volatile BooleanSupplier pollCondition = () -> true;
+
     public Filter(Web3j web3j, Callback<T> callback) {
         this.web3j = web3j;
         this.callback = callback;
@@ -56,17 +61,8 @@ public abstract class Filter<T> {
 
     public void run(ScheduledExecutorService scheduledExecutorService, long blockTime) {
         try {
-            EthFilter ethFilter = sendRequest();
-            if (ethFilter.hasError()) {
-                throwException(ethFilter.getError());
-            }
-
-            filterId = ethFilter.getFilterId();
+            EthFilter ethFilter = install(blockTime);
             this.scheduledExecutorService = scheduledExecutorService;
-            this.blockTime = blockTime;
-            // this runs in the caller thread as if any exceptions are encountered, we shouldn't
-            // proceed with creating the scheduled task below
-            getInitialFilterLogs();
 
             /*
             We want the filter to be resilient against client issues. On numerous occasions
@@ -89,7 +85,9 @@ public abstract class Filter<T> {
                     scheduledExecutorService.scheduleAtFixedRate(
                             () -> {
                                 try {
-                                    this.pollFilter(ethFilter);
+                                    if (shouldPoll()) {
+                                        this.pollFilter(ethFilter);
+                                    }
                                 } catch (Throwable e) {
                                     // All exceptions must be caught, otherwise our job terminates
                                     // without
@@ -105,6 +103,56 @@ public abstract class Filter<T> {
         }
     }
 
+    /**
+     * Installs the filter and has the given multiplexer poll it along with its other filters,
+     * instead of polling it on its own.
+     *
+     * @param filterMultiplexer multiplexer to poll the filter
+     * @param blockTime polling interval, in milliseconds
+     */
+    public void run(FilterMultiplexer filterMultiplexer, long blockTime) {
+        try {
+            install(blockTime);
+            this.filterMultiplexer = filterMultiplexer;
+            filterMultiplexer.add(this, blockTime);
+        } catch (IOException e) {
+            throwException(e);
+        }
+    }
+
+    private EthFilter install(long blockTime) throws IOException {
+        EthFilter ethFilter = sendRequest();
+        if (ethFilter.hasError()) {
+            throwException(ethFilter.getError());
+        }
+
+        filterId = ethFilter.getFilterId();
+        this.blockTime = blockTime;
+        // this runs in the caller thread as if any exceptions are encountered, we shouldn't
+        // proceed with polling the filter
+        getInitialFilterLogs();
+        return ethFilter;
+    }
+
+    BigInteger getFilterId() {
+        return filterId;
+    }
+
+    /**
+     * Skip polling for changes while the given condition does not hold, for instance while the
+     * consumer of the changes is not keeping up. Changes are kept by the node meanwhile, unless the
+     * filter expires, in which case it is installed again.
+     *
+     * @param pollCondition condition checked before each poll
+     */
+    public void pollWhen(BooleanSupplier pollCondition) {
+        this.pollCondition = pollCondition;
+    }
+
+    boolean shouldPoll() {
+        return pollCondition.getAsBoolean();
+    }
+
     private void getInitialFilterLogs() {
         try {
             Optional<Request<?, EthLog>> maybeRequest = this.getFilterLogs(this.filterId);
@@ -134,6 +182,10 @@ public abstract class Filter<T> {
         } catch (IOException e) {
             throwException(e);
         }
+        onFilterChanges(ethLog);
+    }
+
+    void onFilterChanges(EthLog ethLog) {
         if (ethLog.hasError()) {
             Error error = ethLog.getError();
             switch (error.getCode()) {
@@ -155,12 +207,21 @@ public abstract class Filter<T> {
 
     private void reinstallFilter() {
         log.warn("The filter has not been found. Filter id: " + filterId);
-        schedule.cancel(false);
-        this.run(scheduledExecutorService, blockTime);
+        if (filterMultiplexer != null) {
+            filterMultiplexer.remove(this, blockTime);
+            this.run(filterMultiplexer, blockTime);
+        } else {
+            schedule.cancel(false);
+            this.run(scheduledExecutorService, blockTime);
+        }
     }
 
     public void cancel() {
-        schedule.cancel(false);
+        if (filterMultiplexer != null) {
+            filterMultiplexer.remove(this, blockTime);
+        } else {
+            schedule.cancel(false);
+        }
 
         try {
             EthUninstallFilter ethUninstallFilter = uninstallFilter(filterId);
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.core.filters;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthLog;
+
+/**
+ * Polls many filters together, so that the number of requests per polling interval does not grow
+ * with the number of filters.
+ *
+ * <p>Filters with the same polling interval share a single scheduled task, which fetches the
+ * changes of all of them with one batch of {@code eth_getFilterChanges} requests and hands each
+ * filter its own response. The underlying service must support batch requests.
+ */
+public class FilterMultiplexer {
+
+    private static final Logger log = LoggerFactory.getLogger(FilterMultiplexer.class);
+
+    private final Web3j web3j;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final Map<Long, Group> groups = new HashMap<>();
+
+    public FilterMultiplexer(Web3j web3j, ScheduledExecutorService scheduledExecutorService) {
+        this.web3j = web3j;
+        this.scheduledExecutorService = scheduledExecutorService;
+    }
+
+    synchronized void add(Filter<?> filter, long pollingInterval) {
+        groups.computeIfAbsent(pollingInterval, Group::new).filters.add(filter);
+    }
+
+    synchronized void remove(Filter<?> filter, long pollingInterval) {
+        Group group = groups.get(pollingInterval);
+        if (group != null && group.filters.remove(filter) && group.filters.isEmpty()) {
+            group.schedule.cancel(false);
+            groups.remove(pollingInterval);
+        }
+    }
+
+    /** @return number of filters being polled */
+    public synchronized int getFilterCount() {
+        int count = 0;
+        for (Group group : groups.values()) {
+            count += group.filters.size();
+        }
+        return count;
+    }
+
+    private void poll(List<Filter<?>> filters) {
+        List<Filter<?>> polled = new ArrayList<>();
+        for (Filter<?> filter : filters) {
+            if (filter.shouldPoll()) {
+                polled.add(filter);
+            }
+        }
+        if (polled.isEmpty()) {
+            return;
+        }
+
+        BatchRequest batchRequest = web3j.newBatch();
+        for (Filter<?> filter : polled) {
+            batchRequest.add(web3j.ethGetFilterChanges(filter.getFilterId()));
+        }
+
+        BatchResponse batchResponse;
+        try {
+            batchResponse = batchRequest.send();
+        } catch (Throwable e) {
+            // as with a single filter, keep polling through intermittent connection issues
+            log.warn("Error sending batch request", e);
+            return;
+        }
+
+        List<? extends Response<?>> responses = batchResponse.getResponses();
+        for (int i = 0; i < polled.size(); i++) {
+            try {
+                polled.get(i).onFilterChanges((EthLog) responses.get(i));
+            } catch (Throwable e) {
+                log.warn("Error processing filter changes", e);
+            }
+        }
+    }
+
+    private class Group {
+        private final List<Filter<?>> filters = new CopyOnWriteArrayList<>();
+        private final ScheduledFuture<?> schedule;
+
+        Group(long pollingInterval) {
+            schedule =
+                    scheduledExecutorService.scheduleAtFixedRate(
+                            () -> poll(filters), 0, pollingInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -50,10 +50,19 @@ public class EthFilter extends Filter<EthFilter> {
     }
 
     public EthFilter(String blockHash, String address) {
-        this(null, null, Collections.singletonList(address));
+        this(blockHash, Collections.singletonList(address));
+    }
+
+    private EthFilter(String blockHash, List<String> address) {
+        this(null, null, address);
         this.blockHash = blockHash;
     }
 
+    /** Creates a filter for the logs of any of the given addresses in the block with the hash. */
+    public static EthFilter createBlockHashFilter(String blockHash, List<String> address) {
+        return new EthFilter(blockHash, address);
+    }
+
     public DefaultBlockParameter getFromBlock() {
         return fromBlock;
     }
@@ -12,30 +12,39 @@
  */
 package org.web3j.protocol.http;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.CipherSuite;
 import okhttp3.ConnectionSpec;
+import okhttp3.Dispatcher;
 import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 import okhttp3.logging.HttpLoggingInterceptor;
-import okio.Buffer;
-import okio.BufferedSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.web3j.protocol.Service;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
 import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.utils.Async;
 
 import static okhttp3.ConnectionSpec.CLEARTEXT;
 
@@ -89,6 +98,8 @@ public class HttpService extends Service {
 
     public static final String DEFAULT_URL = "http://localhost:8545/";
 
+    private static final int DESERIALIZATION_QUEUE_CAPACITY = 1024;
+
     private static final Logger log = LoggerFactory.getLogger(HttpService.class);
 
     private OkHttpClient httpClient;
@@ -97,13 +108,38 @@ public class HttpService extends Service {
 
     private final boolean includeRawResponse;
 
+    private final Executor deserializationExecutor;
+
+    // subclasses customising performIO keep performing asynchronous requests through it
+    private final boolean overridesPerformIO;
+
     private HashMap<String, String> headers = new HashMap<>();
 
-    public HttpService(String url, OkHttpClient httpClient, boolean includeRawResponses) {
+    /**
+     * Creates a service which deserializes the responses of asynchronous requests on the given
+     * executor. The number of requests performed concurrently is limited by the {@link Dispatcher}
+     * of the client.
+     *
+     * @param url node endpoint
+     * @param httpClient client performing the requests
+     * @param includeRawResponses whether responses should include the raw response text
+     * @param deserializationExecutor executor on which asynchronous responses are deserialized
+     */
+    public HttpService(
+            String url,
+            OkHttpClient httpClient,
+            boolean includeRawResponses,
+            Executor deserializationExecutor) {
         super(includeRawResponses);
         this.url = url;
         this.httpClient = httpClient;
         this.includeRawResponse = includeRawResponses;
+        this.deserializationExecutor = deserializationExecutor;
+        this.overridesPerformIO = overridesPerformIO(getClass());
+    }
+
+    public HttpService(String url, OkHttpClient httpClient, boolean includeRawResponses) {
+        this(url, httpClient, includeRawResponses, DeserializationExecutorHolder.INSTANCE);
     }
 
     public HttpService(OkHttpClient httpClient, boolean includeRawResponses) {
@@ -141,6 +177,42 @@ public class HttpService extends Service {
         return builder;
     }
 
+    /**
+     * Creates a client builder whose {@link Dispatcher} limits the number of asynchronous requests
+     * in flight. The default builder keeps the OkHttp limits of 64 requests, of which only 5 may be
+     * against a single host, which caps the concurrent asynchronous requests to one node at 5.
+     *
+     * @param maxRequests maximum number of asynchronous requests executing concurrently
+     * @param maxRequestsPerHost maximum number of asynchronous requests executing concurrently
+     *     against a single host
+     * @return client builder
+     */
+    public static OkHttpClient.Builder getOkHttpClientBuilder(
+            int maxRequests, int maxRequestsPerHost) {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        final OkHttpClient.Builder builder =
+                new OkHttpClient.Builder()
+                        .connectionSpecs(CONNECTION_SPEC_LIST)
+                        .dispatcher(dispatcher);
+        configureLogging(builder);
+        return builder;
+    }
+
+    private static boolean overridesPerformIO(Class<?> type) {
+        for (Class<?> c = type; c != HttpService.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod("performIO", String.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // keep looking in the superclass
+            }
+        }
+        return false;
+    }
+
     private static OkHttpClient createOkHttpClient() {
         return getOkHttpClientBuilder().build();
     }
@@ -155,19 +227,119 @@ public class HttpService extends Service {
 
     @Override
     protected InputStream performIO(String request) throws IOException {
+        okhttp3.Response response = newCall(request).execute();
+        return processResponse(response);
+    }
+
+    /**
+     * Creates the call performing a request, for both synchronous and asynchronous requests.
+     * Subclasses may override this to customise the HTTP request, for example its authentication.
+     *
+     * @param request JSON-RPC payload
+     * @return call which has not been executed yet
+     */
+    protected Call newCall(String request) {
+        return httpClient.newCall(buildHttpRequest(request));
+    }
 
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(
+            Request request, Class<T> responseType) {
+        if (overridesPerformIO) {
+            return super.sendAsync(request, responseType);
+        }
+        return performAsyncIO(request, result -> objectMapper.readValue(result, responseType));
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        if (overridesPerformIO) {
+            return super.sendBatchAsync(batchRequest);
+        }
+        if (batchRequest.getRequests().isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    new BatchResponse(Collections.emptyList(), Collections.emptyList()));
+        }
+        return performAsyncIO(
+                batchRequest.getRequests(), result -> readBatchResponse(batchRequest, result));
+    }
+
+    /**
+     * Enqueues the request with the OkHttp {@link Dispatcher}, so no thread is blocked while
+     * waiting for the response, which is then deserialized on the deserialization executor.
+     * Cancelling the returned future cancels the call.
+     */
+    private <T> CompletableFuture<T> performAsyncIO(Object payload, ResponseReader<T> reader) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        Call call;
+        try {
+            call = newCall(objectMapper.writeValueAsString(payload));
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        call.enqueue(
+                new Callback() {
+                    @Override
+                    public void onFailure(Call call, IOException e) {
+                        result.completeExceptionally(e);
+                    }
+
+                    @Override
+                    public void onResponse(Call call, okhttp3.Response response) {
+                        try {
+                            deserializationExecutor.execute(
+                                    () -> readResponse(response, reader, result));
+                        } catch (RejectedExecutionException e) {
+                            response.close();
+                            result.completeExceptionally(e);
+                        }
+                    }
+                });
+
+        result.whenComplete(
+                (value, throwable) -> {
+                    if (result.isCancelled()) {
+                        call.cancel();
+                    }
+                });
+        return result;
+    }
+
+    private <T> void readResponse(
+            okhttp3.Response response, ResponseReader<T> reader, CompletableFuture<T> result) {
+        // we need to explicitly catch any exceptions,
+        // otherwise they will be silently discarded
+        try (InputStream inputStream = processResponse(response)) {
+            result.complete(inputStream != null ? reader.read(inputStream) : null);
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private okhttp3.Request buildHttpRequest(String request) {
         RequestBody requestBody = RequestBody.create(request, JSON_MEDIA_TYPE);
         Headers headers = buildHeaders();
 
-        okhttp3.Request httpRequest =
-                new okhttp3.Request.Builder().url(url).headers(headers).post(requestBody).build();
+        return new okhttp3.Request.Builder().url(url).headers(headers).post(requestBody).build();
+    }
 
-        try (okhttp3.Response response = httpClient.newCall(httpRequest).execute()) {
+    /**
+     * Returns the body of a successful response. Unless the body is buffered for raw responses, the
+     * response is only released once the returned stream has been closed.
+     */
+    private InputStream processResponse(okhttp3.Response response) throws IOException {
+        boolean streaming = false;
+        try {
             processHeaders(response.headers());
             ResponseBody responseBody = response.body();
             if (response.isSuccessful()) {
                 if (responseBody != null) {
-                    return buildInputStream(responseBody);
+                    InputStream inputStream = buildInputStream(responseBody);
+                    streaming = !includeRawResponse;
+                    return inputStream;
                 } else {
                     return null;
                 }
@@ -178,6 +350,10 @@ public class HttpService extends Service {
                 throw new ClientConnectionException(
                         "Invalid response received: " + code + "; " + text);
             }
+        } finally {
+            if (!streaming) {
+                response.close();
+            }
         }
     }
 
@@ -189,28 +365,11 @@ public class HttpService extends Service {
         if (includeRawResponse) {
             // we have to buffer the entire input payload, so that after processing
             // it can be re-read and used to populate the rawResponse field.
-
-            BufferedSource source = responseBody.source();
-            source.request(Long.MAX_VALUE); // Buffer the entire body
-            Buffer buffer = source.getBuffer();
-
-            long size = buffer.size();
-            if (size > Integer.MAX_VALUE) {
-                throw new UnsupportedOperationException(
-                        "Non-integer input buffer size specified: " + size);
-            }
-
-            int bufferSize = (int) size;
-            InputStream inputStream = responseBody.byteStream();
-
-            BufferedInputStream bufferedinputStream =
-                    new BufferedInputStream(inputStream, bufferSize);
-
-            bufferedinputStream.mark(inputStream.available());
-            return bufferedinputStream;
-
-        } else {
             return new ByteArrayInputStream(responseBody.bytes());
+        } else {
+            // the response is parsed directly from the connection, which is released once the
+            // stream has been closed.
+            return responseBody.byteStream();
         }
     }
 
@@ -236,4 +395,17 @@ public class HttpService extends Service {
 
     @Override
     public void close() throws IOException {}
+
+    /** Reads a response body. */
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(InputStream result) throws IOException;
+    }
+
+    /** Lazily creates the executor shared by services which are not given one. */
+    private static final class DeserializationExecutorHolder {
+        static final Executor INSTANCE =
+                Async.boundedExecutorService(
+                        Runtime.getRuntime().availableProcessors(), DESERIALIZATION_QUEUE_CAPACITY);
+    }
 }
@@ -0,0 +1,727 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.ipc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.subjects.BehaviorSubject;
+import jnr.unixsocket.UnixSocketAddress;
+import jnr.unixsocket.UnixSocketChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthSubscribe;
+import org.web3j.protocol.core.methods.response.EthUnsubscribe;
+import org.web3j.protocol.websocket.WebSocketSubscription;
+import org.web3j.protocol.websocket.events.Notification;
+
+/**
+ * IPC service which keeps its Unix domain sockets open and pipelines requests over them.
+ *
+ * <p>Unlike {@link UnixIpcService}, which opens a new socket for each request and waits for its
+ * reply, requests from any number of threads are written to a small set of persistent connections
+ * without waiting for earlier replies. A reader thread per connection parses replies directly from
+ * the socket and matches them to requests by id. Subscriptions are supported as they are by the
+ * WebSocket service.
+ *
+ * <p>Sockets are opened with {@link SocketChannel} and {@code UnixDomainSocketAddress} on Java 16
+ * or later, and with jnr-unixsocket otherwise. A connection which is closed by the node is reopened
+ * when the next request is sent over it.
+ */
+public class PipelinedIpcService implements Web3jService {
+
+    private static final Logger log = LoggerFactory.getLogger(PipelinedIpcService.class);
+
+    public static final int DEFAULT_CONNECTIONS = 1;
+
+    // Object mapper to map incoming JSON objects
+    private final ObjectMapper objectMapper;
+    private final boolean includeRawResponses;
+    private final List<Connection> connections;
+    private final AtomicInteger nextConnection = new AtomicInteger();
+
+    // Map of a sent request id to objects necessary to process this request
+    private final Map<Long, PendingReply> replyForId = new ConcurrentHashMap<>();
+    // Map of a sent subscription request id to objects necessary to process subscription events
+    private final Map<Long, WebSocketSubscription<?>> subscriptionRequestForId =
+            new ConcurrentHashMap<>();
+    // Map of a subscription id to objects necessary to process incoming events
+    private final Map<String, WebSocketSubscription<?>> subscriptionForId =
+            new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    public PipelinedIpcService(String ipcSocketPath) {
+        this(ipcSocketPath, DEFAULT_CONNECTIONS, false);
+    }
+
+    public PipelinedIpcService(String ipcSocketPath, int connections, boolean includeRawResponses) {
+        this(
+                Collections.nCopies(connections, () -> openChannel(ipcSocketPath)),
+                includeRawResponses);
+    }
+
+    PipelinedIpcService(List<Callable<ByteChannel>> channelOpeners, boolean includeRawResponses) {
+        if (channelOpeners.isEmpty()) {
+            throw new IllegalArgumentException("At least one connection is required");
+        }
+        this.objectMapper = ObjectMapperFactory.getObjectMapper(includeRawResponses);
+        this.includeRawResponses = includeRawResponses;
+        List<Connection> connections = new ArrayList<>(channelOpeners.size());
+        for (int i = 0; i < channelOpeners.size(); i++) {
+            connections.add(new Connection(i, channelOpeners.get(i)));
+        }
+        this.connections = Collections.unmodifiableList(connections);
+    }
+
+    /**
+     * Open a Unix domain socket, using the JDK's support for Unix domain sockets where it is
+     * available.
+     *
+     * @param ipcSocketPath path of the socket file
+     * @return connected channel
+     * @throws IOException if the socket cannot be opened
+     */
+    static ByteChannel openChannel(String ipcSocketPath) throws IOException {
+        SocketAddress address;
+        SocketChannel channel;
+        try {
+            address =
+                    (SocketAddress)
+                            Class.forName("java.net.UnixDomainSocketAddress")
+                                    .getMethod("of", String.class)
+                                    .invoke(null, ipcSocketPath);
+            channel =
+                    (SocketChannel)
+                            SocketChannel.class
+                                    .getMethod("open", ProtocolFamily.class)
+                                    .invoke(null, StandardProtocolFamily.valueOf("UNIX"));
+        } catch (ClassNotFoundException
+                | NoSuchMethodException
+                | IllegalAccessException
+                | IllegalArgumentException e) {
+            return UnixSocketChannel.open(new UnixSocketAddress(ipcSocketPath));
+        } catch (InvocationTargetException e) {
+            throw new IOException("Provided file socket cannot be opened: " + ipcSocketPath, e);
+        }
+
+        try {
+            channel.connect(address);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        try {
+            return sendAsync(request, responseType).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted IPC request", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw new RuntimeException("Unexpected exception", e.getCause());
+        }
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(
+            Request request, Class<T> responseType) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        sendAsync(
+                request.getId(),
+                request,
+                new PendingReply(result, responseType, null),
+                selectConnection(request.getMethod()));
+        return result;
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        try {
+            return sendBatchAsync(batchRequest).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted IPC batch requests", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw new RuntimeException("Unexpected exception", e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        CompletableFuture<BatchResponse> result = new CompletableFuture<>();
+        List<Request<?, ? extends Response<?>>> requests = batchRequest.getRequests();
+        if (requests.isEmpty()) {
+            result.complete(new BatchResponse(requests, Collections.emptyList()));
+            return result;
+        }
+        // the batch is registered under the id of its first request
+        sendAsync(
+                requests.get(0).getId(),
+                requests,
+                new PendingReply(result, null, requests),
+                selectConnection(null));
+        return result;
+    }
+
+    private void sendAsync(
+            long requestId, Object payload, PendingReply pendingReply, Connection connection) {
+        if (closed) {
+            pendingReply.result.completeExceptionally(new IOException("Service was closed"));
+            return;
+        }
+        replyForId.put(requestId, pendingReply);
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(payload);
+            if (log.isDebugEnabled()) {
+                log.debug(">> {}", new String(bytes, StandardCharsets.UTF_8));
+            }
+            connection.write(bytes, pendingReply);
+        } catch (IOException e) {
+            replyForId.remove(requestId);
+            pendingReply.result.completeExceptionally(e);
+        }
+    }
+
+    private Connection selectConnection(String method) {
+        if (method == null
+                || connections.size() == 1
+                || method.endsWith("_subscribe")
+                || method.endsWith("_unsubscribe")) {
+            // subscriptions only exist on the connection they were created on
+            return connections.get(0);
+        }
+        return connections.get(Math.floorMod(nextConnection.getAndIncrement(), connections.size()));
+    }
+
+    /**
+     * Reads a message from the socket and skips whatever is left of it once it has been processed,
+     * such as the rest of a reply to an unexpected request.
+     */
+    private void processMessage(JsonParser parser) throws IOException {
+        try {
+            onMessage(parser);
+        } catch (JsonParseException e) {
+            // the rest of the stream cannot be read
+            throw e;
+        } catch (IOException e) {
+            log.error("Failed to process IPC message", e);
+        }
+        while (!parser.getParsingContext().inRoot()) {
+            if (parser.nextToken() == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads a whole message, so that it can be logged and raw responses can be read back from it.
+     */
+    private JsonParser bufferMessage(JsonParser parser) throws IOException {
+        byte[] message = objectMapper.writeValueAsBytes(objectMapper.readTree(parser));
+        if (log.isDebugEnabled()) {
+            log.debug("<< {}", new String(message, StandardCharsets.UTF_8));
+        }
+        JsonParser messageParser =
+                objectMapper.getFactory().createParser(new ByteArrayInputStream(message));
+        messageParser.nextToken();
+        return messageParser;
+    }
+
+    /**
+     * Dispatches a message in a single pass over its tokens.
+     *
+     * <p>As in the WebSocket service, the leading fields of a reply are scanned only until its
+     * {@code id}, or the {@code subscription} of an event, is found. The scanned tokens are
+     * buffered and the message is then deserialized straight into the type expected by the request
+     * or subscription, continuing from where the scan stopped, so no intermediate tree is built.
+     *
+     * @param parser parser positioned at the start of the message
+     */
+    void onMessage(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_ARRAY) {
+            processBatchReply(parser);
+            return;
+        } else if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Unknown message type");
+        }
+
+        try (TokenBuffer scanned = new TokenBuffer(parser)) {
+            scanned.writeStartObject();
+            boolean isEvent = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                parser.nextToken();
+                scanned.writeFieldName(fieldName);
+                if ("id".equals(fieldName)) {
+                    long replyId = parser.getValueAsLong();
+                    scanned.copyCurrentStructure(parser);
+                    processReply(replyId, remainder(scanned, parser));
+                    return;
+                } else if ("params".equals(fieldName)
+                        && parser.currentToken() == JsonToken.START_OBJECT) {
+                    String subscriptionId = scanSubscriptionId(parser, scanned);
+                    if (subscriptionId != null) {
+                        processSubscriptionEvent(subscriptionId, remainder(scanned, parser));
+                        return;
+                    }
+                    continue;
+                } else if ("method".equals(fieldName)) {
+                    isEvent = true;
+                }
+                scanned.copyCurrentStructure(parser);
+            }
+            if (isEvent) {
+                throw new IOException("'subscription' field is missing in the event");
+            }
+            throw new IOException("Unknown message type");
+        }
+    }
+
+    /**
+     * Scans the fields of an event's params up to its subscription id, copying them to the buffer.
+     * If there is no subscription id, the whole params object is copied.
+     */
+    private static String scanSubscriptionId(JsonParser parser, TokenBuffer scanned)
+            throws IOException {
+        scanned.writeStartObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            scanned.writeFieldName(fieldName);
+            if ("subscription".equals(fieldName) && parser.currentToken().isScalarValue()) {
+                String subscriptionId = parser.getText();
+                scanned.copyCurrentEvent(parser);
+                return subscriptionId;
+            }
+            scanned.copyCurrentStructure(parser);
+        }
+        scanned.writeEndObject();
+        return null;
+    }
+
+    /**
+     * Scans the fields of a reply up to its id, copying them to the buffer. If there is no id, the
+     * whole reply is copied.
+     */
+    private static Long scanReplyId(JsonParser parser, TokenBuffer scanned) throws IOException {
+        scanned.writeStartObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            scanned.writeFieldName(fieldName);
+            scanned.copyCurrentStructure(parser);
+            if ("id".equals(fieldName)) {
+                return parser.getValueAsLong();
+            }
+        }
+        scanned.writeEndObject();
+        return null;
+    }
+
+    /** Joins the scanned tokens with the rest of the message. */
+    private static JsonParser remainder(TokenBuffer scanned, JsonParser parser) {
+        return JsonParserSequence.createFlattened(false, scanned.asParser(parser), parser);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void processReply(long replyId, JsonParser reply) throws IOException {
+        PendingReply pendingReply = replyForId.remove(replyId);
+        if (pendingReply == null) {
+            log.warn("Received reply for unexpected request id: {}", replyId);
+            return;
+        }
+        Object response;
+        try {
+            response = objectMapper.readValue(reply, pendingReply.responseType);
+        } catch (IOException | IllegalArgumentException e) {
+            pendingReply.result.completeExceptionally(
+                    new IOException(
+                            String.format(
+                                    "Failed to parse reply to request %d as type %s",
+                                    replyId, pendingReply.responseType),
+                            e));
+            rethrowIfMalformed(e);
+            return;
+        }
+        if (response instanceof EthSubscribe) {
+            processSubscriptionResponse(replyId, (EthSubscribe) response);
+        }
+        ((CompletableFuture<Object>) pendingReply.result).complete(response);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void processBatchReply(JsonParser parser) throws IOException {
+        PendingReply pendingReply = null;
+        // the batch is registered under the id of its first request, which need not be replied
+        // to first, so replies read before it is found are buffered
+        Map<Long, TokenBuffer> unmatched = new HashMap<>();
+        Map<Long, Response<?>> responseForId = new HashMap<>();
+        try {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                TokenBuffer scanned = new TokenBuffer(parser);
+                Long replyId = scanReplyId(parser, scanned);
+                if (replyId == null) {
+                    continue;
+                }
+                if (pendingReply == null) {
+                    pendingReply = replyForId.remove(replyId);
+                    if (pendingReply == null) {
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            scanned.copyCurrentStructure(parser);
+                        }
+                        scanned.writeEndObject();
+                        unmatched.put(replyId, scanned);
+                        continue;
+                    }
+                    for (Map.Entry<Long, TokenBuffer> entry : unmatched.entrySet()) {
+                        readBatchReply(
+                                pendingReply,
+                                entry.getKey(),
+                                entry.getValue().asParser(parser),
+                                responseForId);
+                    }
+                }
+                readBatchReply(pendingReply, replyId, remainder(scanned, parser), responseForId);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            if (pendingReply == null) {
+                throw e;
+            }
+            pendingReply.result.completeExceptionally(
+                    new IOException("Failed to parse batch reply", e));
+            rethrowIfMalformed(e);
+            return;
+        }
+        if (pendingReply == null) {
+            log.warn("Received reply for unexpected batch request");
+            return;
+        }
+
+        List<Response<?>> responses = new ArrayList<>(pendingReply.requests.size());
+        for (Request<?, ? extends Response<?>> request : pendingReply.requests) {
+            responses.add(responseForId.get(request.getId()));
+        }
+        ((CompletableFuture<Object>) pendingReply.result)
+                .complete(new BatchResponse(pendingReply.requests, responses));
+    }
+
+    private void readBatchReply(
+            PendingReply pendingReply,
+            long replyId,
+            JsonParser reply,
+            Map<Long, Response<?>> responseForId)
+            throws IOException {
+        for (Request<?, ? extends Response<?>> request : pendingReply.requests) {
+            if (request.getId() == replyId) {
+                responseForId.put(
+                        replyId, objectMapper.readValue(reply, request.getResponseType()));
+                return;
+            }
+        }
+        reply.nextToken();
+        reply.skipChildren();
+    }
+
+    private static void rethrowIfMalformed(Exception e) throws JsonParseException {
+        if (e instanceof JsonParseException) {
+            // the rest of the stream cannot be read
+            throw (JsonParseException) e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void processSubscriptionResponse(long replyId, EthSubscribe reply) {
+        WebSocketSubscription subscription = subscriptionRequestForId.remove(replyId);
+        if (subscription == null) {
+            return;
+        }
+        if (reply.hasError()) {
+            subscription
+                    .getSubject()
+                    .onError(
+                            new IOException(
+                                    String.format(
+                                            "Subscription request failed with error: %s",
+                                            reply.getError().getMessage())));
+        } else {
+            log.debug("Subscribed to RPC events with id {}", reply.getSubscriptionId());
+            subscriptionForId.put(reply.getSubscriptionId(), subscription);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void processSubscriptionEvent(String subscriptionId, JsonParser event)
+            throws IOException {
+        WebSocketSubscription subscription = subscriptionForId.get(subscriptionId);
+        if (subscription == null) {
+            log.warn("No subscriber for IPC event with subscription id {}", subscriptionId);
+            return;
+        }
+        Object notification;
+        try {
+            notification = objectMapper.readValue(event, subscription.getResponseType());
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Failed to parse IPC event for subscription {}", subscriptionId, e);
+            rethrowIfMalformed(e);
+            return;
+        }
+        subscription.getSubject().onNext(notification);
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(
+            Request request, String unsubscribeMethod, Class<T> responseType) {
+        BehaviorSubject<T> subject = BehaviorSubject.create();
+
+        // subscribe synchronously, so that the subscription id is known before it can be disposed
+        subscriptionRequestForId.put(
+                request.getId(), new WebSocketSubscription<>(subject, responseType));
+        try {
+            send(request, EthSubscribe.class);
+        } catch (IOException e) {
+            log.error("Failed to subscribe to RPC events with request id {}", request.getId());
+            subscriptionRequestForId.remove(request.getId());
+            subject.onError(e);
+        }
+
+        return subject.doOnDispose(() -> closeSubscription(subject, unsubscribeMethod))
+                .toFlowable(BackpressureStrategy.BUFFER);
+    }
+
+    private void closeSubscription(BehaviorSubject<?> subject, String unsubscribeMethod) {
+        String subscriptionId =
+                subscriptionForId.entrySet().stream()
+                        .filter(entry -> entry.getValue().getSubject() == subject)
+                        .map(Map.Entry::getKey)
+                        .findFirst()
+                        .orElse(null);
+        if (subscriptionId == null) {
+            log.warn("Trying to unsubscribe from a non-existing subscription. Race condition?");
+            return;
+        }
+        subscriptionForId.remove(subscriptionId);
+        sendAsync(
+                        new Request<>(
+                                unsubscribeMethod,
+                                Collections.singletonList(subscriptionId),
+                                this,
+                                EthUnsubscribe.class),
+                        EthUnsubscribe.class)
+                .exceptionally(
+                        throwable -> {
+                            log.error(
+                                    "Failed to unsubscribe from subscription with id {}",
+                                    subscriptionId);
+                            return null;
+                        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void onConnectionClosed(Connection connection, ByteChannel channel, IOException cause) {
+        IOException exception = new IOException("Connection was closed", cause);
+        for (Map.Entry<Long, PendingReply> entry : replyForId.entrySet()) {
+            PendingReply pendingReply = entry.getValue();
+            if (pendingReply.channel == channel
+                    && replyForId.remove(entry.getKey(), pendingReply)) {
+                pendingReply.result.completeExceptionally(exception);
+            }
+        }
+        if (connection.index == 0) {
+            subscriptionForId.values().forEach(s -> s.getSubject().onError(exception));
+            subscriptionForId.clear();
+        }
+    }
+
+    // Method visible for unit-tests
+    boolean isWaitingForReply(long requestId) {
+        return replyForId.containsKey(requestId);
+    }
+
+    private static class PendingReply {
+        private final CompletableFuture<?> result;
+        private final Class<?> responseType;
+        private final List<Request<?, ? extends Response<?>>> requests;
+        // channel the request was written to
+        private volatile ByteChannel channel;
+
+        PendingReply(
+                CompletableFuture<?> result,
+                Class<?> responseType,
+                List<Request<?, ? extends Response<?>>> requests) {
+            this.result = result;
+            this.responseType = responseType;
+            this.requests = requests;
+        }
+    }
+
+    /** A persistent socket together with the thread reading replies from it. */
+    private class Connection {
+        private final int index;
+        private final Callable<ByteChannel> channelOpener;
+        private final Object writeLock = new Object();
+        private ByteChannel channel;
+
+        Connection(int index, Callable<ByteChannel> channelOpener) {
+            this.index = index;
+            this.channelOpener = channelOpener;
+        }
+
+        void write(byte[] payload, PendingReply pendingReply) throws IOException {
+            synchronized (writeLock) {
+                if (channel == null || !channel.isOpen()) {
+                    channel = open();
+                }
+                pendingReply.channel = channel;
+                ByteBuffer buffer = ByteBuffer.wrap(payload);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+
+        private ByteChannel open() throws IOException {
+            ByteChannel opened;
+            try {
+                opened = channelOpener.call();
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Failed to open IPC connection", e);
+            }
+            Thread reader = new Thread(() -> read(opened), "web3j-ipc-" + index);
+            reader.setDaemon(true);
+            reader.start();
+            return opened;
+        }
+
+        private void read(ByteChannel channel) {
+            IOException cause = null;
+            try (JsonParser parser =
+                    objectMapper.getFactory().createParser(new ChannelInputStream(channel))) {
+                while (parser.nextToken() != null) {
+                    if (includeRawResponses || log.isDebugEnabled()) {
+                        try (JsonParser message = bufferMessage(parser)) {
+                            processMessage(message);
+                        }
+                    } else {
+                        processMessage(parser);
+                    }
+                }
+            } catch (IOException e) {
+                cause = e;
+                if (!closed) {
+                    log.warn("IPC connection {} failed", index, e);
+                }
+            } finally {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.debug("Failed to close IPC connection {}", index, e);
+                }
+                onConnectionClosed(this, channel, cause);
+            }
+        }
+
+        void close() throws IOException {
+            synchronized (writeLock) {
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads straight from a channel. {@link java.nio.channels.Channels#newInputStream} is not used
+     * as it holds the channel's blocking lock while reading, which would block concurrent writes.
+     */
+    private static class ChannelInputStream extends InputStream {
+        private final ByteChannel channel;
+
+        ChannelInputStream(ByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int read;
+            do {
+                read = channel.read(ByteBuffer.wrap(b, off, len));
+            } while (read == 0);
+            return read;
+        }
+    }
+}
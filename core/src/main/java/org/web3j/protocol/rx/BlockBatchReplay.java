@@ -0,0 +1,166 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.rx;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthGetBlockReceipts;
+
+/**
+ * Replays a range of blocks by fetching consecutive batches of blocks with JSON-RPC batch requests,
+ * several batches at a time, while emitting the blocks in order.
+ *
+ * <p>Receipts are fetched in the same batches with {@code eth_getBlockReceipts}. Once all blocks of
+ * a batch have been emitted, the next block to fetch is stored in the checkpoint.
+ */
+class BlockBatchReplay {
+
+    private final Web3j web3j;
+    private final boolean fullTransactionObjects;
+    private final boolean includeReceipts;
+    private final int batchSize;
+    private final int parallelism;
+    private final BlockCheckpoint checkpoint;
+    private final Scheduler scheduler;
+
+    BlockBatchReplay(
+            Web3j web3j,
+            boolean fullTransactionObjects,
+            boolean includeReceipts,
+            int batchSize,
+            int parallelism,
+            BlockCheckpoint checkpoint,
+            Scheduler scheduler) {
+        if (batchSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Batch size and parallelism must be positive");
+        }
+        this.web3j = web3j;
+        this.fullTransactionObjects = fullTransactionObjects;
+        this.includeReceipts = includeReceipts;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.checkpoint = checkpoint;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @param startBlock first block to replay, unless the checkpoint is further on
+     * @param endBlock last block to replay
+     * @return blocks of the range, in ascending order
+     */
+    Flowable<ReplayedBlock> flowable(BigInteger startBlock, BigInteger endBlock) {
+        BigInteger firstBlock = startBlock;
+        if (checkpoint != null && checkpoint.getNextBlock() != null) {
+            firstBlock = firstBlock.max(checkpoint.getNextBlock());
+        }
+
+        return batches(firstBlock, endBlock)
+                .concatMapEager(
+                        batchStart -> {
+                            BigInteger batchEnd = batchEnd(batchStart, endBlock);
+                            return Flowable.fromCallable(() -> fetch(batchStart, batchEnd))
+                                    .subscribeOn(scheduler);
+                        },
+                        parallelism,
+                        1)
+                .concatMap(this::emit);
+    }
+
+    private Flowable<BigInteger> batches(BigInteger firstBlock, BigInteger endBlock) {
+        return Flowable.generate(
+                () -> firstBlock,
+                (batchStart, emitter) -> {
+                    if (batchStart.compareTo(endBlock) > 0) {
+                        emitter.onComplete();
+                        return batchStart;
+                    }
+                    emitter.onNext(batchStart);
+                    return batchEnd(batchStart, endBlock).add(BigInteger.ONE);
+                });
+    }
+
+    private BigInteger batchEnd(BigInteger batchStart, BigInteger endBlock) {
+        return batchStart.add(BigInteger.valueOf(batchSize - 1)).min(endBlock);
+    }
+
+    private Flowable<ReplayedBlock> emit(List<ReplayedBlock> blocks) {
+        Flowable<ReplayedBlock> flowable = Flowable.fromIterable(blocks);
+        if (checkpoint == null) {
+            return flowable;
+        }
+        BigInteger nextBlock =
+                blocks.get(blocks.size() - 1).getBlock().getNumber().add(BigInteger.ONE);
+        return flowable.concatWith(
+                Completable.fromAction(() -> checkpoint.setNextBlock(nextBlock)));
+    }
+
+    private List<ReplayedBlock> fetch(BigInteger batchStart, BigInteger batchEnd)
+            throws IOException {
+        BatchRequest batchRequest = web3j.newBatch();
+        for (BigInteger number = batchStart;
+                number.compareTo(batchEnd) <= 0;
+                number = number.add(BigInteger.ONE)) {
+            DefaultBlockParameterNumber blockParameter = new DefaultBlockParameterNumber(number);
+            batchRequest.add(web3j.ethGetBlockByNumber(blockParameter, fullTransactionObjects));
+            if (includeReceipts) {
+                batchRequest.add(web3j.ethGetBlockReceipts(blockParameter));
+            }
+        }
+
+        BatchResponse batchResponse = batchRequest.send();
+        List<? extends Response<?>> responses = batchResponse.getResponses();
+        List<ReplayedBlock> blocks = new ArrayList<>();
+        int index = 0;
+        for (BigInteger number = batchStart;
+                number.compareTo(batchEnd) <= 0;
+                number = number.add(BigInteger.ONE)) {
+            EthBlock ethBlock = (EthBlock) checkResponse(responses.get(index++), number);
+            if (ethBlock.getBlock() == null) {
+                throw new IOException("Block " + number + " not found");
+            }
+            EthGetBlockReceipts receipts = null;
+            if (includeReceipts) {
+                receipts = (EthGetBlockReceipts) checkResponse(responses.get(index++), number);
+            }
+            blocks.add(
+                    new ReplayedBlock(
+                            ethBlock.getBlock(),
+                            receipts != null ? receipts.getBlockReceipts().orElse(null) : null));
+        }
+        return blocks;
+    }
+
+    private static Response<?> checkResponse(Response<?> response, BigInteger number)
+            throws IOException {
+        if (response == null) {
+            throw new IOException("No response for block " + number);
+        } else if (response.hasError()) {
+            throw new IOException(
+                    "Error fetching block " + number + ": " + response.getError().getMessage());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.rx;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.web3j.utils.Numeric;
+
+/**
+ * Position of a stream of blocks or logs, so that a stream can carry on where a previous one
+ * stopped.
+ *
+ * <p>The stream stores the number of the next block to fetch once everything from the blocks before
+ * it has been emitted. Blocks or logs may be emitted again after a restart, but never skipped.
+ */
+public interface BlockCheckpoint {
+
+    /** @return next block to fetch, or null to start from the stream's first block */
+    BigInteger getNextBlock();
+
+    /**
+     * Store the next block to fetch.
+     *
+     * @param nextBlock block after the last one which has been fully emitted
+     */
+    void setNextBlock(BigInteger nextBlock);
+
+    /** @return checkpoint which is lost when the process ends */
+    static BlockCheckpoint inMemory() {
+        return new BlockCheckpoint() {
+            private volatile BigInteger nextBlock;
+
+            @Override
+            public BigInteger getNextBlock() {
+                return nextBlock;
+            }
+
+            @Override
+            public void setNextBlock(BigInteger nextBlock) {
+                this.nextBlock = nextBlock;
+            }
+        };
+    }
+
+    /**
+     * Create a checkpoint kept in a file, which is replaced atomically on each update.
+     *
+     * @param file file to keep the checkpoint in
+     * @return checkpoint kept in the file
+     */
+    static BlockCheckpoint inFile(Path file) {
+        return new BlockCheckpoint() {
+            @Override
+            public BigInteger getNextBlock() {
+                try {
+                    if (!Files.exists(file)) {
+                        return null;
+                    }
+                    return Numeric.decodeQuantity(
+                            new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void setNextBlock(BigInteger nextBlock) {
+                try {
+                    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+                    Files.write(
+                            temporary,
+                            Numeric.encodeQuantity(nextBlock).getBytes(StandardCharsets.UTF_8));
+                    Files.move(
+                            temporary,
+                            file,
+                            StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.rx;
+
+import org.web3j.protocol.core.methods.response.EthBlock;
+
+/**
+ * A block joining or leaving the canonical chain. A removed block has been rolled back by a
+ * reorganisation, after having been emitted as added.
+ */
+public class BlockEvent {
+
+    private final EthBlock.Block block;
+    private final boolean removed;
+
+    public BlockEvent(EthBlock.Block block, boolean removed) {
+        this.block = block;
+        this.removed = removed;
+    }
+
+    public EthBlock.Block getBlock() {
+        return block;
+    }
+
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    @Override
+    public String toString() {
+        return "BlockEvent{"
+                + "block="
+                + block.getNumber()
+                + " "
+                + block.getHash()
+                + ", removed="
+                + removed
+                + '}';
+    }
+}
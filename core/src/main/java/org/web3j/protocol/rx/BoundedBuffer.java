@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.rx;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.Flowable;
+
+/**
+ * Bounded buffer for the items of a stream which its subscriber has not requested yet, used in
+ * place of an unbounded one so that a slow subscriber cannot exhaust the heap.
+ *
+ * <p>Once the buffer is full, the overflow strategy decides whether the oldest item ({@link
+ * BackpressureOverflowStrategy#DROP_OLDEST}) or the newest buffered item ({@link
+ * BackpressureOverflowStrategy#DROP_LATEST}) is dropped, or whether the stream fails ({@link
+ * BackpressureOverflowStrategy#ERROR}). Polling streams stop polling while the buffer is full.
+ *
+ * <p>A buffer keeps track of its occupancy, so it should be used for a single stream.
+ */
+public class BoundedBuffer {
+
+    private final int capacity;
+    private final BackpressureOverflowStrategy overflowStrategy;
+
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicLong maxSize = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    public BoundedBuffer(int capacity, BackpressureOverflowStrategy overflowStrategy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    /**
+     * Buffer the items of a flowable which does not support backpressure itself.
+     *
+     * @param flowable flowable to buffer
+     * @param <T> item type
+     * @return flowable which emits the buffered items as they are requested
+     */
+    public <T> Flowable<T> apply(Flowable<T> flowable) {
+        return flowable.doOnNext(item -> onBuffered())
+                .onBackpressureBuffer(capacity, this::onDropped, overflowStrategy)
+                .doOnNext(item -> size.decrementAndGet())
+                .doFinally(() -> size.set(0));
+    }
+
+    private void onBuffered() {
+        // an item arriving while the buffer is full is only counted until one is dropped
+        long current = Math.min(size.incrementAndGet(), capacity);
+        maxSize.accumulateAndGet(current, Math::max);
+    }
+
+    private void onDropped() {
+        size.decrementAndGet();
+        droppedCount.incrementAndGet();
+    }
+
+    /** @return whether no more items can be buffered without dropping one */
+    public boolean isFull() {
+        return size.get() >= capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** @return number of items currently buffered */
+    public long getSize() {
+        return size.get();
+    }
+
+    /** @return highest number of items buffered at any time */
+    public long getMaxSize() {
+        return maxSize.get();
+    }
+
+    /** @return number of items dropped because the buffer was full */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+}
@@ -14,8 +14,12 @@ package org.web3j.protocol.rx;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import io.reactivex.BackpressureStrategy;
@@ -23,6 +27,8 @@ import io.reactivex.Flowable;
 import io.reactivex.FlowableEmitter;
 import io.reactivex.Scheduler;
 import io.reactivex.schedulers.Schedulers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.DefaultBlockParameter;
@@ -30,9 +36,13 @@ import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.protocol.core.DefaultBlockParameterNumber;
 import org.web3j.protocol.core.Request;
 import org.web3j.protocol.core.filters.BlockFilter;
+import org.web3j.protocol.core.filters.FilterException;
+import org.web3j.protocol.core.filters.FilterMultiplexer;
 import org.web3j.protocol.core.filters.LogFilter;
 import org.web3j.protocol.core.filters.PendingTransactionFilter;
 import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthLog;
 import org.web3j.protocol.core.methods.response.Log;
 import org.web3j.protocol.core.methods.response.Transaction;
 import org.web3j.utils.Flowables;
@@ -40,14 +50,31 @@ import org.web3j.utils.Flowables;
 /** web3j reactive API implementation. */
 public class JsonRpc2_0Rx {
 
+    private static final Logger log = LoggerFactory.getLogger(JsonRpc2_0Rx.class);
+
     private final Web3j web3j;
     private final ScheduledExecutorService scheduledExecutorService;
     private final Scheduler scheduler;
+    private final FilterMultiplexer filterMultiplexer;
 
     public JsonRpc2_0Rx(Web3j web3j, ScheduledExecutorService scheduledExecutorService) {
+        this(web3j, scheduledExecutorService, false);
+    }
+
+    /**
+     * @param web3j web3j instance to send requests with
+     * @param scheduledExecutorService executor service to poll filters on
+     * @param multiplexFilters whether to poll all filters together in batch requests
+     */
+    public JsonRpc2_0Rx(
+            Web3j web3j,
+            ScheduledExecutorService scheduledExecutorService,
+            boolean multiplexFilters) {
         this.web3j = web3j;
         this.scheduledExecutorService = scheduledExecutorService;
         this.scheduler = Schedulers.from(scheduledExecutorService);
+        this.filterMultiplexer =
+                multiplexFilters ? new FilterMultiplexer(web3j, scheduledExecutorService) : null;
     }
 
     public Flowable<String> ethBlockHashFlowable(long pollingInterval) {
@@ -59,6 +86,25 @@ public class JsonRpc2_0Rx {
                 BackpressureStrategy.BUFFER);
     }
 
+    /**
+     * As per {@link #ethBlockHashFlowable(long)}, except that block hashes not yet requested are
+     * kept in a bounded buffer, and polling is paused while it is full.
+     *
+     * @param pollingInterval interval to poll for new blocks at, in milliseconds
+     * @param buffer buffer to keep block hashes in
+     * @return new block hashes
+     */
+    public Flowable<String> ethBlockHashFlowable(long pollingInterval, BoundedBuffer buffer) {
+        return buffer.apply(
+                Flowable.create(
+                        subscriber -> {
+                            BlockFilter blockFilter = new BlockFilter(web3j, subscriber::onNext);
+                            blockFilter.pollWhen(() -> !buffer.isFull());
+                            run(blockFilter, subscriber, pollingInterval);
+                        },
+                        BackpressureStrategy.MISSING));
+    }
+
     public Flowable<String> ethPendingTransactionHashFlowable(long pollingInterval) {
         return Flowable.create(
                 subscriber -> {
@@ -70,6 +116,27 @@ public class JsonRpc2_0Rx {
                 BackpressureStrategy.BUFFER);
     }
 
+    /**
+     * As per {@link #ethPendingTransactionHashFlowable(long)}, except that transaction hashes not
+     * yet requested are kept in a bounded buffer, and polling is paused while it is full.
+     *
+     * @param pollingInterval interval to poll for pending transactions at, in milliseconds
+     * @param buffer buffer to keep transaction hashes in
+     * @return pending transaction hashes
+     */
+    public Flowable<String> ethPendingTransactionHashFlowable(
+            long pollingInterval, BoundedBuffer buffer) {
+        return buffer.apply(
+                Flowable.create(
+                        subscriber -> {
+                            PendingTransactionFilter pendingTransactionFilter =
+                                    new PendingTransactionFilter(web3j, subscriber::onNext);
+                            pendingTransactionFilter.pollWhen(() -> !buffer.isFull());
+                            run(pendingTransactionFilter, subscriber, pollingInterval);
+                        },
+                        BackpressureStrategy.MISSING));
+    }
+
     public Flowable<Log> ethLogFlowable(
             org.web3j.protocol.core.methods.request.EthFilter ethFilter, long pollingInterval) {
         return Flowable.create(
@@ -81,12 +148,89 @@ public class JsonRpc2_0Rx {
                 BackpressureStrategy.BUFFER);
     }
 
+    /**
+     * As per {@link #ethLogFlowable(org.web3j.protocol.core.methods.request.EthFilter, long)},
+     * except that logs not yet requested are kept in a bounded buffer, and polling is paused while
+     * it is full.
+     *
+     * @param ethFilter filter to match logs with
+     * @param pollingInterval interval to poll for new logs at, in milliseconds
+     * @param buffer buffer to keep logs in
+     * @return logs matching the filter
+     */
+    public Flowable<Log> ethLogFlowable(
+            org.web3j.protocol.core.methods.request.EthFilter ethFilter,
+            long pollingInterval,
+            BoundedBuffer buffer) {
+        return buffer.apply(
+                Flowable.create(
+                        subscriber -> {
+                            LogFilter logFilter =
+                                    new LogFilter(web3j, subscriber::onNext, ethFilter);
+                            logFilter.pollWhen(() -> !buffer.isFull());
+                            run(logFilter, subscriber, pollingInterval);
+                        },
+                        BackpressureStrategy.MISSING));
+    }
+
+    /**
+     * Stream logs by querying block ranges with {@code eth_getLogs} each time the chain head moves,
+     * which is polled with {@code eth_blockNumber}.
+     *
+     * @param ethFilter filter to match logs with, which must not be for a single block hash
+     * @param checkpoint position to start from and store progress in
+     * @param pollingInterval interval to poll the chain head at, in milliseconds
+     * @return logs matching the filter, in block order
+     */
+    public Flowable<Log> ethLogRangeFlowable(
+            org.web3j.protocol.core.methods.request.EthFilter ethFilter,
+            BlockCheckpoint checkpoint,
+            long pollingInterval) {
+        Flowable<BigInteger> blockNumbers =
+                Flowable.interval(0, pollingInterval, TimeUnit.MILLISECONDS, scheduler)
+                        .concatMap(
+                                tick ->
+                                        web3j.ethBlockNumber()
+                                                .flowable()
+                                                .map(EthBlockNumber::getBlockNumber)
+                                                .onErrorResumeNext(
+                                                        (Throwable e) -> {
+                                                            log.warn(
+                                                                    "Error fetching block number",
+                                                                    e);
+                                                            return Flowable.empty();
+                                                        }))
+                        .distinctUntilChanged();
+        return ethLogRangeFlowable(ethFilter, checkpoint, blockNumbers);
+    }
+
+    /**
+     * Stream logs by querying block ranges with {@code eth_getLogs} each time a new chain head is
+     * emitted, for instance from a {@code newHeads} subscription.
+     *
+     * @param ethFilter filter to match logs with, which must not be for a single block hash
+     * @param checkpoint position to start from and store progress in
+     * @param blockNumbers chain head block numbers
+     * @return logs matching the filter, in block order
+     */
+    public Flowable<Log> ethLogRangeFlowable(
+            org.web3j.protocol.core.methods.request.EthFilter ethFilter,
+            BlockCheckpoint checkpoint,
+            Flowable<BigInteger> blockNumbers) {
+        return Flowable.defer(
+                () -> new LogRangeStream(web3j, ethFilter, checkpoint).flowable(blockNumbers));
+    }
+
     private <T> void run(
             org.web3j.protocol.core.filters.Filter<T> filter,
             FlowableEmitter<? super T> emitter,
             long pollingInterval) {
 
-        filter.run(scheduledExecutorService, pollingInterval);
+        if (filterMultiplexer != null) {
+            filter.run(filterMultiplexer, pollingInterval);
+        } else {
+            filter.run(scheduledExecutorService, pollingInterval);
+        }
         emitter.setCancellable(filter::cancel);
     }
 
@@ -103,6 +247,19 @@ public class JsonRpc2_0Rx {
                 .map(ethTransaction -> ethTransaction.getTransaction().get());
     }
 
+    /**
+     * As per {@link #pendingTransactionFlowable(long)}, except that the transactions are fetched in
+     * batches, skipping hashes which have been seen recently.
+     *
+     * @param pollingInterval interval to poll for pending transactions at, in milliseconds
+     * @param batchSize maximum number of transactions to fetch per batch request
+     * @return pending transactions
+     */
+    public Flowable<Transaction> pendingTransactionFlowable(long pollingInterval, int batchSize) {
+        return new PendingTransactionHydrator(web3j, batchSize, Schedulers.io())
+                .hydrate(ethPendingTransactionHashFlowable(pollingInterval));
+    }
+
     public Flowable<EthBlock> blockFlowable(boolean fullTransactionObjects, long pollingInterval) {
         return ethBlockHashFlowable(pollingInterval)
                 .flatMap(
@@ -111,6 +268,126 @@ public class JsonRpc2_0Rx {
                                         .flowable());
     }
 
+    /**
+     * Follow the canonical chain through new blocks, emitting the blocks rolled back by a
+     * reorganisation as removed.
+     *
+     * @param fullTransactionObjects if true, blocks contain full transaction objects
+     * @param confirmations number of blocks to wait for on top of a block before emitting it
+     * @param pollingInterval interval to poll for new blocks at, in milliseconds
+     * @return added and removed blocks, in chain order
+     */
+    public Flowable<BlockEvent> reorgAwareBlockFlowable(
+            boolean fullTransactionObjects, int confirmations, long pollingInterval) {
+        return reorgAwareBlockFlowable(
+                blockFlowable(fullTransactionObjects, pollingInterval),
+                fullTransactionObjects,
+                confirmations);
+    }
+
+    /**
+     * Follow the canonical chain through a stream of blocks, such as {@link
+     * #replayPastAndFutureBlocksFlowable(DefaultBlockParameter, boolean, long)}, emitting the
+     * blocks rolled back by a reorganisation as removed.
+     *
+     * @param blocks blocks as they are seen
+     * @param fullTransactionObjects if true, ancestors fetched to connect a block to the chain
+     *     contain full transaction objects
+     * @param confirmations number of blocks to wait for on top of a block before emitting it
+     * @return added and removed blocks, in chain order
+     */
+    public Flowable<BlockEvent> reorgAwareBlockFlowable(
+            Flowable<EthBlock> blocks, boolean fullTransactionObjects, int confirmations) {
+        return Flowable.defer(
+                () -> {
+                    ReorgTracker tracker =
+                            new ReorgTracker(web3j, fullTransactionObjects, confirmations);
+                    return blocks.map(EthBlock::getBlock).concatMapIterable(tracker::onBlock);
+                });
+    }
+
+    /**
+     * Stream the logs of the canonical chain, emitting the logs of blocks rolled back by a
+     * reorganisation again with {@link Log#isRemoved()} set.
+     *
+     * @param ethFilter filter to match logs with, whose block range is ignored
+     * @param confirmations number of blocks to wait for on top of a block before emitting its logs
+     * @param pollingInterval interval to poll for new blocks at, in milliseconds
+     * @return logs of added blocks, and removed logs of rolled back blocks
+     */
+    public Flowable<Log> reorgAwareLogFlowable(
+            org.web3j.protocol.core.methods.request.EthFilter ethFilter,
+            int confirmations,
+            long pollingInterval) {
+        Flowable<BlockEvent> blockEvents =
+                reorgAwareBlockFlowable(false, confirmations, pollingInterval);
+        return Flowable.defer(
+                () -> {
+                    // logs emitted for recent blocks, to remove them on a reorganisation
+                    int capacity = ReorgTracker.capacity(confirmations);
+                    Map<String, List<Log>> emittedLogs =
+                            new LinkedHashMap<String, List<Log>>() {
+                                @Override
+                                protected boolean removeEldestEntry(
+                                        Map.Entry<String, List<Log>> eldest) {
+                                    return size() > capacity;
+                                }
+                            };
+
+                    return blockEvents.concatMapIterable(
+                            blockEvent -> {
+                                String blockHash = blockEvent.getBlock().getHash();
+                                if (blockEvent.isRemoved()) {
+                                    return removedLogs(emittedLogs.remove(blockHash));
+                                }
+                                List<Log> logs = getLogs(ethFilter, blockHash);
+                                emittedLogs.put(blockHash, logs);
+                                return logs;
+                            });
+                });
+    }
+
+    private List<Log> getLogs(
+            org.web3j.protocol.core.methods.request.EthFilter ethFilter, String blockHash)
+            throws IOException {
+        org.web3j.protocol.core.methods.request.EthFilter blockFilter =
+                org.web3j.protocol.core.methods.request.EthFilter.createBlockHashFilter(
+                        blockHash, ethFilter.getAddress());
+        blockFilter.getTopics().addAll(ethFilter.getTopics());
+
+        EthLog ethLog = web3j.ethGetLogs(blockFilter).send();
+        if (ethLog.hasError()) {
+            throw new FilterException("Invalid request: " + ethLog.getError().getMessage());
+        }
+        return ethLog.getLogs().stream()
+                .map(logResult -> (Log) logResult.get())
+                .collect(Collectors.toList());
+    }
+
+    private static List<Log> removedLogs(List<Log> logs) {
+        List<Log> removedLogs = new ArrayList<>();
+        if (logs == null) {
+            return removedLogs;
+        }
+        // undo the logs of the block in reverse order
+        for (int i = logs.size() - 1; i >= 0; i--) {
+            Log emittedLog = logs.get(i);
+            removedLogs.add(
+                    new Log(
+                            true,
+                            emittedLog.getLogIndexRaw(),
+                            emittedLog.getTransactionIndexRaw(),
+                            emittedLog.getTransactionHash(),
+                            emittedLog.getBlockHash(),
+                            emittedLog.getBlockNumberRaw(),
+                            emittedLog.getAddress(),
+                            emittedLog.getData(),
+                            emittedLog.getType(),
+                            emittedLog.getTopics()));
+        }
+        return removedLogs;
+    }
+
     public Flowable<EthBlock> replayBlocksFlowable(
             DefaultBlockParameter startBlock,
             DefaultBlockParameter endBlock,
@@ -129,6 +406,41 @@ public class JsonRpc2_0Rx {
                 .subscribeOn(scheduler);
     }
 
+    /**
+     * Replay a range of blocks with batch requests, fetching several batches at a time.
+     *
+     * @param startBlock first block to replay, unless the checkpoint is further on
+     * @param endBlock last block to replay
+     * @param fullTransactionObjects if true, blocks contain full transaction objects
+     * @param includeReceipts if true, the receipts of each block are fetched with {@code
+     *     eth_getBlockReceipts}
+     * @param batchSize number of blocks per batch request
+     * @param parallelism maximum number of batch requests in flight
+     * @param checkpoint position to resume from and store progress in, or null
+     * @return blocks of the range, in ascending order
+     */
+    public Flowable<ReplayedBlock> replayBlocksFlowable(
+            DefaultBlockParameter startBlock,
+            DefaultBlockParameter endBlock,
+            boolean fullTransactionObjects,
+            boolean includeReceipts,
+            int batchSize,
+            int parallelism,
+            BlockCheckpoint checkpoint) {
+        BlockBatchReplay replay =
+                new BlockBatchReplay(
+                        web3j,
+                        fullTransactionObjects,
+                        includeReceipts,
+                        batchSize,
+                        parallelism,
+                        checkpoint,
+                        Schedulers.io());
+        return Flowable.defer(
+                        () -> replay.flowable(getBlockNumber(startBlock), getBlockNumber(endBlock)))
+                .subscribeOn(scheduler);
+    }
+
     private Flowable<EthBlock> replayBlocksFlowableSync(
             DefaultBlockParameter startBlock,
             DefaultBlockParameter endBlock,
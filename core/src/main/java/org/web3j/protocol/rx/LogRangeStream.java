@@ -0,0 +1,175 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.rx;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import io.reactivex.Emitter;
+import io.reactivex.Flowable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.filters.FilterException;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+
+/**
+ * Streams the logs matching a filter by querying consecutive block ranges with {@code eth_getLogs},
+ * so no filter has to be kept on the node.
+ *
+ * <p>Whenever the chain head moves, the blocks up to the new head are fetched in chunks. A chunk
+ * which the node rejects, typically because it would return too many logs, is halved and retried; a
+ * chunk returning few logs doubles the size of the next one. Once all logs of a chunk have been
+ * emitted, the next block to fetch is stored in the checkpoint.
+ */
+class LogRangeStream {
+
+    private static final Logger log = LoggerFactory.getLogger(LogRangeStream.class);
+
+    static final int INITIAL_CHUNK_SIZE = 100;
+    static final int MAX_CHUNK_SIZE = 10_000;
+    // Number of logs per request the chunk size is adjusted towards
+    static final int TARGET_RESULTS = 1_000;
+
+    private final Web3j web3j;
+    private final EthFilter ethFilter;
+    private final BlockCheckpoint checkpoint;
+    private final BigInteger endBlock;
+
+    private BigInteger nextBlock;
+    private int chunkSize = INITIAL_CHUNK_SIZE;
+    // Logs of the current chunk not yet emitted, and the block following the chunk
+    private final Deque<Log> pending = new ArrayDeque<>();
+    private BigInteger pendingNextBlock;
+
+    LogRangeStream(Web3j web3j, EthFilter ethFilter, BlockCheckpoint checkpoint) {
+        if (ethFilter.getBlockHash() != null) {
+            throw new IllegalArgumentException("Block hash filters cannot be streamed");
+        }
+        this.web3j = web3j;
+        this.ethFilter = ethFilter;
+        this.checkpoint = checkpoint;
+        this.endBlock =
+                ethFilter.getToBlock() instanceof DefaultBlockParameterNumber
+                        ? ((DefaultBlockParameterNumber) ethFilter.getToBlock()).getBlockNumber()
+                        : null;
+    }
+
+    /**
+     * @param blockNumbers chain head block numbers, as they are observed
+     * @return logs of each block up to the head, in order
+     */
+    Flowable<Log> flowable(Flowable<BigInteger> blockNumbers) {
+        return blockNumbers
+                .onBackpressureLatest()
+                .takeWhile(head -> !isComplete())
+                .concatMap(
+                        head ->
+                                Flowable.<Log>generate(emitter -> next(head, emitter))
+                                        .onErrorResumeNext(
+                                                (Throwable e) -> {
+                                                    if (e instanceof IOException) {
+                                                        // retried once the head moves again
+                                                        log.warn("Error fetching logs", e);
+                                                        return Flowable.empty();
+                                                    }
+                                                    return Flowable.error(e);
+                                                }));
+    }
+
+    private boolean isComplete() {
+        return endBlock != null && nextBlock != null && nextBlock.compareTo(endBlock) > 0;
+    }
+
+    private void next(BigInteger head, Emitter<Log> emitter) throws IOException {
+        BigInteger lastBlock = endBlock != null ? head.min(endBlock) : head;
+        if (nextBlock == null) {
+            nextBlock = startBlock(head);
+        }
+
+        while (pending.isEmpty()) {
+            if (pendingNextBlock != null) {
+                // all logs of the chunk have been emitted
+                nextBlock = pendingNextBlock;
+                pendingNextBlock = null;
+                checkpoint.setNextBlock(nextBlock);
+            }
+            if (nextBlock.compareTo(lastBlock) > 0) {
+                emitter.onComplete();
+                return;
+            }
+            fetchChunk(lastBlock);
+        }
+        emitter.onNext(pending.poll());
+    }
+
+    private BigInteger startBlock(BigInteger head) {
+        BigInteger storedBlock = checkpoint.getNextBlock();
+        if (storedBlock != null) {
+            return storedBlock;
+        }
+
+        DefaultBlockParameter fromBlock = ethFilter.getFromBlock();
+        if (fromBlock instanceof DefaultBlockParameterNumber) {
+            return ((DefaultBlockParameterNumber) fromBlock).getBlockNumber();
+        } else if (fromBlock == DefaultBlockParameterName.EARLIEST) {
+            return BigInteger.ZERO;
+        }
+        return head;
+    }
+
+    private void fetchChunk(BigInteger lastBlock) throws IOException {
+        BigInteger chunkEnd = nextBlock.add(BigInteger.valueOf(chunkSize - 1));
+        BigInteger toBlock = chunkEnd.min(lastBlock);
+
+        EthLog ethLog = web3j.ethGetLogs(rangeFilter(nextBlock, toBlock)).send();
+        if (ethLog.hasError()) {
+            if (toBlock.equals(nextBlock)) {
+                throw new FilterException("Invalid request: " + ethLog.getError().getMessage());
+            }
+            chunkSize = Math.max(1, chunkSize / 2);
+            log.debug("Fetching logs failed, reducing chunk size to {}", chunkSize);
+            return;
+        }
+
+        int results = ethLog.getLogs().size();
+        for (EthLog.LogResult<?> logResult : ethLog.getLogs()) {
+            pending.add((Log) logResult.get());
+        }
+        pendingNextBlock = toBlock.add(BigInteger.ONE);
+
+        if (results > TARGET_RESULTS) {
+            chunkSize = Math.max(1, chunkSize / 2);
+        } else if (results < TARGET_RESULTS / 2 && toBlock.equals(chunkEnd)) {
+            chunkSize = Math.min(MAX_CHUNK_SIZE, chunkSize * 2);
+        }
+    }
+
+    private EthFilter rangeFilter(BigInteger fromBlock, BigInteger toBlock) {
+        EthFilter rangeFilter =
+                new EthFilter(
+                        new DefaultBlockParameterNumber(fromBlock),
+                        new DefaultBlockParameterNumber(toBlock),
+                        ethFilter.getAddress());
+        rangeFilter.getTopics().addAll(ethFilter.getTopics());
+        return rangeFilter;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.rx;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthTransaction;
+import org.web3j.protocol.core.methods.response.Transaction;
+
+/**
+ * Fetches the transactions for a stream of pending transaction hashes in batches.
+ *
+ * <p>Hashes are collected for a short window, or until a batch is full, and fetched with one batch
+ * of {@code eth_getTransactionByHash} requests. Hashes seen recently are skipped, as are
+ * transactions which are unknown to the node or already mined by the time they are fetched.
+ *
+ * <p>At most {@link #MAX_CONCURRENT_BATCHES} batches are fetched at once. If hashes arrive faster
+ * than they can be fetched, up to {@link #MAX_QUEUED_BATCHES} batches wait to be fetched, and the
+ * oldest of them are dropped beyond that.
+ */
+class PendingTransactionHydrator {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingTransactionHydrator.class);
+
+    static final long BATCH_WINDOW_MILLIS = 100;
+    static final int MAX_CONCURRENT_BATCHES = 4;
+    static final int MAX_QUEUED_BATCHES = 64;
+    // number of recent hashes remembered to skip duplicates
+    static final int SEEN_CAPACITY = 10_000;
+
+    private final Web3j web3j;
+    private final int batchSize;
+    private final Scheduler scheduler;
+
+    PendingTransactionHydrator(Web3j web3j, int batchSize, Scheduler scheduler) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.web3j = web3j;
+        this.batchSize = batchSize;
+        this.scheduler = scheduler;
+    }
+
+    Flowable<Transaction> hydrate(Flowable<String> transactionHashes) {
+        return Flowable.defer(
+                () -> {
+                    Set<String> seen = recentlySeen();
+                    return transactionHashes
+                            .filter(seen::add)
+                            .buffer(
+                                    BATCH_WINDOW_MILLIS,
+                                    TimeUnit.MILLISECONDS,
+                                    scheduler,
+                                    batchSize)
+                            .filter(batch -> !batch.isEmpty())
+                            // the timed buffer cannot wait for batches to be requested
+                            .onBackpressureBuffer(
+                                    MAX_QUEUED_BATCHES,
+                                    () ->
+                                            log.warn(
+                                                    "Dropped pending transactions, fetching is too slow"),
+                                    BackpressureOverflowStrategy.DROP_OLDEST)
+                            .flatMap(
+                                    batch ->
+                                            Flowable.fromCallable(() -> fetch(batch))
+                                                    .subscribeOn(scheduler),
+                                    MAX_CONCURRENT_BATCHES)
+                            .flatMapIterable(transactions -> transactions);
+                });
+    }
+
+    private List<Transaction> fetch(List<String> transactionHashes) {
+        BatchRequest batchRequest = web3j.newBatch();
+        for (String transactionHash : transactionHashes) {
+            batchRequest.add(web3j.ethGetTransactionByHash(transactionHash));
+        }
+
+        List<Transaction> transactions = new ArrayList<>();
+        BatchResponse batchResponse;
+        try {
+            batchResponse = batchRequest.send();
+        } catch (IOException e) {
+            // pending transactions are best effort, so keep the stream going
+            log.warn("Error fetching pending transactions", e);
+            return transactions;
+        }
+
+        for (Response<?> response : batchResponse.getResponses()) {
+            if (response != null && !response.hasError()) {
+                ((EthTransaction) response)
+                        .getTransaction()
+                        .filter(transaction -> transaction.getBlockNumberRaw() == null)
+                        .ifPresent(transactions::add);
+            }
+        }
+        return transactions;
+    }
+
+    private static Set<String> recentlySeen() {
+        return Collections.synchronizedSet(
+                Collections.newSetFromMap(
+                        new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+                            @Override
+                            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                                return size() > SEEN_CAPACITY;
+                            }
+                        }));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.rx;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthBlock;
+
+/**
+ * Follows the canonical chain through the blocks seen by a stream, keeping the most recent ones to
+ * detect reorganisations.
+ *
+ * <p>A block whose parent is not the current head is connected to a known block by fetching its
+ * ancestors by hash; the known blocks above the common ancestor have been rolled back. Blocks are
+ * only emitted once they are the given number of confirmations deep.
+ */
+class ReorgTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(ReorgTracker.class);
+
+    static final int DEFAULT_DEPTH = 64;
+
+    private final Web3j web3j;
+    private final boolean fullTransactionObjects;
+    private final int confirmations;
+    private final int capacity;
+
+    // most recent blocks of the canonical chain, oldest first
+    private final Deque<EthBlock.Block> blocks = new ArrayDeque<>();
+    // highest block emitted as added
+    private BigInteger emittedNumber;
+
+    ReorgTracker(Web3j web3j, boolean fullTransactionObjects, int confirmations) {
+        if (confirmations < 0) {
+            throw new IllegalArgumentException("Confirmations cannot be negative");
+        }
+        this.web3j = web3j;
+        this.fullTransactionObjects = fullTransactionObjects;
+        this.confirmations = confirmations;
+        this.capacity = capacity(confirmations);
+    }
+
+    /** @return number of recent blocks kept to detect reorganisations */
+    static int capacity(int confirmations) {
+        return Math.max(DEFAULT_DEPTH, confirmations + 1);
+    }
+
+    List<BlockEvent> onBlock(EthBlock.Block block) throws IOException {
+        List<BlockEvent> events = new ArrayList<>();
+        if (contains(block.getHash())) {
+            return events;
+        }
+
+        Deque<EthBlock.Block> branch = new ArrayDeque<>();
+        branch.add(block);
+        while (!blocks.isEmpty()) {
+            EthBlock.Block first = branch.getFirst();
+            while (!blocks.isEmpty()
+                    && blocks.getLast().getNumber().compareTo(first.getNumber()) >= 0) {
+                remove(blocks.removeLast(), events);
+            }
+            if (blocks.isEmpty()) {
+                log.warn("Reorganisation deeper than {} blocks", capacity);
+            } else if (!blocks.getLast().getHash().equals(first.getParentHash())) {
+                branch.addFirst(getBlock(first.getParentHash()));
+            } else {
+                break;
+            }
+        }
+
+        blocks.addAll(branch);
+        while (blocks.size() > capacity) {
+            blocks.removeFirst();
+        }
+
+        BigInteger confirmedNumber =
+                blocks.getLast().getNumber().subtract(BigInteger.valueOf(confirmations));
+        for (EthBlock.Block candidate : blocks) {
+            BigInteger number = candidate.getNumber();
+            if (number.compareTo(confirmedNumber) <= 0
+                    && (emittedNumber == null || number.compareTo(emittedNumber) > 0)) {
+                events.add(new BlockEvent(candidate, false));
+                emittedNumber = number;
+            }
+        }
+        return events;
+    }
+
+    private void remove(EthBlock.Block block, List<BlockEvent> events) {
+        if (emittedNumber != null && block.getNumber().compareTo(emittedNumber) <= 0) {
+            events.add(new BlockEvent(block, true));
+            emittedNumber = block.getNumber().subtract(BigInteger.ONE);
+        }
+    }
+
+    private boolean contains(String blockHash) {
+        for (EthBlock.Block block : blocks) {
+            if (block.getHash().equals(blockHash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private EthBlock.Block getBlock(String blockHash) throws IOException {
+        EthBlock ethBlock = web3j.ethGetBlockByHash(blockHash, fullTransactionObjects).send();
+        if (ethBlock.hasError() || ethBlock.getBlock() == null) {
+            throw new IOException("Unable to fetch block " + blockHash);
+        }
+        return ethBlock.getBlock();
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.rx;
+
+import java.util.List;
+
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/** A block fetched during a replay, with the receipts of its transactions if requested. */
+public class ReplayedBlock {
+
+    private final EthBlock.Block block;
+    private final List<TransactionReceipt> receipts;
+
+    public ReplayedBlock(EthBlock.Block block, List<TransactionReceipt> receipts) {
+        this.block = block;
+        this.receipts = receipts;
+    }
+
+    public EthBlock.Block getBlock() {
+        return block;
+    }
+
+    /** @return receipts of the block's transactions, or null if receipts were not fetched */
+    public List<TransactionReceipt> getReceipts() {
+        return receipts;
+    }
+}
@@ -21,6 +21,7 @@ import org.web3j.protocol.core.methods.request.EthFilter;
 import org.web3j.protocol.core.methods.response.EthBlock;
 import org.web3j.protocol.core.methods.response.Log;
 import org.web3j.protocol.core.methods.response.Transaction;
+import org.web3j.protocol.websocket.events.FullPendingTransactionNotification;
 import org.web3j.protocol.websocket.events.LogNotification;
 import org.web3j.protocol.websocket.events.NewHeadsNotification;
 
@@ -35,6 +36,27 @@ public interface Web3jRx {
      */
     Flowable<Log> ethLogFlowable(EthFilter ethFilter);
 
+    /**
+     * Create an flowable to filter for specific log events on the blockchain, which keeps the
+     * events not yet requested in a bounded buffer and stops polling while the buffer is full.
+     *
+     * @param ethFilter filter criteria
+     * @param buffer buffer for events not yet requested
+     * @return a {@link Flowable} instance that emits Log events matching the filter
+     */
+    Flowable<Log> ethLogFlowable(EthFilter ethFilter, BoundedBuffer buffer);
+
+    /**
+     * Create a flowable to stream log events by querying block ranges with {@code eth_getLogs},
+     * rather than installing a filter on the node.
+     *
+     * @param ethFilter filter criteria, which must not be for a single block hash
+     * @param checkpoint position to start from, updated as logs are emitted
+     * @return a {@link Flowable} instance that emits all Log events matching the filter, in block
+     *     order
+     */
+    Flowable<Log> ethLogRangeFlowable(EthFilter ethFilter, BlockCheckpoint checkpoint);
+
     /**
      * Create an Flowable to emit block hashes.
      *
@@ -43,6 +65,15 @@ public interface Web3jRx {
      */
     Flowable<String> ethBlockHashFlowable();
 
+    /**
+     * Create an Flowable to emit block hashes, which keeps the hashes not yet requested in a
+     * bounded buffer and stops polling while the buffer is full.
+     *
+     * @param buffer buffer for block hashes not yet requested
+     * @return a {@link Flowable} instance that emits new block hashes
+     */
+    Flowable<String> ethBlockHashFlowable(BoundedBuffer buffer);
+
     /**
      * Create an Flowable to emit pending transactions, i.e. those transactions that have been
      * submitted by a node, but don't yet form part of a block (haven't been mined yet).
@@ -51,6 +82,15 @@ public interface Web3jRx {
      */
     Flowable<String> ethPendingTransactionHashFlowable();
 
+    /**
+     * Create an Flowable to emit pending transactions hashes, which keeps the hashes not yet
+     * requested in a bounded buffer and stops polling while the buffer is full.
+     *
+     * @param buffer buffer for transaction hashes not yet requested
+     * @return a {@link Flowable} instance to emit pending transaction hashes.
+     */
+    Flowable<String> ethPendingTransactionHashFlowable(BoundedBuffer buffer);
+
     /**
      * Create an {@link Flowable} instance to emit all new transactions as they are confirmed on the
      * blockchain. i.e. they have been mined and are incorporated into a block.
@@ -67,6 +107,15 @@ public interface Web3jRx {
      */
     Flowable<Transaction> pendingTransactionFlowable();
 
+    /**
+     * Create an {@link Flowable} instance to emit all pending transactions, fetching them in batch
+     * requests and skipping transaction hashes which have been seen recently.
+     *
+     * @param batchSize maximum number of transactions to fetch per batch request
+     * @return a {@link Flowable} instance to emit pending transactions
+     */
+    Flowable<Transaction> pendingTransactionFlowable(int batchSize);
+
     /**
      * Create an {@link Flowable} instance that emits newly created blocks on the blockchain.
      *
@@ -77,6 +126,30 @@ public interface Web3jRx {
      */
     Flowable<EthBlock> blockFlowable(boolean fullTransactionObjects);
 
+    /**
+     * Create a {@link Flowable} instance that follows the canonical chain through newly created
+     * blocks. Blocks rolled back by a reorganisation after being emitted are emitted again as
+     * removed.
+     *
+     * @param fullTransactionObjects if true, provides transactions embedded in blocks, otherwise
+     *     transaction hashes
+     * @param confirmations number of blocks which must be built on top of a block before it is
+     *     emitted, 0 to emit blocks as soon as they are seen
+     * @return a {@link Flowable} instance that emits added and removed blocks in chain order
+     */
+    Flowable<BlockEvent> reorgAwareBlockFlowable(boolean fullTransactionObjects, int confirmations);
+
+    /**
+     * Create a flowable to filter for log events in the blocks of the canonical chain. The logs of
+     * blocks rolled back by a reorganisation are emitted again, with {@link Log#isRemoved()} set.
+     *
+     * @param ethFilter filter criteria, whose block range is ignored
+     * @param confirmations number of blocks which must be built on top of a block before its logs
+     *     are emitted, 0 to emit logs as soon as their block is seen
+     * @return a {@link Flowable} instance that emits the Log events matching the filter
+     */
+    Flowable<Log> reorgAwareLogFlowable(EthFilter ethFilter, int confirmations);
+
     /**
      * Create an {@link Flowable} instance that emits all blocks from the blockchain contained
      * within the requested range.
@@ -110,6 +183,30 @@ public interface Web3jRx {
             boolean fullTransactionObjects,
             boolean ascending);
 
+    /**
+     * Create a {@link Flowable} instance that emits all blocks from a range, fetching them with
+     * batch requests of which several are sent at a time. Blocks are emitted in ascending order.
+     *
+     * @param startBlock the block number to commence with, unless the checkpoint is further on
+     * @param endBlock the block number to finish with
+     * @param fullTransactionObjects if we require full {@link Transaction} objects to be provided
+     *     in the {@link EthBlock} responses
+     * @param includeReceipts if the receipts of each block should be fetched with {@code
+     *     eth_getBlockReceipts}
+     * @param batchSize number of blocks to fetch per batch request
+     * @param parallelism maximum number of batch requests in flight
+     * @param checkpoint position to resume from, updated as blocks are emitted, or null
+     * @return a {@link Flowable} instance to emit these blocks
+     */
+    Flowable<ReplayedBlock> replayBlocksFlowable(
+            DefaultBlockParameter startBlock,
+            DefaultBlockParameter endBlock,
+            boolean fullTransactionObjects,
+            boolean includeReceipts,
+            int batchSize,
+            int parallelism,
+            BlockCheckpoint checkpoint);
+
     /**
      * Create a {@link Flowable} instance that emits all transactions from the blockchain starting
      * with a provided block number. Once it has replayed up to the most current block, the provided
@@ -194,6 +291,15 @@ public interface Web3jRx {
      */
     Flowable<NewHeadsNotification> newHeadsNotifications();
 
+    /**
+     * Creates a {@link Flowable} instance that emits the full transaction of every transaction
+     * added to the pending state, for nodes which support the {@code newPendingTransactions}
+     * subscription with full transaction objects.
+     *
+     * @return a {@link Flowable} instance that emits a notification for every pending transaction
+     */
+    Flowable<FullPendingTransactionNotification> fullPendingTransactionsNotifications();
+
     /**
      * Creates aa {@link Flowable} instance that emits notifications for logs included in new
      * imported blocks.
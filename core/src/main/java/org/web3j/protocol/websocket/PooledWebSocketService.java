@@ -0,0 +1,228 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.websocket;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Flowable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+
+/**
+ * Web3jService which keeps a pool of WebSocket connections to the same node, so that a large reply
+ * on one connection does not hold up the replies on the others.
+ *
+ * <p>Each request is sent over the open connection with the fewest requests waiting for a reply.
+ * Each subscription is pinned to the open connection with the fewest subscriptions, and its events
+ * and unsubscribe request use that connection only. Connections which are closed are skipped until
+ * they are open again.
+ */
+public class PooledWebSocketService implements Web3jService {
+
+    private static final Logger log = LoggerFactory.getLogger(PooledWebSocketService.class);
+
+    private final List<Connection> connections;
+    private final AtomicInteger nextConnection = new AtomicInteger();
+
+    /**
+     * Create a pool of connections to a WebSocket server.
+     *
+     * @param serverUrl URL of the WebSocket server
+     * @param poolSize number of connections
+     * @param includeRawResponses whether to include raw responses
+     */
+    public PooledWebSocketService(String serverUrl, int poolSize, boolean includeRawResponses) {
+        this(createServices(serverUrl, poolSize, includeRawResponses));
+    }
+
+    /**
+     * Create a pool of the given, not yet connected, services.
+     *
+     * @param webSocketServices services each using their own connection to the same node
+     */
+    public PooledWebSocketService(List<WebSocketService> webSocketServices) {
+        if (webSocketServices.isEmpty()) {
+            throw new IllegalArgumentException("Connection pool must not be empty");
+        }
+        this.connections = new ArrayList<>(webSocketServices.size());
+        for (WebSocketService webSocketService : webSocketServices) {
+            connections.add(new Connection(webSocketService));
+        }
+    }
+
+    private static List<WebSocketService> createServices(
+            String serverUrl, int poolSize, boolean includeRawResponses) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+        // request timeouts and reconnections of every connection share one thread
+        ScheduledExecutorService executor = WebSocketService.createExecutor();
+        List<WebSocketService> webSocketServices = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            webSocketServices.add(
+                    new WebSocketService(
+                            new WebSocketClient(WebSocketService.parseURI(serverUrl)),
+                            executor,
+                            includeRawResponses));
+        }
+        return webSocketServices;
+    }
+
+    /**
+     * Open every connection of the pool. Connections which fail to open are skipped until they are
+     * open.
+     *
+     * @throws ConnectException thrown if none of the connections could be opened
+     */
+    public void connect() throws ConnectException {
+        ConnectException failure = null;
+        int connected = 0;
+        for (Connection connection : connections) {
+            try {
+                connection.webSocketService.connect();
+                connected++;
+            } catch (ConnectException e) {
+                log.warn("Failed to open pooled WebSocket connection", e);
+                failure = e;
+            }
+        }
+        if (connected == 0 && failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Reconnect each connection automatically whenever it is lost.
+     *
+     * @see WebSocketService#enableAutoReconnect(long, long, TimeUnit)
+     */
+    public void enableAutoReconnect(long initialBackoff, long maxBackoff, TimeUnit unit) {
+        for (Connection connection : connections) {
+            connection.webSocketService.enableAutoReconnect(initialBackoff, maxBackoff, unit);
+        }
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        return selectForRequest().send(request, responseType);
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(
+            Request request, Class<T> responseType) {
+        return selectForRequest().sendAsync(request, responseType);
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        return selectForRequest().sendBatch(batchRequest);
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        return selectForRequest().sendBatchAsync(batchRequest);
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(
+            Request request, String unsubscribeMethod, Class<T> responseType) {
+        Connection connection = select(true);
+        connection.subscriptions.incrementAndGet();
+        AtomicBoolean released = new AtomicBoolean();
+        return connection
+                .webSocketService
+                .subscribe(request, unsubscribeMethod, responseType)
+                .doFinally(
+                        () -> {
+                            if (released.compareAndSet(false, true)) {
+                                connection.subscriptions.decrementAndGet();
+                            }
+                        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Connection connection : connections) {
+            connection.webSocketService.close();
+        }
+    }
+
+    /** @return number of connections which are open */
+    public int getOpenConnectionCount() {
+        int open = 0;
+        for (Connection connection : connections) {
+            if (connection.webSocketService.isConnected()) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    private WebSocketService selectForRequest() {
+        return select(false).webSocketService;
+    }
+
+    private Connection select(boolean forSubscription) {
+        List<Connection> candidates = new ArrayList<>(connections.size());
+        for (Connection connection : connections) {
+            if (connection.webSocketService.isConnected()) {
+                candidates.add(connection);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // let the request fail on a closed connection rather than here
+            candidates = connections;
+        }
+
+        // start from a rotating position so that ties are spread across connections
+        int offset = Math.floorMod(nextConnection.getAndIncrement(), candidates.size());
+        Connection selected = candidates.get(offset);
+        for (int i = 1; i < candidates.size(); i++) {
+            Connection candidate = candidates.get((offset + i) % candidates.size());
+            if (candidate.load(forSubscription) < selected.load(forSubscription)) {
+                selected = candidate;
+            }
+        }
+        return selected;
+    }
+
+    private static class Connection {
+        private final WebSocketService webSocketService;
+        private final AtomicInteger subscriptions = new AtomicInteger();
+
+        Connection(WebSocketService webSocketService) {
+            this.webSocketService = webSocketService;
+        }
+
+        int load(boolean forSubscription) {
+            return forSubscription
+                    ? subscriptions.get()
+                    : webSocketService.getPendingRequestCount();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.websocket;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.reactivex.subjects.BehaviorSubject;
+
+import org.web3j.protocol.websocket.events.Log;
+import org.web3j.protocol.websocket.events.LogNotification;
+import org.web3j.utils.Numeric;
+
+/**
+ * Subscription which can be re-established after the WebSocket connection has been lost.
+ *
+ * <p>Keeps the original subscribe request, so it can be sent again. For logs subscriptions it also
+ * keeps the position of the last delivered log. Once the subscription is re-established, the logs
+ * missed in the meantime are delivered first, then the events received while they were being
+ * fetched, skipping any log which has already been delivered.
+ *
+ * @param <T> type of a data item that should be returned by a WebSocket subscription.
+ */
+class ResumableSubscription<T> extends WebSocketSubscription<T> {
+
+    private final String method;
+    private final List<?> params;
+    private final boolean isLogs;
+
+    // Highest block number of the delivered logs, and the logs delivered for that block
+    private BigInteger lastBlock;
+    private final Set<String> lastBlockLogs = new HashSet<>();
+    // Events received while missed logs are being fetched
+    private List<T> buffered;
+
+    ResumableSubscription(
+            BehaviorSubject<T> subject, Class<T> responseType, String method, List<?> params) {
+        super(subject, responseType);
+        this.method = method;
+        this.params = params;
+        this.isLogs =
+                LogNotification.class.isAssignableFrom(responseType)
+                        && !params.isEmpty()
+                        && "logs".equals(params.get(0));
+    }
+
+    String getMethod() {
+        return method;
+    }
+
+    List<?> getParams() {
+        return params;
+    }
+
+    /** @return block to fetch missed logs from, or null if there is nothing to fetch */
+    synchronized BigInteger getLastBlock() {
+        return isLogs ? lastBlock : null;
+    }
+
+    synchronized void onEvent(T event) {
+        if (buffered != null) {
+            buffered.add(event);
+        } else {
+            record(event);
+            getSubject().onNext(event);
+        }
+    }
+
+    /** Starts buffering events until the missed logs have been delivered. */
+    synchronized void suspend() {
+        if (getLastBlock() != null && buffered == null) {
+            buffered = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Delivers the logs missed while the subscription was suspended, followed by the buffered
+     * events.
+     *
+     * @param missed logs from the last delivered block onwards
+     */
+    synchronized void resume(List<T> missed) {
+        List<T> events = buffered;
+        buffered = null;
+        if (events == null) {
+            return;
+        }
+
+        for (T event : missed) {
+            deliverIfNew(event);
+        }
+        for (T event : events) {
+            deliverIfNew(event);
+        }
+    }
+
+    private void deliverIfNew(T event) {
+        Log log = getLog(event);
+        if (log == null || log.getBlockNumber() == null || isNew(log)) {
+            record(event);
+            getSubject().onNext(event);
+        }
+    }
+
+    private boolean isNew(Log log) {
+        if (lastBlock == null) {
+            return true;
+        }
+        int order = Numeric.decodeQuantity(log.getBlockNumber()).compareTo(lastBlock);
+        return order > 0 || (order == 0 && !lastBlockLogs.contains(logId(log)));
+    }
+
+    private void record(T event) {
+        Log log = getLog(event);
+        if (log == null || log.getBlockNumber() == null) {
+            return;
+        }
+
+        BigInteger blockNumber = Numeric.decodeQuantity(log.getBlockNumber());
+        if (lastBlock == null || blockNumber.compareTo(lastBlock) > 0) {
+            lastBlock = blockNumber;
+            lastBlockLogs.clear();
+        }
+        if (blockNumber.equals(lastBlock)) {
+            lastBlockLogs.add(logId(log));
+        }
+    }
+
+    private Log getLog(T event) {
+        if (!isLogs || event == null) {
+            return null;
+        }
+        LogNotification notification = (LogNotification) event;
+        return notification.getParams() != null ? notification.getParams().getResult() : null;
+    }
+
+    private static String logId(Log log) {
+        return log.getTransactionHash() + ":" + log.getLogIndex();
+    }
+}
@@ -12,28 +12,40 @@
  */
 package org.web3j.protocol.websocket;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.math.BigInteger;
 import java.net.ConnectException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
 import io.reactivex.subjects.BehaviorSubject;
@@ -44,11 +56,14 @@ import org.web3j.protocol.ObjectMapperFactory;
 import org.web3j.protocol.Web3jService;
 import org.web3j.protocol.core.BatchRequest;
 import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.protocol.core.Request;
 import org.web3j.protocol.core.Response;
 import org.web3j.protocol.core.methods.response.EthSubscribe;
 import org.web3j.protocol.core.methods.response.EthUnsubscribe;
+import org.web3j.protocol.rx.BoundedBuffer;
 import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.utils.Numeric;
 
 /**
  * Web socket service that allows to interact with JSON-RPC via WebSocket protocol.
@@ -63,7 +78,7 @@ import org.web3j.protocol.websocket.events.Notification;
 public class WebSocketService implements Web3jService {
     private static final Logger log = LoggerFactory.getLogger(WebSocketService.class);
 
-    // Timeout for JSON-RPC requests
+    // Default timeout for JSON-RPC requests, in seconds
     static final long REQUEST_TIMEOUT = 60;
     // replaced batch's next id
     static final AtomicLong nextBatchId = new AtomicLong(0);
@@ -75,6 +90,23 @@ public class WebSocketService implements Web3jService {
     private final ScheduledExecutorService executor;
     // Object mapper to map incoming JSON objects
     private final ObjectMapper objectMapper;
+    private final boolean includeRawResponses;
+
+    private volatile long requestTimeoutMillis = TimeUnit.SECONDS.toMillis(REQUEST_TIMEOUT);
+    // Limits the number of requests waiting for a reply, if set
+    private volatile Semaphore inFlightRequests;
+    private volatile boolean failWhenFull;
+    private final AtomicLong timedOutRequests = new AtomicLong();
+    private final AtomicLong rejectedRequests = new AtomicLong();
+
+    // Backoff between reconnection attempts, reconnection is disabled if not positive
+    private volatile long initialReconnectBackoffMillis;
+    private volatile long maxReconnectBackoffMillis;
+    private volatile boolean closed;
+    private final AtomicBoolean reconnecting = new AtomicBoolean();
+    // Subscriptions to re-establish once reconnected
+    private final Queue<ResumableSubscription<?>> suspendedSubscriptions =
+            new ConcurrentLinkedQueue<>();
 
     // Map of a sent request id to objects necessary to process this request
     private Map<Long, WebSocketRequest<?>> requestForId = new ConcurrentHashMap<>();
@@ -90,7 +122,7 @@ public class WebSocketService implements Web3jService {
     }
 
     public WebSocketService(WebSocketClient webSocketClient, boolean includeRawResponses) {
-        this(webSocketClient, Executors.newScheduledThreadPool(1), includeRawResponses);
+        this(webSocketClient, createExecutor(), includeRawResponses);
     }
 
     WebSocketService(
@@ -100,6 +132,67 @@ public class WebSocketService implements Web3jService {
         this.webSocketClient = webSocketClient;
         this.executor = executor;
         this.objectMapper = ObjectMapperFactory.getObjectMapper(includeRawResponses);
+        this.includeRawResponses = includeRawResponses;
+    }
+
+    static ScheduledExecutorService createExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        // drop the timeouts of answered requests from the queue straight away
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Set the time to wait for a reply before a request fails. Applies to requests sent after the
+     * call.
+     *
+     * @param timeout time to wait for a reply
+     * @param unit unit of the timeout
+     */
+    public void setRequestTimeout(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("Request timeout must be positive");
+        }
+        this.requestTimeoutMillis = unit.toMillis(timeout);
+    }
+
+    /**
+     * Limit the number of requests waiting for a reply. Once the limit is reached, sending a
+     * request either blocks until another request is answered, or fails straight away.
+     *
+     * <p>Must be called before any request is sent. Requests should not be sent in blocking mode
+     * from subscription callbacks, as these run on the thread which receives the replies.
+     *
+     * @param maxInFlightRequests maximum number of requests waiting for a reply
+     * @param failFast whether to fail requests instead of blocking once the limit is reached
+     */
+    public void setMaxInFlightRequests(int maxInFlightRequests, boolean failFast) {
+        if (maxInFlightRequests <= 0) {
+            throw new IllegalArgumentException("Maximum in-flight requests must be positive");
+        }
+        this.failWhenFull = failFast;
+        this.inFlightRequests = new Semaphore(maxInFlightRequests);
+    }
+
+    /**
+     * Reconnect automatically whenever the connection is lost, waiting longer after each failed
+     * attempt.
+     *
+     * <p>Requests waiting for a reply still fail when the connection is lost, but subscriptions
+     * made after this call are re-established on the new connection. Logs subscriptions also
+     * receive the logs emitted while the connection was down, starting from the block of the last
+     * log they received, without repeating any log already delivered.
+     *
+     * @param initialBackoff time to wait before the first reconnection attempt
+     * @param maxBackoff maximum time to wait between reconnection attempts
+     * @param unit unit of the backoff times
+     */
+    public void enableAutoReconnect(long initialBackoff, long maxBackoff, TimeUnit unit) {
+        if (initialBackoff <= 0 || maxBackoff < initialBackoff) {
+            throw new IllegalArgumentException("Invalid reconnection backoff");
+        }
+        this.maxReconnectBackoffMillis = unit.toMillis(maxBackoff);
+        this.initialReconnectBackoffMillis = unit.toMillis(initialBackoff);
     }
 
     /**
@@ -179,12 +272,24 @@ public class WebSocketService implements Web3jService {
             Request request, Class<T> responseType) {
 
         CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            acquirePermit();
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
         long requestId = request.getId();
-        requestForId.put(requestId, new WebSocketRequest<>(result, responseType));
+        WebSocketRequest<T> webSocketRequest = new WebSocketRequest<>(result, responseType);
+        requestForId.put(requestId, webSocketRequest);
         try {
-            sendRequest(request, requestId);
+            sendRequest(request);
+            setRequestTimeout(requestId, webSocketRequest);
         } catch (IOException e) {
             closeRequest(requestId, e);
+        } catch (RuntimeException e) {
+            // such as WebsocketNotConnectedException while the connection is down
+            closeRequest(requestId, new IOException("Failed to send WebSocket request", e));
         }
 
         return result;
@@ -209,6 +314,12 @@ public class WebSocketService implements Web3jService {
     @Override
     public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest requests) {
         CompletableFuture<BatchResponse> result = new CompletableFuture<>();
+        try {
+            acquirePermit();
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
 
         // replace first batch elements's id to handle response
         long requestId = nextBatchId.getAndIncrement();
@@ -216,80 +327,214 @@ public class WebSocketService implements Web3jService {
         long originId = firstRequest.getId();
         requests.getRequests().get(0).setId(requestId);
 
-        requestForId.put(
-                requestId, new WebSocketRequests(result, requests.getRequests(), originId));
+        WebSocketRequests webSocketRequests =
+                new WebSocketRequests(result, requests.getRequests(), originId);
+        requestForId.put(requestId, webSocketRequests);
 
         try {
-            sendBatchRequest(requests, requestId);
+            sendBatchRequest(requests);
+            setRequestTimeout(requestId, webSocketRequests);
         } catch (IOException e) {
+            firstRequest.setId(originId);
             closeRequest(requestId, e);
+        } catch (RuntimeException e) {
+            firstRequest.setId(originId);
+            closeRequest(requestId, new IOException("Failed to send WebSocket batch request", e));
         }
 
         return result;
     }
 
-    private void sendRequest(Request request, long requestId) throws JsonProcessingException {
+    private void sendRequest(Request request) throws JsonProcessingException {
         String payload = objectMapper.writeValueAsString(request);
         log.debug("Sending request: {}", payload);
         webSocketClient.send(payload);
-        setRequestTimeout(requestId);
     }
 
-    private void sendBatchRequest(BatchRequest request, long requestId)
-            throws JsonProcessingException {
+    private void sendBatchRequest(BatchRequest request) throws JsonProcessingException {
         String payload = objectMapper.writeValueAsString(request.getRequests());
         log.debug("Sending batch request: {}", payload);
         webSocketClient.send(payload);
-        setRequestTimeout(requestId);
     }
 
-    private void setRequestTimeout(long requestId) {
-        executor.schedule(
-                () ->
-                        closeRequest(
-                                requestId,
-                                new IOException(
-                                        String.format("Request with id %d timed out", requestId))),
-                REQUEST_TIMEOUT,
-                TimeUnit.SECONDS);
+    private void acquirePermit() throws IOException {
+        Semaphore inFlightRequests = this.inFlightRequests;
+        if (inFlightRequests == null) {
+            return;
+        }
+
+        if (failWhenFull) {
+            if (!inFlightRequests.tryAcquire()) {
+                rejectedRequests.incrementAndGet();
+                throw new IOException("Too many WebSocket requests waiting for a reply");
+            }
+        } else {
+            try {
+                inFlightRequests.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted WebSocket request", e);
+            }
+        }
+    }
+
+    private void setRequestTimeout(long requestId, WebSocketRequest<?> request) {
+        request.setTimeout(
+                executor.schedule(
+                        () -> {
+                            // the id may have been reused once the request was answered
+                            if (requestForId.remove(requestId, request)) {
+                                release(request);
+                                timedOutRequests.incrementAndGet();
+                                request.getOnReply()
+                                        .completeExceptionally(
+                                                new IOException(
+                                                        String.format(
+                                                                "Request with id %d timed out",
+                                                                requestId)));
+                            }
+                        },
+                        requestTimeoutMillis,
+                        TimeUnit.MILLISECONDS));
+        if (requestForId.get(requestId) != request) {
+            // answered before the timeout was set
+            request.cancelTimeout();
+        }
     }
 
     void closeRequest(long requestId, Exception e) {
-        CompletableFuture result = requestForId.get(requestId).getOnReply();
-        requestForId.remove(requestId);
-        result.completeExceptionally(e);
+        WebSocketRequest<?> request = removeRequest(requestId);
+        if (request != null) {
+            request.getOnReply().completeExceptionally(e);
+        }
+    }
+
+    private WebSocketRequest<?> removeRequest(long requestId) {
+        WebSocketRequest<?> request = requestForId.remove(requestId);
+        if (request != null) {
+            release(request);
+        }
+        return request;
     }
 
+    private void release(WebSocketRequest<?> request) {
+        request.cancelTimeout();
+        Semaphore inFlightRequests = this.inFlightRequests;
+        if (inFlightRequests != null) {
+            inFlightRequests.release();
+        }
+    }
+
+    /**
+     * Dispatches an incoming message in a single pass over its tokens.
+     *
+     * <p>The leading fields of an object are scanned only until its {@code id}, or the {@code
+     * subscription} of an event, is found. The scanned tokens are buffered and the message is then
+     * deserialized straight into the type expected by the request or subscription, continuing from
+     * where the scan stopped, so no intermediate tree is built.
+     */
     void onWebSocketMessage(String messageStr) throws IOException {
-        JsonNode replyJson = parseToTree(messageStr);
-
-        if (isReply(replyJson)) {
-            processRequestReply(messageStr, replyJson);
-        } else if (isBatchReply(replyJson)) {
-            processBatchRequestReply(messageStr, (ArrayNode) replyJson);
-        } else if (isSubscriptionEvent(replyJson)) {
-            processSubscriptionEvent(messageStr, replyJson);
-        } else {
-            throw new IOException("Unknown message type");
+        try (JsonParser parser = createParser(messageStr);
+                TokenBuffer scanned = new TokenBuffer(parser)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                processBatchRequestReply(messageStr, (ArrayNode) objectMapper.readTree(parser));
+                return;
+            } else if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Unknown message type");
+            }
+
+            scanned.writeStartObject();
+            boolean isEvent = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                parser.nextToken();
+                if ("id".equals(fieldName)) {
+                    long replyId = getReplyId(parser);
+                    scanned.writeFieldName(fieldName);
+                    scanned.copyCurrentEvent(parser);
+                    processRequestReply(messageStr, replyId, remainder(scanned, parser));
+                    return;
+                } else if ("method".equals(fieldName)) {
+                    isEvent = true;
+                } else if ("params".equals(fieldName)
+                        && parser.currentToken() == JsonToken.START_OBJECT) {
+                    scanned.writeFieldName(fieldName);
+                    String subscriptionId = scanSubscriptionId(parser, scanned);
+                    if (subscriptionId != null) {
+                        processSubscriptionEvent(
+                                messageStr, subscriptionId, remainder(scanned, parser));
+                        return;
+                    }
+                    continue;
+                }
+                scanned.writeFieldName(fieldName);
+                scanned.copyCurrentStructure(parser);
+            }
+            if (isEvent) {
+                throw new IOException("'subscription' field is missing in the event");
+            }
+            throw new IOException("'id' field is missing in the reply");
+        } catch (JsonProcessingException e) {
+            throw new IOException("Failed to parse incoming WebSocket message", e);
+        }
+    }
+
+    private JsonParser createParser(String messageStr) throws IOException {
+        if (includeRawResponses) {
+            // raw responses are read back from the parser's input stream
+            return objectMapper
+                    .getFactory()
+                    .createParser(
+                            new ByteArrayInputStream(messageStr.getBytes(StandardCharsets.UTF_8)));
         }
+        return objectMapper.getFactory().createParser(messageStr);
+    }
+
+    /**
+     * Scans the fields of an event's params up to its subscription id, copying them to the buffer.
+     * If there is no subscription id, the whole params object is copied.
+     */
+    private String scanSubscriptionId(JsonParser parser, TokenBuffer scanned) throws IOException {
+        scanned.writeStartObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            scanned.writeFieldName(fieldName);
+            if ("subscription".equals(fieldName) && parser.currentToken().isScalarValue()) {
+                String subscriptionId = parser.getText();
+                scanned.copyCurrentEvent(parser);
+                return subscriptionId;
+            }
+            scanned.copyCurrentStructure(parser);
+        }
+        scanned.writeEndObject();
+        return null;
+    }
+
+    /** Joins the scanned tokens with the rest of the message. */
+    private static JsonParser remainder(TokenBuffer scanned, JsonParser parser) {
+        return JsonParserSequence.createFlattened(false, scanned.asParser(parser), parser);
     }
 
     @SuppressWarnings("unchecked")
-    private void processRequestReply(String replyStr, JsonNode replyJson) throws IOException {
-        long replyId = getReplyId(replyJson);
+    private void processRequestReply(String replyStr, long replyId, JsonParser reply)
+            throws IOException {
         WebSocketRequest request = getAndRemoveRequest(replyId);
+        Object response;
         try {
-            Object reply = objectMapper.convertValue(replyJson, request.getResponseType());
-            // Instead of sending a reply to a caller asynchronously we need to process it here
-            // to avoid race conditions we need to modify state of this class.
-            if (reply instanceof EthSubscribe) {
-                processSubscriptionResponse(replyId, (EthSubscribe) reply);
-            }
-
-            sendReplyToListener(request, reply);
-        } catch (IllegalArgumentException e) {
+            response = objectMapper.readValue(reply, request.getResponseType());
+        } catch (IOException | IllegalArgumentException e) {
             sendExceptionToListener(replyStr, request, e);
+            return;
+        }
+        // Instead of sending a reply to a caller asynchronously we need to process it here
+        // to avoid race conditions we need to modify state of this class.
+        if (response instanceof EthSubscribe) {
+            processSubscriptionResponse(replyId, (EthSubscribe) response);
         }
+
+        sendReplyToListener(request, response);
     }
 
     private void processBatchRequestReply(String replyStr, ArrayNode replyJson) throws IOException {
@@ -317,26 +562,23 @@ public class WebSocketService implements Web3jService {
 
     @SuppressWarnings("unchecked")
     private void processSubscriptionResponse(long replyId, EthSubscribe reply) throws IOException {
-        WebSocketSubscription subscription = subscriptionRequestForId.get(replyId);
-        processSubscriptionResponse(
-                reply, subscription.getSubject(), subscription.getResponseType());
+        WebSocketSubscription subscription = subscriptionRequestForId.remove(replyId);
+        processSubscriptionResponse(reply, subscription);
     }
 
     private <T extends Notification<?>> void processSubscriptionResponse(
-            EthSubscribe subscriptionReply, BehaviorSubject<T> subject, Class<T> responseType) {
+            EthSubscribe subscriptionReply, WebSocketSubscription<T> subscription) {
         if (!subscriptionReply.hasError()) {
-            establishSubscription(subject, responseType, subscriptionReply);
+            establishSubscription(subscription, subscriptionReply);
         } else {
-            reportSubscriptionError(subject, subscriptionReply);
+            reportSubscriptionError(subscription.getSubject(), subscriptionReply);
         }
     }
 
     private <T extends Notification<?>> void establishSubscription(
-            BehaviorSubject<T> subject, Class<T> responseType, EthSubscribe subscriptionReply) {
+            WebSocketSubscription<T> subscription, EthSubscribe subscriptionReply) {
         log.debug("Subscribed to RPC events with id {}", subscriptionReply.getSubscriptionId());
-        subscriptionForId.put(
-                subscriptionReply.getSubscriptionId(),
-                new WebSocketSubscription<>(subject, responseType));
+        subscriptionForId.put(subscriptionReply.getSubscriptionId(), subscription);
     }
 
     private <T extends Notification<?>> String getSubscriptionId(BehaviorSubject<T> subject) {
@@ -362,8 +604,7 @@ public class WebSocketService implements Web3jService {
         request.getOnReply().complete(reply);
     }
 
-    private void sendExceptionToListener(
-            String replyStr, WebSocketRequest request, IllegalArgumentException e) {
+    private void sendExceptionToListener(String replyStr, WebSocketRequest request, Exception e) {
         request.getOnReply()
                 .completeExceptionally(
                         new IOException(
@@ -373,55 +614,35 @@ public class WebSocketService implements Web3jService {
                                 e));
     }
 
-    private void processSubscriptionEvent(String replyStr, JsonNode replyJson) {
+    private void processSubscriptionEvent(String replyStr, String subscriptionId, JsonParser event)
+            throws IOException {
         log.debug("Processing event: {}", replyStr);
-        String subscriptionId = extractSubscriptionId(replyJson);
         WebSocketSubscription subscription = subscriptionForId.get(subscriptionId);
 
         if (subscription != null) {
-            sendEventToSubscriber(replyJson, subscription);
+            sendEventToSubscriber(event, subscription);
         } else {
             log.warn("No subscriber for WebSocket event with subscription id {}", subscriptionId);
         }
     }
 
-    private String extractSubscriptionId(JsonNode replyJson) {
-        return replyJson.get("params").get("subscription").asText();
-    }
-
     @SuppressWarnings("unchecked")
-    private void sendEventToSubscriber(JsonNode replyJson, WebSocketSubscription subscription) {
-        Object event = objectMapper.convertValue(replyJson, subscription.getResponseType());
-        subscription.getSubject().onNext(event);
-    }
-
-    private boolean isReply(JsonNode replyJson) {
-        return replyJson.has("id");
-    }
-
-    private boolean isBatchReply(JsonNode replyJson) {
-        return replyJson.isArray();
-    }
-
-    private boolean isSubscriptionEvent(JsonNode replyJson) {
-        return replyJson.has("method");
-    }
-
-    private JsonNode parseToTree(String replyStr) throws IOException {
-        try {
-            return objectMapper.readTree(replyStr);
-        } catch (IOException e) {
-            throw new IOException("Failed to parse incoming WebSocket message", e);
+    private void sendEventToSubscriber(JsonParser event, WebSocketSubscription subscription)
+            throws IOException {
+        Object notification = objectMapper.readValue(event, subscription.getResponseType());
+        if (subscription instanceof ResumableSubscription) {
+            ((ResumableSubscription) subscription).onEvent(notification);
+        } else {
+            subscription.getSubject().onNext(notification);
         }
     }
 
     private WebSocketRequest getAndRemoveRequest(long id) throws IOException {
-        if (!requestForId.containsKey(id)) {
+        WebSocketRequest request = removeRequest(id);
+        if (request == null) {
             throw new IOException(
                     String.format("Received reply for unexpected request id: %d", id));
         }
-        WebSocketRequest request = requestForId.get(id);
-        requestForId.remove(id);
         return request;
     }
 
@@ -451,7 +672,28 @@ public class WebSocketService implements Web3jService {
         return idField.longValue();
     }
 
-    private static URI parseURI(String serverUrl) {
+    private long getReplyId(JsonParser parser) throws IOException {
+        JsonToken idToken = parser.currentToken();
+        if (idToken == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        } else if (idToken == JsonToken.VALUE_STRING) {
+            try {
+                return Long.parseLong(parser.getText());
+            } catch (NumberFormatException e) {
+                throw new IOException(
+                        String.format(
+                                "Found Textual 'id' that cannot be casted to long. Input : '%s'",
+                                parser.getText()));
+            }
+        } else {
+            throw new IOException(
+                    String.format(
+                            "'id' expected to be long, but it is: '%s'",
+                            idToken.isScalarValue() ? parser.getText() : idToken.asString()));
+        }
+    }
+
+    static URI parseURI(String serverUrl) {
         try {
             return new URI(serverUrl);
         } catch (URISyntaxException e) {
@@ -462,6 +704,34 @@ public class WebSocketService implements Web3jService {
     @Override
     public <T extends Notification<?>> Flowable<T> subscribe(
             Request request, String unsubscribeMethod, Class<T> responseType) {
+        return subscribe(request, unsubscribeMethod, responseType, BackpressureStrategy.BUFFER);
+    }
+
+    /**
+     * As per {@link #subscribe(Request, String, Class)}, except that notifications which have not
+     * been requested yet are kept in a bounded buffer.
+     *
+     * @param request subscription request
+     * @param unsubscribeMethod method to call to unsubscribe
+     * @param responseType type of notifications
+     * @param buffer buffer for notifications not yet requested
+     * @param <T> type of notifications
+     * @return flowable of notifications
+     */
+    public <T extends Notification<?>> Flowable<T> subscribe(
+            Request request,
+            String unsubscribeMethod,
+            Class<T> responseType,
+            BoundedBuffer buffer) {
+        return buffer.apply(
+                subscribe(request, unsubscribeMethod, responseType, BackpressureStrategy.MISSING));
+    }
+
+    private <T extends Notification<?>> Flowable<T> subscribe(
+            Request request,
+            String unsubscribeMethod,
+            Class<T> responseType,
+            BackpressureStrategy backpressureStrategy) {
         // We can't use usual Observer since we can call "onError"
         // before first client is subscribed and we need to
         // preserve it
@@ -474,18 +744,23 @@ public class WebSocketService implements Web3jService {
         subscribeToEventsStream(request, subject, responseType);
 
         return subject.doOnDispose(() -> closeSubscription(subject, unsubscribeMethod))
-                .toFlowable(BackpressureStrategy.BUFFER);
+                .toFlowable(backpressureStrategy);
     }
 
     private <T extends Notification<?>> void subscribeToEventsStream(
             Request request, BehaviorSubject<T> subject, Class<T> responseType) {
 
-        subscriptionRequestForId.put(
-                request.getId(), new WebSocketSubscription<>(subject, responseType));
+        WebSocketSubscription<T> subscription =
+                initialReconnectBackoffMillis > 0
+                        ? new ResumableSubscription<>(
+                                subject, responseType, request.getMethod(), request.getParams())
+                        : new WebSocketSubscription<>(subject, responseType);
+        subscriptionRequestForId.put(request.getId(), subscription);
         try {
             send(request, EthSubscribe.class);
         } catch (IOException e) {
             log.error("Failed to subscribe to RPC events with request id {}", request.getId());
+            subscriptionRequestForId.remove(request.getId());
             subject.onError(e);
         }
     }
@@ -496,6 +771,9 @@ public class WebSocketService implements Web3jService {
         if (subscriptionId != null) {
             subscriptionForId.remove(subscriptionId);
             unsubscribeFromEventsStream(subscriptionId, unsubscribeMethod);
+        } else if (suspendedSubscriptions.removeIf(
+                subscription -> subscription.getSubject() == subject)) {
+            log.debug("Disposed subscription while reconnecting");
         } else {
             log.warn("Trying to unsubscribe from a non-existing subscription. Race condition?");
         }
@@ -528,23 +806,157 @@ public class WebSocketService implements Web3jService {
 
     @Override
     public void close() {
+        closed = true;
         webSocketClient.close();
         executor.shutdown();
     }
 
     void onWebSocketClose() {
         closeOutstandingRequests();
-        closeOutstandingSubscriptions();
+        if (initialReconnectBackoffMillis > 0 && !closed) {
+            suspendSubscriptions();
+            if (reconnecting.compareAndSet(false, true)) {
+                scheduleReconnect(initialReconnectBackoffMillis);
+            }
+        } else {
+            closeOutstandingSubscriptions();
+        }
+    }
+
+    private void suspendSubscriptions() {
+        for (WebSocketSubscription<?> subscription : subscriptionForId.values()) {
+            if (subscription instanceof ResumableSubscription) {
+                ((ResumableSubscription<?>) subscription).suspend();
+                suspendedSubscriptions.add((ResumableSubscription<?>) subscription);
+            } else {
+                subscription.getSubject().onError(new IOException("Connection was closed"));
+            }
+        }
+        subscriptionForId.clear();
+    }
+
+    private void scheduleReconnect(long backoffMillis) {
+        log.info("Reconnecting via WebSocket in {} ms", backoffMillis);
+        executor.schedule(() -> reconnect(backoffMillis), backoffMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void reconnect(long backoffMillis) {
+        if (closed) {
+            return;
+        }
+
+        try {
+            connectToWebSocket();
+        } catch (ConnectException e) {
+            scheduleReconnect(Math.min(backoffMillis * 2, maxReconnectBackoffMillis));
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while reconnecting via WebSocket protocol");
+            return;
+        }
+
+        reconnecting.set(false);
+
+        // a resubscription failing because the connection dropped again is suspended
+        // anew, so only resume the subscriptions suspended up to this point
+        List<ResumableSubscription<?>> subscriptions = new ArrayList<>();
+        ResumableSubscription<?> subscription;
+        while ((subscription = suspendedSubscriptions.poll()) != null) {
+            subscriptions.add(subscription);
+        }
+        for (ResumableSubscription<?> suspended : subscriptions) {
+            try {
+                resumeSubscription(suspended);
+            } catch (RuntimeException e) {
+                log.warn("Failed to resume subscription via WebSocket", e);
+                suspendedSubscriptions.add(suspended);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void resumeSubscription(ResumableSubscription<T> subscription) {
+        Request<Object, EthSubscribe> request =
+                new Request<>(
+                        subscription.getMethod(),
+                        (List<Object>) subscription.getParams(),
+                        this,
+                        EthSubscribe.class);
+        subscriptionRequestForId.put(request.getId(), subscription);
+        sendAsync(request, EthSubscribe.class)
+                .whenComplete(
+                        (reply, throwable) -> {
+                            if (throwable != null) {
+                                subscriptionRequestForId.remove(request.getId());
+                                if (webSocketClient.isOpen()) {
+                                    subscription.getSubject().onError(throwable);
+                                } else {
+                                    // picked up by the next reconnection attempt
+                                    suspendedSubscriptions.add(subscription);
+                                }
+                            } else if (!reply.hasError()) {
+                                fetchMissedLogs(subscription, reply.getSubscriptionId());
+                            }
+                        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void fetchMissedLogs(ResumableSubscription<T> subscription, String subscriptionId) {
+        BigInteger fromBlock = subscription.getLastBlock();
+        if (fromBlock == null) {
+            subscription.resume(Collections.emptyList());
+            return;
+        }
+
+        Map<String, Object> filter = new HashMap<>();
+        if (subscription.getParams().size() > 1) {
+            filter.putAll(objectMapper.convertValue(subscription.getParams().get(1), Map.class));
+        }
+        filter.put("fromBlock", Numeric.encodeQuantity(fromBlock));
+        filter.put("toBlock", DefaultBlockParameterName.LATEST.getValue());
+
+        sendAsync(
+                        new Request<>(
+                                "eth_getLogs",
+                                Collections.singletonList(filter),
+                                this,
+                                MissedLogs.class),
+                        MissedLogs.class)
+                .whenComplete(
+                        (missedLogs, throwable) -> {
+                            List<T> missed = new ArrayList<>();
+                            if (throwable != null || missedLogs.hasError()) {
+                                log.warn(
+                                        "Failed to fetch logs missed by subscription with id {}",
+                                        subscriptionId);
+                            } else {
+                                for (JsonNode missedLog : missedLogs.getResult()) {
+                                    missed.add(
+                                            toNotification(
+                                                    subscriptionId,
+                                                    missedLog,
+                                                    subscription.getResponseType()));
+                                }
+                            }
+                            subscription.resume(missed);
+                        });
+    }
+
+    private <T> T toNotification(String subscriptionId, JsonNode result, Class<T> responseType) {
+        ObjectNode notification = objectMapper.createObjectNode();
+        notification.put("jsonrpc", "2.0");
+        notification.put("method", "eth_subscription");
+        notification.putObject("params").put("subscription", subscriptionId).set("result", result);
+        return objectMapper.convertValue(notification, responseType);
     }
 
     private void closeOutstandingRequests() {
         requestForId
-                .values()
+                .keySet()
                 .forEach(
-                        request ->
-                                request.getOnReply()
-                                        .completeExceptionally(
-                                                new IOException("Connection was closed")));
+                        requestId ->
+                                closeRequest(requestId, new IOException("Connection was closed")));
     }
 
     private void closeOutstandingSubscriptions() {
@@ -557,8 +969,30 @@ public class WebSocketService implements Web3jService {
                                         .onError(new IOException("Connection was closed")));
     }
 
+    /** @return number of requests waiting for a reply */
+    public int getPendingRequestCount() {
+        return requestForId.size();
+    }
+
+    /** @return number of requests which failed as no reply arrived in time */
+    public long getTimedOutRequestCount() {
+        return timedOutRequests.get();
+    }
+
+    /** @return number of requests which failed as too many requests were waiting for a reply */
+    public long getRejectedRequestCount() {
+        return rejectedRequests.get();
+    }
+
+    boolean isConnected() {
+        return webSocketClient.isOpen();
+    }
+
     // Method visible for unit-tests
     boolean isWaitingForReply(long requestId) {
         return requestForId.containsKey(requestId);
     }
+
+    /** Reply to an eth_getLogs request, kept as JSON to build notifications from. */
+    static class MissedLogs extends Response<List<JsonNode>> {}
 }
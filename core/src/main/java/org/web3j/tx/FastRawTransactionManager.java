@@ -16,30 +16,49 @@ import java.io.IOException;
 import java.math.BigInteger;
 
 import org.web3j.crypto.Credentials;
+import org.web3j.crypto.RawTransaction;
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
 import org.web3j.service.TxSignService;
+import org.web3j.tx.exceptions.TxHashMismatchException;
+import org.web3j.tx.nonce.NonceManager;
 import org.web3j.tx.response.TransactionReceiptProcessor;
 
 /**
  * Simple RawTransactionManager derivative that manages nonces to facilitate multiple transactions
  * per block.
+ *
+ * <p>Nonces are allocated by a {@link NonceManager}, which may be shared between the transaction
+ * managers of several accounts. The nonce of a transaction which could not be sent is reused for
+ * the next one.
  */
 public class FastRawTransactionManager extends RawTransactionManager {
 
-    private volatile BigInteger nonce = BigInteger.valueOf(-1);
+    private final NonceManager nonceManager;
 
     public FastRawTransactionManager(Web3j web3j, Credentials credentials, long chainId) {
         super(web3j, credentials, chainId);
+        this.nonceManager = new NonceManager(web3j);
     }
 
     public FastRawTransactionManager(
             Web3j web3j, TxSignService txSignService, long chainId, BigInteger nonce) {
         super(web3j, txSignService, chainId);
-        this.nonce = nonce;
+        this.nonceManager = new NonceManager(web3j);
+        if (nonce.signum() != -1) {
+            setNonce(nonce);
+        }
+    }
+
+    public FastRawTransactionManager(
+            Web3j web3j, Credentials credentials, long chainId, NonceManager nonceManager) {
+        super(web3j, credentials, chainId);
+        this.nonceManager = nonceManager;
     }
 
     public FastRawTransactionManager(Web3j web3j, Credentials credentials) {
         super(web3j, credentials);
+        this.nonceManager = new NonceManager(web3j);
     }
 
     public FastRawTransactionManager(
@@ -47,6 +66,7 @@ public class FastRawTransactionManager extends RawTransactionManager {
             Credentials credentials,
             TransactionReceiptProcessor transactionReceiptProcessor) {
         super(web3j, credentials, ChainId.NONE, transactionReceiptProcessor);
+        this.nonceManager = new NonceManager(web3j);
     }
 
     public FastRawTransactionManager(
@@ -55,28 +75,68 @@ public class FastRawTransactionManager extends RawTransactionManager {
             long chainId,
             TransactionReceiptProcessor transactionReceiptProcessor) {
         super(web3j, credentials, chainId, transactionReceiptProcessor);
+        this.nonceManager = new NonceManager(web3j);
     }
 
     @Override
-    protected synchronized BigInteger getNonce() throws IOException {
-        if (nonce.signum() == -1) {
-            // obtain lock
-            nonce = super.getNonce();
+    protected BigInteger getNonce() throws IOException {
+        return nonceManager.acquire(getFromAddress());
+    }
+
+    @Override
+    public EthSendTransaction signAndSend(RawTransaction rawTransaction) throws IOException {
+        String address = getFromAddress();
+        BigInteger nonce = rawTransaction.getNonce();
+        EthSendTransaction ethSendTransaction;
+        try {
+            ethSendTransaction = super.signAndSend(rawTransaction);
+        } catch (TxHashMismatchException e) {
+            // the node has accepted a transaction with this nonce
+            nonceManager.confirm(address, nonce);
+            throw e;
+        } catch (IOException e) {
+            // the transaction may have reached the node, which reconciling accounts for
+            nonceManager.release(address, nonce);
+            try {
+                nonceManager.reconcile(address);
+            } catch (IOException reconcileException) {
+                e.addSuppressed(reconcileException);
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            nonceManager.release(address, nonce);
+            throw e;
+        }
+
+        if (ethSendTransaction == null || ethSendTransaction.hasError()) {
+            nonceManager.release(address, nonce);
+            try {
+                nonceManager.reconcile(address);
+            } catch (IOException e) {
+                // the released nonce is reused either way, so the error response takes precedence
+            }
         } else {
-            nonce = nonce.add(BigInteger.ONE);
+            nonceManager.confirm(address, nonce);
         }
-        return nonce;
+        return ethSendTransaction;
+    }
+
+    public NonceManager getNonceManager() {
+        return nonceManager;
     }
 
+    /** @return the last nonce allocated, or -1 if none has been */
     public BigInteger getCurrentNonce() {
-        return nonce;
+        BigInteger nextNonce = nonceManager.getNextNonce(getFromAddress());
+        return nextNonce.signum() == -1 ? nextNonce : nextNonce.subtract(BigInteger.ONE);
     }
 
-    public synchronized void resetNonce() throws IOException {
-        nonce = super.getNonce();
+    public void resetNonce() throws IOException {
+        nonceManager.reset(getFromAddress());
     }
 
-    public synchronized void setNonce(BigInteger value) {
-        nonce = value;
+    /** @param value the last nonce allocated, so the next transaction uses the one after it */
+    public void setNonce(BigInteger value) {
+        nonceManager.setNextNonce(getFromAddress(), value.add(BigInteger.ONE));
     }
 }
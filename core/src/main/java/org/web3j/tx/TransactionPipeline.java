@@ -0,0 +1,409 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.tx;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.JsonRpcError;
+import org.web3j.protocol.exceptions.TransactionException;
+import org.web3j.service.TxSignService;
+import org.web3j.service.TxSignServiceImpl;
+import org.web3j.tx.exceptions.TxHashMismatchException;
+import org.web3j.tx.nonce.NonceManager;
+import org.web3j.utils.Async;
+import org.web3j.utils.Numeric;
+import org.web3j.utils.TxHashVerifier;
+
+import static org.web3j.tx.TransactionManager.DEFAULT_POLLING_ATTEMPTS_PER_TX_HASH;
+import static org.web3j.tx.TransactionManager.DEFAULT_POLLING_FREQUENCY;
+
+/**
+ * Sends transactions from one account without blocking a thread per transaction.
+ *
+ * <p>Submitted transactions are queued, and at most a fixed number of them are in flight at a time,
+ * from being signed until the node has accepted or rejected them. Transactions are signed on a
+ * worker pool, sent asynchronously, and their receipts polled for on a single scheduled task, so
+ * that throughput follows the rate at which the node accepts transactions.
+ *
+ * <p>Nonces are allocated by a {@link NonceManager}, which may be shared with the pipelines or
+ * {@link FastRawTransactionManager}s of other accounts. As transactions are signed concurrently,
+ * they may reach the node slightly out of nonce order.
+ */
+public class TransactionPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionPipeline.class);
+
+    private final Web3j web3j;
+    private final TxSignService txSignService;
+    private final long chainId;
+    private final NonceManager nonceManager;
+    private final int maxInFlight;
+    private final Executor signingExecutor;
+    private final int pollingAttemptsPerTxHash;
+
+    private final Queue<Submission> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentMap<String, PendingReceipt> pendingReceipts = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> pollingTask;
+    private final TxHashVerifier txHashVerifier = new TxHashVerifier();
+
+    private volatile boolean shutdown;
+
+    public TransactionPipeline(
+            Web3j web3j, Credentials credentials, long chainId, int maxInFlight) {
+        this(
+                web3j,
+                new TxSignServiceImpl(credentials),
+                chainId,
+                new NonceManager(web3j),
+                maxInFlight,
+                ForkJoinPool.commonPool(),
+                Async.defaultExecutorService(),
+                DEFAULT_POLLING_FREQUENCY,
+                DEFAULT_POLLING_ATTEMPTS_PER_TX_HASH);
+    }
+
+    public TransactionPipeline(
+            Web3j web3j,
+            TxSignService txSignService,
+            long chainId,
+            NonceManager nonceManager,
+            int maxInFlight,
+            Executor signingExecutor,
+            ScheduledExecutorService scheduledExecutorService,
+            long pollingFrequency,
+            int pollingAttemptsPerTxHash) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Maximum in flight transactions must be positive");
+        }
+        this.web3j = web3j;
+        this.txSignService = txSignService;
+        this.chainId = chainId;
+        this.nonceManager = nonceManager;
+        this.maxInFlight = maxInFlight;
+        this.signingExecutor = signingExecutor;
+        this.pollingAttemptsPerTxHash = pollingAttemptsPerTxHash;
+
+        this.pollingTask =
+                scheduledExecutorService.scheduleAtFixedRate(
+                        this::pollReceipts,
+                        pollingFrequency,
+                        pollingFrequency,
+                        TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue a transaction for sending.
+     *
+     * @param transaction creates the transaction to send, given the nonce allocated to it
+     * @return the receipt of the transaction once it has been mined. This completes exceptionally
+     *     with a {@link JsonRpcError} if the node rejects the transaction, or with a {@link
+     *     TransactionException} if no receipt is available in time.
+     */
+    public CompletableFuture<TransactionReceipt> submit(
+            Function<BigInteger, RawTransaction> transaction) {
+        Submission submission = new Submission(transaction);
+        if (shutdown) {
+            submission.receipt.completeExceptionally(
+                    new CancellationException("Pipeline has been shut down"));
+            return submission.receipt;
+        }
+
+        queue.add(submission);
+        dispatchQueued();
+        return submission.receipt;
+    }
+
+    public CompletableFuture<TransactionReceipt> sendTransaction(
+            BigInteger gasPrice, BigInteger gasLimit, String to, String data, BigInteger value) {
+        return submit(
+                nonce ->
+                        RawTransaction.createTransaction(
+                                nonce, gasPrice, gasLimit, to, value, data));
+    }
+
+    public CompletableFuture<TransactionReceipt> sendEIP1559Transaction(
+            BigInteger maxPriorityFeePerGas,
+            BigInteger maxFeePerGas,
+            BigInteger gasLimit,
+            String to,
+            String data,
+            BigInteger value) {
+        return submit(
+                nonce ->
+                        RawTransaction.createTransaction(
+                                chainId,
+                                nonce,
+                                gasLimit,
+                                to,
+                                value,
+                                data,
+                                maxPriorityFeePerGas,
+                                maxFeePerGas));
+    }
+
+    /** @return number of transactions being signed or awaiting a response from the node */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /** @return number of transactions waiting for a free slot */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /** @return number of sent transactions awaiting their receipt */
+    public int getPendingReceiptCount() {
+        return pendingReceipts.size();
+    }
+
+    /**
+     * Stop accepting transactions and stop polling for receipts. Queued transactions, and those
+     * still awaiting their receipt, are cancelled; transactions in flight still complete.
+     */
+    public void shutdown() {
+        shutdown = true;
+        pollingTask.cancel(false);
+
+        Submission submission;
+        while ((submission = queue.poll()) != null) {
+            submission.receipt.cancel(false);
+        }
+        for (PendingReceipt pendingReceipt : pendingReceipts.values()) {
+            pendingReceipt.receipt.cancel(false);
+        }
+        pendingReceipts.clear();
+    }
+
+    private void dispatchQueued() {
+        while (!queue.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+
+            Submission submission = queue.poll();
+            if (submission == null) {
+                // another thread took the last transaction, so give the slot back and re-check
+                inFlight.decrementAndGet();
+            } else {
+                dispatch(submission);
+            }
+        }
+    }
+
+    private void dispatch(Submission submission) {
+        Async.run(() -> sign(submission), signingExecutor)
+                .thenCompose(
+                        signedTransaction ->
+                                web3j.ethSendRawTransaction(signedTransaction).sendAsync())
+                .whenComplete(
+                        (ethSendTransaction, error) -> {
+                            try {
+                                if (error != null) {
+                                    onSendFailed(submission, unwrap(error));
+                                } else {
+                                    onSent(submission, ethSendTransaction);
+                                }
+                            } catch (RuntimeException e) {
+                                submission.receipt.completeExceptionally(e);
+                            } finally {
+                                inFlight.decrementAndGet();
+                                dispatchQueued();
+                            }
+                        });
+    }
+
+    private String sign(Submission submission) throws IOException {
+        BigInteger nonce = nonceManager.acquire(txSignService.getAddress());
+        submission.nonce = nonce;
+        RawTransaction rawTransaction = submission.transaction.apply(nonce);
+        submission.signedTransaction =
+                Numeric.toHexString(txSignService.sign(rawTransaction, chainId));
+        return submission.signedTransaction;
+    }
+
+    private void onSent(Submission submission, EthSendTransaction ethSendTransaction) {
+        String address = txSignService.getAddress();
+        if (ethSendTransaction.hasError()) {
+            nonceManager.release(address, submission.nonce);
+            reconcile(address);
+            submission.receipt.completeExceptionally(
+                    new JsonRpcError(ethSendTransaction.getError()));
+            return;
+        }
+
+        nonceManager.confirm(address, submission.nonce);
+        String txHashLocal = Hash.sha3(submission.signedTransaction);
+        String txHashRemote = ethSendTransaction.getTransactionHash();
+        if (!txHashVerifier.verify(txHashLocal, txHashRemote)) {
+            submission.receipt.completeExceptionally(
+                    new TxHashMismatchException(txHashLocal, txHashRemote));
+            return;
+        }
+
+        if (shutdown) {
+            submission.receipt.cancel(false);
+        } else {
+            pendingReceipts.put(txHashRemote, new PendingReceipt(submission.receipt));
+        }
+    }
+
+    private void onSendFailed(Submission submission, Throwable error) {
+        if (submission.nonce != null) {
+            // the transaction may have reached the node, which reconciling accounts for
+            String address = txSignService.getAddress();
+            nonceManager.release(address, submission.nonce);
+            reconcile(address);
+        }
+        submission.receipt.completeExceptionally(error);
+    }
+
+    /**
+     * Reconcile the nonces of the account on the signing executor, as it makes a blocking request
+     * which should not hold up the thread completing the send. The released nonce is reused whether
+     * or not reconciling succeeds.
+     */
+    private void reconcile(String address) {
+        try {
+            signingExecutor.execute(
+                    () -> {
+                        try {
+                            nonceManager.reconcile(address);
+                        } catch (IOException | RuntimeException e) {
+                            log.warn("Failed to reconcile nonces of {}", address, e);
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            log.warn("Failed to reconcile nonces of {}", address, e);
+        }
+    }
+
+    private void pollReceipts() {
+        try {
+            for (String transactionHash : pendingReceipts.keySet()) {
+                PendingReceipt pendingReceipt = pendingReceipts.get(transactionHash);
+                // skip transactions whose previous request has not completed yet
+                if (pendingReceipt == null || !pendingReceipt.polling.compareAndSet(false, true)) {
+                    continue;
+                }
+
+                try {
+                    web3j.ethGetTransactionReceipt(transactionHash)
+                            .sendAsync()
+                            .whenComplete(
+                                    (response, error) ->
+                                            onReceiptResponse(
+                                                    transactionHash,
+                                                    pendingReceipt,
+                                                    response,
+                                                    error));
+                } catch (RuntimeException e) {
+                    // such as a rejected request, which counts as an attempt like any other
+                    onReceiptResponse(transactionHash, pendingReceipt, null, e);
+                }
+            }
+        } catch (Throwable e) {
+            // All exceptions must be caught, otherwise our job terminates without any notification
+            log.warn("Error polling for transaction receipts", e);
+        }
+    }
+
+    private void onReceiptResponse(
+            String transactionHash,
+            PendingReceipt pendingReceipt,
+            EthGetTransactionReceipt response,
+            Throwable error) {
+        if (error == null && response.hasError()) {
+            pendingReceipts.remove(transactionHash);
+            pendingReceipt.receipt.completeExceptionally(
+                    new TransactionException(
+                            "Error processing request: " + response.getError().getMessage(),
+                            transactionHash));
+        } else if (error == null && response.getTransactionReceipt().isPresent()) {
+            pendingReceipts.remove(transactionHash);
+            pendingReceipt.receipt.complete(response.getTransactionReceipt().get());
+        } else if (++pendingReceipt.attempts >= pollingAttemptsPerTxHash) {
+            // transport errors count as attempts, but do not fail the transaction by themselves
+            pendingReceipts.remove(transactionHash);
+            pendingReceipt.receipt.completeExceptionally(
+                    new TransactionException(
+                            "No transaction receipt for txHash: "
+                                    + transactionHash
+                                    + " received after "
+                                    + pollingAttemptsPerTxHash
+                                    + " attempts",
+                            transactionHash));
+        }
+        pendingReceipt.polling.set(false);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    private static class Submission {
+        private final Function<BigInteger, RawTransaction> transaction;
+        private final CompletableFuture<TransactionReceipt> receipt = new CompletableFuture<>();
+        private volatile BigInteger nonce;
+        private volatile String signedTransaction;
+
+        private Submission(Function<BigInteger, RawTransaction> transaction) {
+            this.transaction = transaction;
+        }
+    }
+
+    private static class PendingReceipt {
+        private final CompletableFuture<TransactionReceipt> receipt;
+        private final AtomicBoolean polling = new AtomicBoolean();
+        // only updated by the request in progress, which the polling flag guards
+        private int attempts;
+
+        private PendingReceipt(CompletableFuture<TransactionReceipt> receipt) {
+            this.receipt = receipt;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.tx.nonce;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+
+/**
+ * Allocates nonces for transactions sent concurrently from one or more accounts.
+ *
+ * <p>Each allocated nonce is in flight until it is either {@link #confirm confirmed}, once its
+ * transaction has been accepted by the node, or {@link #release released}, if sending it failed.
+ * Released nonces are handed out again before any new nonce, so that a failed send does not leave a
+ * gap which stalls every later transaction from the account. After a failure, {@link #reconcile}
+ * brings the allocator back in line with the pending transaction count of the node.
+ *
+ * <p>The state of an account is initialised from its pending transaction count when it first
+ * allocates a nonce.
+ */
+public class NonceManager {
+
+    private final Web3j web3j;
+    private final ConcurrentMap<String, AccountNonces> accounts = new ConcurrentHashMap<>();
+
+    public NonceManager(Web3j web3j) {
+        this.web3j = web3j;
+    }
+
+    /**
+     * Allocate a nonce for a transaction from an account.
+     *
+     * @param address account address
+     * @return the lowest released nonce of the account if there is one, otherwise its next nonce
+     * @throws IOException if the state of the account could not be initialised
+     */
+    public BigInteger acquire(String address) throws IOException {
+        AccountNonces account = getAccount(address);
+        synchronized (account) {
+            Long nonce = account.released.pollFirst();
+            if (nonce == null) {
+                nonce = account.next++;
+            }
+            account.inFlight.add(nonce);
+            account.allocations++;
+            return BigInteger.valueOf(nonce);
+        }
+    }
+
+    /**
+     * Mark a nonce as used, once its transaction has been accepted by the node.
+     *
+     * @param address account address
+     * @param nonce nonce allocated by {@link #acquire}
+     */
+    public void confirm(String address, BigInteger nonce) {
+        AccountNonces account = accounts.get(key(address));
+        if (account != null) {
+            synchronized (account) {
+                account.inFlight.remove(nonce.longValueExact());
+            }
+        }
+    }
+
+    /**
+     * Return a nonce whose transaction could not be sent, so that it is allocated again.
+     *
+     * <p>Nonces which are not in flight, such as those set on a transaction by the caller, are
+     * ignored.
+     *
+     * @param address account address
+     * @param nonce nonce allocated by {@link #acquire}
+     */
+    public void release(String address, BigInteger nonce) {
+        AccountNonces account = accounts.get(key(address));
+        if (account != null) {
+            synchronized (account) {
+                if (account.inFlight.remove(nonce.longValueExact())) {
+                    account.released.add(nonce.longValueExact());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reconcile the state of an account with its pending transaction count.
+     *
+     * <p>Released nonces which the node has seen used since are discarded, and the next nonce is
+     * moved past any used by other senders. If no nonces are in flight, the next nonce is also
+     * moved back to the pending transaction count, discarding any gap left by transactions which
+     * the node has dropped. It is not moved back if a nonce was allocated while the count was being
+     * retrieved, as the count may not include its transaction.
+     *
+     * @param address account address
+     * @throws IOException if the pending transaction count could not be retrieved
+     */
+    public void reconcile(String address) throws IOException {
+        AccountNonces account = accounts.get(key(address));
+        if (account == null) {
+            return;
+        }
+
+        long allocations;
+        synchronized (account) {
+            allocations = account.allocations;
+        }
+        long pendingCount = getPendingCount(address);
+        synchronized (account) {
+            account.released.headSet(pendingCount).clear();
+            if (account.inFlight.isEmpty() && account.allocations == allocations) {
+                account.next = pendingCount;
+                account.released.clear();
+            } else {
+                account.next = Math.max(account.next, pendingCount);
+            }
+        }
+    }
+
+    /**
+     * Reset the state of an account to its pending transaction count, regardless of any nonces in
+     * flight.
+     *
+     * @param address account address
+     * @throws IOException if the pending transaction count could not be retrieved
+     */
+    public void reset(String address) throws IOException {
+        setNextNonce(address, BigInteger.valueOf(getPendingCount(address)));
+    }
+
+    /**
+     * Set the next nonce to allocate for an account, discarding its released and in flight nonces.
+     *
+     * @param address account address
+     * @param nonce next nonce
+     */
+    public void setNextNonce(String address, BigInteger nonce) {
+        accounts.put(key(address), new AccountNonces(nonce.longValueExact()));
+    }
+
+    /**
+     * @param address account address
+     * @return the next new nonce of the account, or -1 if its state has not been initialised
+     */
+    public BigInteger getNextNonce(String address) {
+        AccountNonces account = accounts.get(key(address));
+        if (account == null) {
+            return BigInteger.valueOf(-1);
+        }
+        synchronized (account) {
+            return BigInteger.valueOf(account.next);
+        }
+    }
+
+    /**
+     * @param address account address
+     * @return number of nonces of the account which are in flight
+     */
+    public int getInFlightCount(String address) {
+        AccountNonces account = accounts.get(key(address));
+        if (account == null) {
+            return 0;
+        }
+        synchronized (account) {
+            return account.inFlight.size();
+        }
+    }
+
+    private AccountNonces getAccount(String address) throws IOException {
+        String key = key(address);
+        AccountNonces account = accounts.get(key);
+        if (account == null) {
+            // concurrent initialisations fetch the same count, so only one of them is kept
+            AccountNonces initial = new AccountNonces(getPendingCount(address));
+            account = accounts.putIfAbsent(key, initial);
+            if (account == null) {
+                account = initial;
+            }
+        }
+        return account;
+    }
+
+    private long getPendingCount(String address) throws IOException {
+        return web3j.ethGetTransactionCount(address, DefaultBlockParameterName.PENDING)
+                .send()
+                .getTransactionCount()
+                .longValueExact();
+    }
+
+    private static String key(String address) {
+        return address.toLowerCase();
+    }
+
+    /** State of an account, which is only accessed while holding its lock. */
+    private static class AccountNonces {
+        private long next;
+        // number of nonces allocated, to detect allocations while reconciling
+        private long allocations;
+        private final Set<Long> inFlight = new HashSet<>();
+        private final TreeSet<Long> released = new TreeSet<>();
+
+        private AccountNonces(long next) {
+            this.next = next;
+        }
+    }
+}
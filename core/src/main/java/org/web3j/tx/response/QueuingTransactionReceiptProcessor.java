@@ -13,13 +13,30 @@
 package org.web3j.tx.response;
 
 import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.RpcErrors;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthGetBlockReceipts;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.web3j.protocol.exceptions.TransactionException;
 import org.web3j.utils.Async;
@@ -27,25 +44,96 @@ import org.web3j.utils.Async;
 /**
  * Transaction receipt processor that uses a single thread to query for transaction receipts.
  *
+ * <p>How the receipts of the queued transactions are polled for is selected by a {@link
+ * PollingMode}.
+ *
  * <p><em>Note:</em>When initially invoked, this processor returns a transaction receipt containing
  * only the transaction hash of the submitted transaction. This is encapsulated in an {@link
  * EmptyTransactionReceipt}.
  */
 public class QueuingTransactionReceiptProcessor extends TransactionReceiptProcessor {
 
+    private static final Logger log =
+            LoggerFactory.getLogger(QueuingTransactionReceiptProcessor.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    /** How receipts are polled for. */
+    public enum PollingMode {
+        /** One {@code eth_getTransactionReceipt} request per queued transaction. */
+        INDIVIDUAL,
+        /** {@code eth_getTransactionReceipt} requests for all queued transactions, in batches. */
+        BATCH,
+        /**
+         * One {@code eth_getBlockReceipts} request per new block, matched against the queued
+         * transactions. Only blocks from the latest one seen when a transaction was queued are
+         * searched for its receipt. A block which cannot be retrieved is retried on the next poll,
+         * and the node must support {@code eth_getBlockReceipts}.
+         */
+        BLOCK_RECEIPTS
+    }
+
+    private final Web3j web3j;
     private final int pollingAttemptsPerTxHash;
+    private final PollingMode pollingMode;
+    private final int batchSize;
 
     private final ScheduledExecutorService scheduledExecutorService;
     private final Callback callback;
     private final BlockingQueue<RequestWrapper> pendingTransactions;
 
+    // next block to search in block receipts mode, only accessed by the polling task
+    private BigInteger nextBlock;
+    // latest block seen in block receipts mode
+    private volatile BigInteger headBlock;
+
     public QueuingTransactionReceiptProcessor(
             Web3j web3j, Callback callback, int pollingAttemptsPerTxHash, long pollingFrequency) {
+        this(
+                web3j,
+                callback,
+                pollingAttemptsPerTxHash,
+                pollingFrequency,
+                PollingMode.INDIVIDUAL,
+                DEFAULT_BATCH_SIZE);
+    }
+
+    public QueuingTransactionReceiptProcessor(
+            Web3j web3j,
+            Callback callback,
+            int pollingAttemptsPerTxHash,
+            long pollingFrequency,
+            PollingMode pollingMode,
+            int batchSize) {
+        this(
+                web3j,
+                callback,
+                pollingAttemptsPerTxHash,
+                pollingFrequency,
+                pollingMode,
+                batchSize,
+                Async.defaultExecutorService());
+    }
+
+    public QueuingTransactionReceiptProcessor(
+            Web3j web3j,
+            Callback callback,
+            int pollingAttemptsPerTxHash,
+            long pollingFrequency,
+            PollingMode pollingMode,
+            int batchSize,
+            ScheduledExecutorService scheduledExecutorService) {
         super(web3j);
-        this.scheduledExecutorService = Async.defaultExecutorService();
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.web3j = web3j;
+        this.scheduledExecutorService = scheduledExecutorService;
         this.callback = callback;
         this.pendingTransactions = new LinkedBlockingQueue<>();
         this.pollingAttemptsPerTxHash = pollingAttemptsPerTxHash;
+        this.pollingMode = pollingMode;
+        this.batchSize = batchSize;
 
         scheduledExecutorService.scheduleAtFixedRate(
                 this::sendTransactionReceiptRequests,
@@ -57,40 +145,216 @@ public class QueuingTransactionReceiptProcessor extends TransactionReceiptProces
     @Override
     public TransactionReceipt waitForTransactionReceipt(String transactionHash)
             throws IOException, TransactionException {
-        pendingTransactions.add(new RequestWrapper(transactionHash));
+        RequestWrapper requestWrapper = new RequestWrapper(transactionHash);
+        if (pollingMode == PollingMode.BLOCK_RECEIPTS) {
+            if (headBlock == null) {
+                EthBlockNumber ethBlockNumber = web3j.ethBlockNumber().send();
+                if (ethBlockNumber.hasError()) {
+                    throw new TransactionException(
+                            "Error processing request: " + ethBlockNumber.getError().getMessage());
+                }
+                headBlock = ethBlockNumber.getBlockNumber();
+            }
+            requestWrapper.fromBlock = headBlock;
+        }
+        pendingTransactions.add(requestWrapper);
 
         return new EmptyTransactionReceipt(transactionHash);
     }
 
     private void sendTransactionReceiptRequests() {
+        try {
+            switch (pollingMode) {
+                case BATCH:
+                    sendBatchedTransactionReceiptRequests();
+                    break;
+                case BLOCK_RECEIPTS:
+                    sendBlockReceiptsRequests();
+                    break;
+                default:
+                    sendIndividualTransactionReceiptRequests();
+            }
+        } catch (Throwable e) {
+            // All exceptions must be caught, otherwise our job terminates without any notification
+            log.warn("Error polling for transaction receipts", e);
+        }
+    }
+
+    private void sendIndividualTransactionReceiptRequests() {
         for (RequestWrapper requestWrapper : pendingTransactions) {
             try {
                 String transactionHash = requestWrapper.getTransactionHash();
                 Optional<? extends TransactionReceipt> transactionReceipt =
                         sendTransactionReceiptRequest(transactionHash);
-                if (transactionReceipt.isPresent()) {
-                    callback.accept(transactionReceipt.get());
+                processReceipt(requestWrapper, transactionReceipt);
+            } catch (IOException | TransactionException e) {
+                pendingTransactions.remove(requestWrapper);
+                callback.exception(e);
+            }
+        }
+    }
+
+    private void sendBatchedTransactionReceiptRequests() {
+        List<RequestWrapper> requestWrappers = new ArrayList<>(pendingTransactions);
+        for (int from = 0; from < requestWrappers.size(); from += batchSize) {
+            List<RequestWrapper> batch =
+                    requestWrappers.subList(
+                            from, Math.min(from + batchSize, requestWrappers.size()));
+
+            BatchRequest batchRequest = web3j.newBatch();
+            for (RequestWrapper requestWrapper : batch) {
+                batchRequest.add(
+                        web3j.ethGetTransactionReceipt(requestWrapper.getTransactionHash()));
+            }
+
+            List<? extends Response<?>> responses;
+            try {
+                BatchResponse batchResponse = batchRequest.send();
+                responses =
+                        batchResponse == null
+                                ? Collections.emptyList()
+                                : batchResponse.getResponses();
+            } catch (IOException e) {
+                for (RequestWrapper requestWrapper : batch) {
                     pendingTransactions.remove(requestWrapper);
-                } else {
-                    if (requestWrapper.getCount() == pollingAttemptsPerTxHash) {
+                    callback.exception(e);
+                }
+                continue;
+            } catch (RuntimeException e) {
+                // the node is unavailable or rate limiting, so retry the batch on the next poll
+                log.debug("Failed to poll for a batch of transaction receipts", e);
+                responses = Collections.emptyList();
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                RequestWrapper requestWrapper = batch.get(i);
+                // a missing response counts as a receipt which is not available yet
+                EthGetTransactionReceipt response =
+                        i < responses.size() ? (EthGetTransactionReceipt) responses.get(i) : null;
+                try {
+                    if (response != null && response.hasError()) {
                         throw new TransactionException(
-                                "No transaction receipt for txHash: "
-                                        + transactionHash
-                                        + "received after "
-                                        + pollingAttemptsPerTxHash
-                                        + " attempts",
-                                transactionHash);
-                    } else {
-                        requestWrapper.incrementCount();
+                                "Error processing request: " + response.getError().getMessage());
                     }
+                    processReceipt(
+                            requestWrapper,
+                            response == null ? Optional.empty() : response.getTransactionReceipt());
+                } catch (TransactionException e) {
+                    pendingTransactions.remove(requestWrapper);
+                    callback.exception(e);
                 }
-            } catch (IOException | TransactionException e) {
+            }
+        }
+    }
+
+    private void sendBlockReceiptsRequests() {
+        BigInteger latestBlock;
+        try {
+            EthBlockNumber ethBlockNumber = web3j.ethBlockNumber().send();
+            // retried on the next poll, which counts as an attempt for the queued transactions
+            latestBlock = ethBlockNumber.hasError() ? null : ethBlockNumber.getBlockNumber();
+        } catch (IOException | RuntimeException e) {
+            latestBlock = null;
+        }
+        if (latestBlock != null) {
+            headBlock = latestBlock;
+        }
+        if (pendingTransactions.isEmpty()) {
+            nextBlock = null;
+            return;
+        }
+
+        Map<String, RequestWrapper> requestWrappers = new HashMap<>();
+        for (RequestWrapper requestWrapper : pendingTransactions) {
+            requestWrappers.put(requestWrapper.getTransactionHash().toLowerCase(), requestWrapper);
+            // search newly queued transactions from the block they were queued at
+            BigInteger fromBlock = requestWrapper.fromBlock;
+            if (fromBlock != null && (nextBlock == null || fromBlock.compareTo(nextBlock) < 0)) {
+                nextBlock = fromBlock;
+            }
+            requestWrapper.fromBlock = null;
+        }
+
+        try {
+            while (latestBlock != null
+                    && nextBlock != null
+                    && nextBlock.compareTo(latestBlock) <= 0) {
+                EthGetBlockReceipts ethGetBlockReceipts =
+                        web3j.ethGetBlockReceipts(DefaultBlockParameter.valueOf(nextBlock)).send();
+                if (ethGetBlockReceipts.hasError()) {
+                    if (ethGetBlockReceipts.getError().getCode() == RpcErrors.METHOD_NOT_FOUND) {
+                        failPendingTransactions(
+                                new TransactionException(
+                                        "eth_getBlockReceipts is not supported by the node, "
+                                                + "use another polling mode"));
+                        return;
+                    }
+                    // retry the block on the next poll
+                    break;
+                }
+                Optional<List<TransactionReceipt>> blockReceipts =
+                        ethGetBlockReceipts.getBlockReceipts();
+                if (!blockReceipts.isPresent()) {
+                    // the node has not caught up with the block yet, so retry it next time
+                    break;
+                }
+
+                for (TransactionReceipt transactionReceipt : blockReceipts.get()) {
+                    RequestWrapper requestWrapper =
+                            requestWrappers.remove(
+                                    transactionReceipt.getTransactionHash().toLowerCase());
+                    if (requestWrapper != null) {
+                        callback.accept(transactionReceipt);
+                        pendingTransactions.remove(requestWrapper);
+                    }
+                }
+                nextBlock = nextBlock.add(BigInteger.ONE);
+            }
+        } catch (IOException | RuntimeException e) {
+            // retry the block on the next poll
+        }
+
+        for (RequestWrapper requestWrapper : requestWrappers.values()) {
+            try {
+                processReceipt(requestWrapper, Optional.empty());
+            } catch (TransactionException e) {
                 pendingTransactions.remove(requestWrapper);
                 callback.exception(e);
             }
         }
     }
 
+    private void failPendingTransactions(Exception e) {
+        for (RequestWrapper requestWrapper : pendingTransactions) {
+            pendingTransactions.remove(requestWrapper);
+            callback.exception(e);
+        }
+        nextBlock = null;
+    }
+
+    private void processReceipt(
+            RequestWrapper requestWrapper,
+            Optional<? extends TransactionReceipt> transactionReceipt)
+            throws TransactionException {
+        if (transactionReceipt.isPresent()) {
+            callback.accept(transactionReceipt.get());
+            pendingTransactions.remove(requestWrapper);
+        } else {
+            if (requestWrapper.getCount() == pollingAttemptsPerTxHash) {
+                String transactionHash = requestWrapper.getTransactionHash();
+                throw new TransactionException(
+                        "No transaction receipt for txHash: "
+                                + transactionHash
+                                + "received after "
+                                + pollingAttemptsPerTxHash
+                                + " attempts",
+                        transactionHash);
+            } else {
+                requestWrapper.incrementCount();
+            }
+        }
+    }
+
     /**
      * Java doesn't provide a concurrent linked hash set, so we use a simple wrapper to store
      * details of the number of requests we've made against this specific transaction hash. This is
@@ -102,6 +366,8 @@ public class QueuingTransactionReceiptProcessor extends TransactionReceiptProces
     private static class RequestWrapper {
         private final String transactionHash;
         private int count;
+        // block to start searching from in block receipts mode, until the search has started
+        private BigInteger fromBlock;
 
         RequestWrapper(String transactionHash) {
             this.transactionHash = transactionHash;
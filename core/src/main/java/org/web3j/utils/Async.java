@@ -14,21 +14,55 @@ package org.web3j.utils;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /** Async task facilitation. */
 public class Async {
 
-    private static final ExecutorService executor = Executors.newCachedThreadPool();
+    /**
+     * System property which, when set to {@code true}, makes {@link
+     * ExecutorStrategy#virtualThreads()} the default strategy on JVMs that support virtual threads.
+     */
+    public static final String VIRTUAL_THREADS_PROPERTY = "org.web3j.async.virtualThreads";
+
+    private static volatile ExecutorStrategy executorStrategy = defaultExecutorStrategy();
+
+    private static ExecutorStrategy defaultExecutorStrategy() {
+        if (Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY)
+                && ExecutorStrategy.isVirtualThreadsSupported()) {
+            return ExecutorStrategy.virtualThreads();
+        }
+        return ExecutorStrategy.platformThreads();
+    }
+
+    /**
+     * Set the strategy used by {@link #run(Callable)} and {@link #defaultExecutorService()}, and
+     * hence by asynchronous requests, remote calls and receipt polling.
+     *
+     * @param executorStrategy executor strategy to use from now on
+     */
+    public static void setExecutorStrategy(ExecutorStrategy executorStrategy) {
+        if (executorStrategy == null) {
+            throw new NullPointerException("executorStrategy");
+        }
+        Async.executorStrategy = executorStrategy;
+    }
 
-    static {
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(executor)));
+    public static ExecutorStrategy getExecutorStrategy() {
+        return executorStrategy;
     }
 
     public static <T> CompletableFuture<T> run(Callable<T> callable) {
+        return run(callable, executorStrategy.getExecutorService());
+    }
+
+    public static <T> CompletableFuture<T> run(Callable<T> callable, Executor executor) {
         CompletableFuture<T> result = new CompletableFuture<>();
         CompletableFuture.runAsync(
                 () -> {
@@ -44,32 +78,71 @@ public class Async {
         return result;
     }
 
-    private static int getCpuCount() {
-        return Runtime.getRuntime().availableProcessors();
-    }
-
     /**
      * Provide a new ScheduledExecutorService instance.
      *
-     * <p>A shutdown hook is created to terminate the thread pool on application termination.
+     * <p>The instance is created by the current {@link ExecutorStrategy}. A shutdown hook is
+     * created to terminate the thread pool on application termination.
      *
      * @return new ScheduledExecutorService
      */
     public static ScheduledExecutorService defaultExecutorService() {
         ScheduledExecutorService scheduledExecutorService =
-                Executors.newScheduledThreadPool(getCpuCount());
+                executorStrategy.newScheduledExecutorService();
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(scheduledExecutorService)));
 
         return scheduledExecutorService;
     }
 
+    /**
+     * Provide a new single threaded ScheduledExecutorService whose thread is a daemon, so that it
+     * does not keep the JVM alive if the owner of the executor is never closed.
+     *
+     * @param threadName name of the thread
+     * @return new ScheduledExecutorService
+     */
+    public static ScheduledExecutorService daemonExecutorService(String threadName) {
+        return Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Provide a new ExecutorService with a fixed number of threads and a bounded work queue. Once
+     * the queue is full, tasks are run by the thread submitting them, which throttles it.
+     *
+     * <p>A shutdown hook is created to terminate the thread pool on application termination.
+     *
+     * @param threads number of threads
+     * @param queueCapacity maximum number of tasks waiting for a thread
+     * @return new ExecutorService
+     */
+    public static ExecutorService boundedExecutorService(int threads, int queueCapacity) {
+        ThreadPoolExecutor executorService =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        60L,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(queueCapacity),
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+        executorService.allowCoreThreadTimeOut(true);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(executorService)));
+
+        return executorService;
+    }
+
     /**
      * Shutdown as per {@link ExecutorService} Javadoc recommendation.
      *
      * @param executorService executor service we wish to shut down.
      */
-    private static void shutdown(ExecutorService executorService) {
+    static void shutdown(ExecutorService executorService) {
         executorService.shutdown();
         try {
             if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.utils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * Supplies the executors used to run asynchronous requests and remote calls, and the scheduled
+ * executors used for polling filters and transaction receipts.
+ *
+ * <p>{@link #virtualThreads()} runs each task on its own virtual thread, so that large numbers of
+ * blocking requests can be in flight without exhausting platform threads. It requires Java 21 or
+ * later and is looked up reflectively, as the library itself targets Java 8.
+ *
+ * @see Async#setExecutorStrategy(ExecutorStrategy)
+ */
+public final class ExecutorStrategy {
+
+    private final ExecutorService executorService;
+    private final Supplier<ScheduledExecutorService> scheduledExecutorServiceSupplier;
+
+    private ExecutorStrategy(
+            ExecutorService executorService,
+            Supplier<ScheduledExecutorService> scheduledExecutorServiceSupplier) {
+        this.executorService = executorService;
+        this.scheduledExecutorServiceSupplier = scheduledExecutorServiceSupplier;
+    }
+
+    /**
+     * Create a strategy from the given executors.
+     *
+     * @param executorService executor to run asynchronous tasks on. <strong>You are responsible for
+     *     terminating this thread pool</strong>
+     * @param scheduledExecutorServiceSupplier provides a new scheduled executor each time one is
+     *     required
+     * @return new ExecutorStrategy
+     */
+    public static ExecutorStrategy of(
+            ExecutorService executorService,
+            Supplier<ScheduledExecutorService> scheduledExecutorServiceSupplier) {
+        return new ExecutorStrategy(executorService, scheduledExecutorServiceSupplier);
+    }
+
+    /**
+     * Strategy using a shared cached thread pool for asynchronous tasks and scheduled thread pools
+     * with one thread per processor. This is the default.
+     *
+     * @return platform thread strategy
+     */
+    public static ExecutorStrategy platformThreads() {
+        return PlatformThreads.INSTANCE;
+    }
+
+    /**
+     * Strategy starting a new virtual thread for each asynchronous task, with scheduled tasks also
+     * run on virtual threads.
+     *
+     * @return virtual thread strategy
+     * @throws UnsupportedOperationException if virtual threads are not available in this JVM
+     */
+    public static ExecutorStrategy virtualThreads() {
+        if (VirtualThreads.INSTANCE == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+        return VirtualThreads.INSTANCE;
+    }
+
+    /**
+     * Check whether {@link #virtualThreads()} is available in this JVM.
+     *
+     * @return true if virtual threads are supported
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VirtualThreads.INSTANCE != null;
+    }
+
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Provide a new ScheduledExecutorService instance. The caller is responsible for shutting it
+     * down.
+     *
+     * @return new ScheduledExecutorService
+     */
+    public ScheduledExecutorService newScheduledExecutorService() {
+        return scheduledExecutorServiceSupplier.get();
+    }
+
+    private static int getCpuCount() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private static class PlatformThreads {
+        private static final ExecutorStrategy INSTANCE;
+
+        static {
+            ExecutorService executorService = Executors.newCachedThreadPool();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> Async.shutdown(executorService)));
+            INSTANCE =
+                    new ExecutorStrategy(
+                            executorService, () -> Executors.newScheduledThreadPool(getCpuCount()));
+        }
+    }
+
+    private static class VirtualThreads {
+        private static final ExecutorStrategy INSTANCE = create();
+
+        private static ExecutorStrategy create() {
+            try {
+                Method newVirtualThreadPerTaskExecutor =
+                        Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                ThreadFactory threadFactory =
+                        (ThreadFactory)
+                                Class.forName("java.lang.Thread$Builder")
+                                        .getMethod("factory")
+                                        .invoke(builder);
+
+                ExecutorService executorService =
+                        (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+                return new ExecutorStrategy(
+                        executorService,
+                        () -> Executors.newScheduledThreadPool(getCpuCount(), threadFactory));
+            } catch (ClassNotFoundException
+                    | NoSuchMethodException
+                    | IllegalAccessException
+                    | InvocationTargetException e) {
+                return null;
+            }
+        }
+    }
+}
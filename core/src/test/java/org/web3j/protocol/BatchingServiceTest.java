@@ -0,0 +1,252 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.protocol.http.HttpService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchingServiceTest {
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final List<JsonNode> payloads = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService executor;
+    private HttpService httpService;
+    private volatile int statusCode = 200;
+    // holds back responses while set
+    private volatile CountDownLatch responseLatch;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newScheduledThreadPool(1);
+        httpService =
+                new HttpService(
+                        new OkHttpClient.Builder().addInterceptor(new EchoInterceptor()).build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testFullBatchIsSentImmediately() throws Exception {
+        BatchingService batchingService = new BatchingService(httpService, 3, 60_000, 1, executor);
+
+        List<CompletableFuture<EthBlockNumber>> results = new ArrayList<>();
+        List<Request<?, EthBlockNumber>> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Request<?, EthBlockNumber> request = blockNumber(batchingService);
+            requests.add(request);
+            results.add(request.sendAsync());
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(
+                    BigInteger.valueOf(requests.get(i).getId()),
+                    results.get(i).get().getBlockNumber());
+        }
+        assertEquals(1, payloads.size());
+        assertEquals(3, payloads.get(0).size());
+    }
+
+    @Test
+    public void testPartialBatchIsSentAfterLinger() throws Exception {
+        BatchingService batchingService = new BatchingService(httpService, 100, 10, 1, executor);
+
+        Request<?, EthBlockNumber> first = blockNumber(batchingService);
+        Request<?, EthBlockNumber> second = blockNumber(batchingService);
+        CompletableFuture<EthBlockNumber> firstResult = first.sendAsync();
+        CompletableFuture<EthBlockNumber> secondResult = second.sendAsync();
+
+        assertEquals(BigInteger.valueOf(first.getId()), firstResult.get().getBlockNumber());
+        assertEquals(BigInteger.valueOf(second.getId()), secondResult.get().getBlockNumber());
+        assertEquals(1, payloads.size());
+        assertTrue(payloads.get(0).isArray());
+    }
+
+    @Test
+    public void testSingleRequestIsNotBatched() throws Exception {
+        BatchingService batchingService = new BatchingService(httpService, 100, 1, 1, executor);
+
+        Request<?, EthBlockNumber> request = blockNumber(batchingService);
+
+        assertEquals(BigInteger.valueOf(request.getId()), request.send().getBlockNumber());
+        assertEquals(1, payloads.size());
+        assertFalse(payloads.get(0).isArray());
+    }
+
+    @Test
+    public void testConcurrentCallers() throws Exception {
+        BatchingService batchingService = new BatchingService(httpService, 10, 5, 2, executor);
+        ExecutorService callers = Executors.newFixedThreadPool(20);
+        try {
+            List<Request<?, EthBlockNumber>> requests = new ArrayList<>();
+            List<Future<EthBlockNumber>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Request<?, EthBlockNumber> request = blockNumber(batchingService);
+                requests.add(request);
+                results.add(callers.submit(request::send));
+            }
+
+            for (int i = 0; i < requests.size(); i++) {
+                assertEquals(
+                        BigInteger.valueOf(requests.get(i).getId()),
+                        results.get(i).get().getBlockNumber());
+            }
+            assertTrue(payloads.size() < requests.size());
+        } finally {
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedBatchFailsEachRequest() {
+        statusCode = 500;
+        BatchingService batchingService = new BatchingService(httpService, 2, 60_000, 1, executor);
+
+        CompletableFuture<EthBlockNumber> first = blockNumber(batchingService).sendAsync();
+        CompletableFuture<EthBlockNumber> second = blockNumber(batchingService).sendAsync();
+
+        ExecutionException exception = assertThrows(ExecutionException.class, first::get);
+        assertTrue(exception.getCause() instanceof ClientConnectionException);
+        exception = assertThrows(ExecutionException.class, second::get);
+        assertTrue(exception.getCause() instanceof ClientConnectionException);
+    }
+
+    @Test
+    public void testBatchesBeyondInFlightLimitAreQueued() throws Exception {
+        responseLatch = new CountDownLatch(1);
+        BatchingService batchingService = new BatchingService(httpService, 2, 60_000, 1, executor);
+
+        List<CompletableFuture<EthBlockNumber>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            // does not block while the first batch is in flight
+            results.add(blockNumber(batchingService).sendAsync());
+        }
+        while (payloads.isEmpty()) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, payloads.size());
+        assertFalse(results.get(5).isDone());
+
+        responseLatch.countDown();
+        for (CompletableFuture<EthBlockNumber> result : results) {
+            result.get();
+        }
+        assertEquals(3, payloads.size());
+    }
+
+    @Test
+    public void testFlush() throws Exception {
+        BatchingService batchingService =
+                new BatchingService(httpService, 100, 60_000, 1, executor);
+
+        CompletableFuture<EthBlockNumber> first = blockNumber(batchingService).sendAsync();
+        CompletableFuture<EthBlockNumber> second = blockNumber(batchingService).sendAsync();
+        assertTrue(payloads.isEmpty());
+
+        batchingService.flush();
+
+        first.get();
+        second.get();
+        assertEquals(1, payloads.size());
+    }
+
+    private static Request<?, EthBlockNumber> blockNumber(Web3jService web3jService) {
+        return new Request<>(
+                "eth_blockNumber", Collections.emptyList(), web3jService, EthBlockNumber.class);
+    }
+
+    /**
+     * Responds to each request with its id as the result, returning batch responses in reverse
+     * order.
+     */
+    private class EchoInterceptor implements Interceptor {
+
+        @Override
+        public okhttp3.Response intercept(Chain chain) throws IOException {
+            Buffer buffer = new Buffer();
+            chain.request().body().writeTo(buffer);
+            JsonNode payload = objectMapper.readTree(buffer.readUtf8());
+            payloads.add(payload);
+            if (responseLatch != null) {
+                try {
+                    responseLatch.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+
+            String content;
+            if (payload.isArray()) {
+                ArrayNode responses = objectMapper.createArrayNode();
+                for (int i = payload.size() - 1; i >= 0; i--) {
+                    responses.add(response(payload.get(i)));
+                }
+                content = responses.toString();
+            } else {
+                content = response(payload).toString();
+            }
+
+            return new okhttp3.Response.Builder()
+                    .code(statusCode)
+                    .message("")
+                    .body(ResponseBody.create(content, HttpService.JSON_MEDIA_TYPE))
+                    .request(chain.request())
+                    .protocol(Protocol.HTTP_1_1)
+                    .build();
+        }
+
+        private JsonNode response(JsonNode request) {
+            long id = request.get("id").asLong();
+            return objectMapper
+                    .createObjectNode()
+                    .put("jsonrpc", "2.0")
+                    .put("id", id)
+                    .put("result", "0x" + Long.toHexString(id));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HedgingServiceTest {
+
+    private final Web3jService primary = mock(Web3jService.class);
+    private final Web3jService hedge = mock(Web3jService.class);
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSlowRequestIsHedged() throws Exception {
+        CompletableFuture<EthCall> primaryResponse = new CompletableFuture<>();
+        when(primary.sendAsync(any(), eq(EthCall.class))).thenReturn(primaryResponse);
+        when(hedge.sendAsync(any(), eq(EthCall.class)))
+                .thenReturn(CompletableFuture.completedFuture(ethCall("0x02")));
+        HedgingService service = new HedgingService(primary, hedge, 95, 10, executor);
+
+        assertEquals("0x02", ethCallRequest(service).send().getValue());
+        assertEquals(1, service.getHedgesFired());
+        assertEquals(1, service.getHedgesWon());
+        assertTrue(primaryResponse.isCancelled());
+    }
+
+    @Test
+    public void testFastRequestIsNotHedged() throws Exception {
+        when(primary.sendAsync(any(), eq(EthCall.class)))
+                .thenReturn(CompletableFuture.completedFuture(ethCall("0x01")));
+        HedgingService service = new HedgingService(primary, hedge, 95, 10, executor);
+
+        assertEquals("0x01", ethCallRequest(service).send().getValue());
+        Thread.sleep(50);
+
+        assertEquals(0, service.getHedgesFired());
+        verify(hedge, never()).sendAsync(any(), any());
+    }
+
+    @Test
+    public void testPrimaryWinsAfterHedgeIsSent() throws Exception {
+        CompletableFuture<EthCall> primaryResponse = new CompletableFuture<>();
+        CompletableFuture<EthCall> hedgeResponse = new CompletableFuture<>();
+        when(primary.sendAsync(any(), eq(EthCall.class))).thenReturn(primaryResponse);
+        when(hedge.sendAsync(any(), eq(EthCall.class))).thenReturn(hedgeResponse);
+        HedgingService service = new HedgingService(primary, hedge, 95, 10, executor);
+
+        CompletableFuture<EthCall> result = ethCallRequest(service).sendAsync();
+        // runs after the hedge has been sent, as the executor has a single thread
+        executor.schedule(
+                        () -> primaryResponse.complete(ethCall("0x01")), 20, TimeUnit.MILLISECONDS)
+                .get();
+
+        assertEquals("0x01", result.get().getValue());
+        assertEquals(0, service.getHedgesWon());
+        assertTrue(hedgeResponse.isCancelled());
+    }
+
+    @Test
+    public void testFailedPrimaryIsAnsweredByHedge() throws Exception {
+        CompletableFuture<EthCall> primaryResponse = new CompletableFuture<>();
+        CompletableFuture<EthCall> hedgeResponse = new CompletableFuture<>();
+        when(primary.sendAsync(any(), eq(EthCall.class))).thenReturn(primaryResponse);
+        when(hedge.sendAsync(any(), eq(EthCall.class))).thenReturn(hedgeResponse);
+        HedgingService service = new HedgingService(primary, hedge, 95, 10, executor);
+
+        CompletableFuture<EthCall> result = ethCallRequest(service).sendAsync();
+        executor.schedule(
+                        () ->
+                                primaryResponse.completeExceptionally(
+                                        new ClientConnectionException("Connection reset")),
+                        20,
+                        TimeUnit.MILLISECONDS)
+                .get();
+        hedgeResponse.complete(ethCall("0x02"));
+
+        assertEquals("0x02", result.get().getValue());
+        assertEquals(1, service.getHedgesWon());
+    }
+
+    @Test
+    public void testStateChangingRequestIsNotHedged() throws Exception {
+        CompletableFuture<EthSendTransaction> primaryResponse = new CompletableFuture<>();
+        when(primary.sendAsync(any(), eq(EthSendTransaction.class))).thenReturn(primaryResponse);
+        HedgingService service = new HedgingService(primary, hedge, 95, 1, executor);
+
+        CompletableFuture<EthSendTransaction> result =
+                new Request<>(
+                                "eth_sendRawTransaction",
+                                Arrays.asList("0x00"),
+                                service,
+                                EthSendTransaction.class)
+                        .sendAsync();
+        Thread.sleep(50);
+
+        assertEquals(primaryResponse, result);
+        assertEquals(0, service.getHedgesFired());
+        verify(hedge, never()).sendAsync(any(), any());
+    }
+
+    @Test
+    public void testDelayFollowsPercentile() {
+        HedgingService.LatencyTracker latencyTracker = new HedgingService.LatencyTracker(95, 500);
+
+        for (int i = 1; i < HedgingService.LatencyTracker.RECOMPUTE_INTERVAL; i++) {
+            latencyTracker.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(500, latencyTracker.getDelayNanos());
+
+        latencyTracker.record(TimeUnit.MILLISECONDS.toNanos(64));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(61), latencyTracker.getDelayNanos());
+    }
+
+    private static Request<?, EthCall> ethCallRequest(Web3jService web3jService) {
+        return new Request<>(
+                "eth_call", Arrays.asList("{}", "latest"), web3jService, EthCall.class);
+    }
+
+    private static EthCall ethCall(String value) {
+        EthCall ethCall = new EthCall();
+        ethCall.setResult(value);
+        return ethCall;
+    }
+}
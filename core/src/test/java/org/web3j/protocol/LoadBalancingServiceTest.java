@@ -0,0 +1,260 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.LoadBalancingService.SelectionStrategy;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthFilter;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LoadBalancingServiceTest {
+
+    private final Web3jService first = mock(Web3jService.class);
+    private final Web3jService second = mock(Web3jService.class);
+    private final ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+
+    @Test
+    public void testRoundRobin() throws Exception {
+        when(first.send(any(), eq(EthBlockNumber.class))).thenReturn(blockNumber(1));
+        when(second.send(any(), eq(EthBlockNumber.class))).thenReturn(blockNumber(1));
+        LoadBalancingService service = service(SelectionStrategy.ROUND_ROBIN);
+
+        for (int i = 0; i < 4; i++) {
+            blockNumberRequest(service).send();
+        }
+
+        verify(first, times(2)).send(any(), eq(EthBlockNumber.class));
+        verify(second, times(2)).send(any(), eq(EthBlockNumber.class));
+    }
+
+    @Test
+    public void testLeastOutstanding() throws Exception {
+        when(first.sendAsync(any(), eq(EthBlockNumber.class)))
+                .thenReturn(new CompletableFuture<>());
+        when(second.sendAsync(any(), eq(EthBlockNumber.class)))
+                .thenReturn(CompletableFuture.completedFuture(blockNumber(1)));
+        LoadBalancingService service = service(SelectionStrategy.LEAST_OUTSTANDING);
+
+        assertFalse(blockNumberRequest(service).sendAsync().isDone());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(blockNumberRequest(service).sendAsync().isDone());
+        }
+
+        verify(first, times(1)).sendAsync(any(), eq(EthBlockNumber.class));
+    }
+
+    @Test
+    public void testLatencyEwmaPrefersFasterNode() throws Exception {
+        when(first.send(any(), eq(EthBlockNumber.class)))
+                .thenAnswer(
+                        invocation -> {
+                            Thread.sleep(20);
+                            return blockNumber(1);
+                        });
+        when(second.send(any(), eq(EthBlockNumber.class))).thenReturn(blockNumber(1));
+        LoadBalancingService service = service(SelectionStrategy.LATENCY_EWMA);
+
+        for (int i = 0; i < 10; i++) {
+            blockNumberRequest(service).send();
+        }
+
+        verify(first, times(1)).send(any(), eq(EthBlockNumber.class));
+        verify(second, times(9)).send(any(), eq(EthBlockNumber.class));
+    }
+
+    @Test
+    public void testReadIsRetriedOnAnotherNode() throws Exception {
+        when(first.send(any(), eq(EthBlockNumber.class)))
+                .thenThrow(new ClientConnectionException("Connection refused"));
+        when(second.send(any(), eq(EthBlockNumber.class))).thenReturn(blockNumber(1));
+        LoadBalancingService service = service(SelectionStrategy.ROUND_ROBIN);
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(BigInteger.ONE, blockNumberRequest(service).send().getBlockNumber());
+        }
+
+        verify(first, times(1)).send(any(), eq(EthBlockNumber.class));
+        assertFalse(service.isHealthy(0));
+        assertTrue(service.isHealthy(1));
+    }
+
+    @Test
+    public void testAsyncReadIsRetriedOnAnotherNode() throws Exception {
+        when(first.sendAsync(any(), eq(EthBlockNumber.class)))
+                .thenReturn(failedFuture(new ClientConnectionException("Connection refused")));
+        when(second.sendAsync(any(), eq(EthBlockNumber.class)))
+                .thenReturn(CompletableFuture.completedFuture(blockNumber(1)));
+        LoadBalancingService service = service(SelectionStrategy.ROUND_ROBIN);
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals(
+                    BigInteger.ONE, blockNumberRequest(service).sendAsync().get().getBlockNumber());
+        }
+    }
+
+    @Test
+    public void testParseErrorDoesNotEjectNode() throws Exception {
+        when(first.send(any(), eq(EthBlockNumber.class)))
+                .thenThrow(new JsonMappingException(null, "Cannot deserialize"));
+        LoadBalancingService service = service(SelectionStrategy.ROUND_ROBIN);
+
+        assertThrows(JsonMappingException.class, () -> blockNumberRequest(service).send());
+
+        verify(second, never()).send(any(), eq(EthBlockNumber.class));
+        assertTrue(service.isHealthy(0));
+    }
+
+    @Test
+    public void testWriteIsNotRetried() throws Exception {
+        when(first.sendAsync(any(), eq(EthSendTransaction.class)))
+                .thenReturn(failedFuture(new ClientConnectionException("Connection reset")));
+        when(second.sendAsync(any(), eq(EthSendTransaction.class)))
+                .thenReturn(failedFuture(new ClientConnectionException("Connection reset")));
+        LoadBalancingService service = service(SelectionStrategy.ROUND_ROBIN);
+
+        ExecutionException exception =
+                assertThrows(
+                        ExecutionException.class,
+                        () ->
+                                new Request<>(
+                                                "eth_sendRawTransaction",
+                                                Arrays.asList("0x00"),
+                                                service,
+                                                EthSendTransaction.class)
+                                        .sendAsync()
+                                        .get());
+
+        assertTrue(exception.getCause() instanceof ClientConnectionException);
+        verify(first, times(1)).sendAsync(any(), eq(EthSendTransaction.class));
+        verify(second, never()).sendAsync(any(), eq(EthSendTransaction.class));
+    }
+
+    @Test
+    public void testLaggingNodeIsEjected() throws Exception {
+        when(first.sendAsync(any(), eq(EthBlockNumber.class)))
+                .thenReturn(CompletableFuture.completedFuture(blockNumber(100)));
+        when(second.sendAsync(any(), eq(EthBlockNumber.class)))
+                .thenReturn(CompletableFuture.completedFuture(blockNumber(94)));
+        LoadBalancingService service = service(SelectionStrategy.ROUND_ROBIN);
+
+        service.checkHealth().get();
+
+        assertTrue(service.isHealthy(0));
+        assertFalse(service.isHealthy(1));
+
+        when(second.sendAsync(any(), eq(EthBlockNumber.class)))
+                .thenReturn(CompletableFuture.completedFuture(blockNumber(95)));
+        service.checkHealth().get();
+
+        assertTrue(service.isHealthy(1));
+    }
+
+    @Test
+    public void testUnresponsiveNodeIsEjected() throws Exception {
+        when(first.sendAsync(any(), eq(EthBlockNumber.class)))
+                .thenReturn(CompletableFuture.completedFuture(blockNumber(100)));
+        when(second.sendAsync(any(), eq(EthBlockNumber.class)))
+                .thenReturn(failedFuture(new ClientConnectionException("Connection refused")));
+        LoadBalancingService service = service(SelectionStrategy.ROUND_ROBIN);
+
+        service.checkHealth().get();
+        when(first.send(any(), eq(EthBlockNumber.class))).thenReturn(blockNumber(1));
+        for (int i = 0; i < 2; i++) {
+            blockNumberRequest(service).send();
+        }
+
+        verify(first, times(2)).send(any(), eq(EthBlockNumber.class));
+        verify(second, never()).send(any(), any());
+    }
+
+    @Test
+    public void testNodeWithoutHealthCheckResponseIsEjected() throws Exception {
+        when(first.sendAsync(any(), eq(EthBlockNumber.class)))
+                .thenReturn(CompletableFuture.completedFuture(blockNumber(100)));
+        when(second.sendAsync(any(), eq(EthBlockNumber.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        LoadBalancingService service = service(SelectionStrategy.ROUND_ROBIN);
+
+        service.checkHealth().get();
+
+        assertTrue(service.isHealthy(0));
+        assertFalse(service.isHealthy(1));
+    }
+
+    @Test
+    public void testFilterRequestsUseSameNode() throws Exception {
+        when(first.send(any(), eq(EthFilter.class))).thenReturn(new EthFilter());
+        LoadBalancingService service = service(SelectionStrategy.ROUND_ROBIN);
+
+        for (int i = 0; i < 3; i++) {
+            new Request<>(
+                            "eth_newBlockFilter",
+                            Collections.<String>emptyList(),
+                            service,
+                            EthFilter.class)
+                    .send();
+        }
+
+        verify(first, times(3)).send(any(), eq(EthFilter.class));
+        verify(second, never()).send(any(), any());
+    }
+
+    private LoadBalancingService service(SelectionStrategy selectionStrategy) {
+        return new LoadBalancingService(
+                Arrays.asList(first, second), selectionStrategy, 1_000, 5, executor);
+    }
+
+    private static Request<?, EthBlockNumber> blockNumberRequest(Web3jService web3jService) {
+        return new Request<>(
+                "eth_blockNumber",
+                Collections.<String>emptyList(),
+                web3jService,
+                EthBlockNumber.class);
+    }
+
+    private static EthBlockNumber blockNumber(long blockNumber) {
+        EthBlockNumber ethBlockNumber = new EthBlockNumber();
+        ethBlockNumber.setResult("0x" + Long.toHexString(blockNumber));
+        return ethBlockNumber;
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable throwable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+}
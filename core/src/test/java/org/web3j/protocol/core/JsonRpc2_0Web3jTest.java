@@ -13,16 +13,19 @@
 package org.web3j.protocol.core;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.junit.jupiter.api.Test;
 
 import org.web3j.protocol.Web3j;
 import org.web3j.protocol.Web3jService;
+import org.web3j.utils.ExecutorStrategy;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 public class JsonRpc2_0Web3jTest {
@@ -41,6 +44,21 @@ public class JsonRpc2_0Web3jTest {
         verify(service).close();
     }
 
+    @Test
+    public void testStopStrategyExecutorOnShutdown() throws Exception {
+        ExecutorService executorService = mock(ExecutorService.class);
+        Web3j web3j =
+                Web3j.build(
+                        service,
+                        10,
+                        ExecutorStrategy.of(executorService, () -> scheduledExecutorService));
+
+        web3j.shutdown();
+
+        verify(scheduledExecutorService).shutdown();
+        verify(executorService, never()).shutdown();
+    }
+
     @Test
     public void testExceptionOnServiceClosure() throws Exception {
 
@@ -383,6 +383,15 @@ public class RequestTest extends RequestTester {
                         + "\"params\":[\"0x1b4\",true],\"id\":1}");
     }
 
+    @Test
+    public void testEthGetBlockReceipts() throws Exception {
+        web3j.ethGetBlockReceipts(DefaultBlockParameter.valueOf(Numeric.toBigInt("0x1b4"))).send();
+
+        verifyResult(
+                "{\"jsonrpc\":\"2.0\",\"method\":\"eth_getBlockReceipts\","
+                        + "\"params\":[\"0x1b4\"],\"id\":1}");
+    }
+
     @Test
     public void testEthGetTransactionByHash() throws Exception {
         web3j.ethGetTransactionByHash(
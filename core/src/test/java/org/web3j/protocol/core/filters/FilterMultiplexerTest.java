@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.core.filters;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthFilter;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.EthUninstallFilter;
+import org.web3j.protocol.core.methods.response.Log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FilterMultiplexerTest {
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final Web3jService web3jService = mock(Web3jService.class);
+    private final ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+    private final ScheduledFuture<?> schedule = mock(ScheduledFuture.class);
+    private final Web3j web3j = Web3j.build(web3jService, 1000, executor);
+    private final FilterMultiplexer filterMultiplexer = new FilterMultiplexer(web3j, executor);
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        when(web3jService.send(any(Request.class), eq(EthFilter.class)))
+                .thenReturn(ethFilter("0x1"))
+                .thenReturn(ethFilter("0x2"));
+        when(web3jService.send(any(Request.class), eq(EthLog.class)))
+                .thenReturn(objectMapper.readValue("{\"result\":[]}", EthLog.class));
+        when(web3jService.send(any(Request.class), eq(EthUninstallFilter.class)))
+                .thenReturn(objectMapper.readValue("{\"result\":true}", EthUninstallFilter.class));
+        doReturn(schedule)
+                .when(executor)
+                .scheduleAtFixedRate(any(Runnable.class), eq(0L), anyLong(), any());
+    }
+
+    @Test
+    public void testFiltersArePolledInOneBatch() throws Exception {
+        when(web3jService.sendBatch(any(BatchRequest.class)))
+                .thenAnswer(
+                        invocation -> {
+                            BatchRequest batchRequest = invocation.getArgument(0);
+                            List<Response<?>> responses = new ArrayList<>();
+                            for (Request<?, ?> request : batchRequest.getRequests()) {
+                                // each filter receives a log with its own id as data
+                                responses.add(
+                                        objectMapper.readValue(
+                                                "{\"result\":[{\"data\":\""
+                                                        + request.getParams().get(0)
+                                                        + "\"}]}",
+                                                EthLog.class));
+                            }
+                            return new BatchResponse(batchRequest.getRequests(), responses);
+                        });
+        List<Log> first = Collections.synchronizedList(new ArrayList<>());
+        List<Log> second = Collections.synchronizedList(new ArrayList<>());
+        LogFilter firstFilter = logFilter(first);
+        LogFilter secondFilter = logFilter(second);
+
+        firstFilter.run(filterMultiplexer, 1000);
+        secondFilter.run(filterMultiplexer, 1000);
+        ArgumentCaptor<Runnable> poll = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(1))
+                .scheduleAtFixedRate(poll.capture(), eq(0L), eq(1000L), eq(TimeUnit.MILLISECONDS));
+        poll.getValue().run();
+
+        verify(web3jService, times(1)).sendBatch(any(BatchRequest.class));
+        assertEquals("0x1", first.get(0).getData());
+        assertEquals("0x2", second.get(0).getData());
+
+        firstFilter.cancel();
+        assertEquals(1, filterMultiplexer.getFilterCount());
+        secondFilter.cancel();
+        assertEquals(0, filterMultiplexer.getFilterCount());
+        verify(schedule).cancel(false);
+    }
+
+    @Test
+    public void testFilterIsReinstalledIfNotFound() throws Exception {
+        when(web3jService.sendBatch(any(BatchRequest.class)))
+                .thenAnswer(
+                        invocation -> {
+                            BatchRequest batchRequest = invocation.getArgument(0);
+                            return new BatchResponse(
+                                    batchRequest.getRequests(),
+                                    Collections.singletonList(
+                                            objectMapper.readValue(
+                                                    "{\"error\":{\"code\":-32000,"
+                                                            + "\"message\":\"filter not found\"}}",
+                                                    EthLog.class)));
+                        });
+        LogFilter filter = logFilter(new ArrayList<>());
+
+        filter.run(filterMultiplexer, 1000);
+        ArgumentCaptor<Runnable> poll = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).scheduleAtFixedRate(poll.capture(), eq(0L), eq(1000L), any());
+        poll.getValue().run();
+
+        assertEquals(BigInteger.valueOf(2), filter.getFilterId());
+        assertEquals(1, filterMultiplexer.getFilterCount());
+    }
+
+    private LogFilter logFilter(List<Log> results) {
+        return new LogFilter(
+                web3j, results::add, new org.web3j.protocol.core.methods.request.EthFilter());
+    }
+
+    private EthFilter ethFilter(String filterId) throws Exception {
+        return objectMapper.readValue("{\"result\":\"" + filterId + "\"}", EthFilter.class);
+    }
+}
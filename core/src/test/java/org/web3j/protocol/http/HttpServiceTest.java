@@ -12,26 +12,43 @@
  */
 package org.web3j.protocol.http;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
 import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlock;
 import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthLog;
 import org.web3j.protocol.core.methods.response.EthSubscribe;
 import org.web3j.protocol.exceptions.ClientConnectionException;
 import org.web3j.protocol.websocket.events.NewHeadsNotification;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -121,4 +138,254 @@ public class HttpServiceTest {
                         httpService.subscribe(
                                 subscribeRequest, "eth_unsubscribe", NewHeadsNotification.class));
     }
+
+    @Test
+    public void testResponseIsParsedFromOpenConnection() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        Buffer content =
+                new Buffer().writeUtf8("{\"id\":1,\"jsonrpc\":\"2.0\",\"result\":\"0x4b7\"}");
+        ResponseBody body =
+                ResponseBody.create(
+                        Okio.buffer(
+                                new ForwardingSource(content) {
+                                    @Override
+                                    public void close() throws IOException {
+                                        closed.set(true);
+                                        super.close();
+                                    }
+                                }),
+                        HttpService.JSON_MEDIA_TYPE,
+                        content.size());
+        HttpService mockedHttpService = mockedHttpService(body);
+
+        EthBlockNumber ethBlockNumber =
+                mockedHttpService.send(
+                        new Request<>(
+                                "eth_blockNumber",
+                                Collections.emptyList(),
+                                mockedHttpService,
+                                EthBlockNumber.class),
+                        EthBlockNumber.class);
+
+        assertEquals(BigInteger.valueOf(1207), ethBlockNumber.getBlockNumber());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testSendStreamingLogs() throws IOException {
+        HttpService mockedHttpService =
+                mockedHttpService(
+                        "{\"id\":1,\"jsonrpc\":\"2.0\",\"result\":["
+                                + "{\"logIndex\":\"0x1\",\"blockNumber\":\"0x1b4\"},"
+                                + "{\"logIndex\":\"0x2\",\"blockNumber\":\"0x1b4\"}]}");
+
+        List<EthLog.LogObject> logs = new ArrayList<>();
+        EthLog ethLog =
+                mockedHttpService.sendStreaming(
+                        new Request<>(
+                                "eth_getLogs",
+                                Collections.emptyList(),
+                                mockedHttpService,
+                                EthLog.class),
+                        EthLog.class,
+                        "/result",
+                        EthLog.LogObject.class,
+                        logs::add);
+
+        assertEquals(1, ethLog.getId());
+        assertFalse(ethLog.hasError());
+        assertTrue(ethLog.getLogs().isEmpty());
+        assertEquals(2, logs.size());
+        assertEquals(BigInteger.ONE, logs.get(0).getLogIndex());
+        assertEquals(BigInteger.valueOf(2), logs.get(1).getLogIndex());
+        assertEquals(BigInteger.valueOf(436), logs.get(1).getBlockNumber());
+    }
+
+    @Test
+    public void testSendStreamingBlockTransactions() throws IOException {
+        HttpService mockedHttpService =
+                mockedHttpService(
+                        "{\"id\":1,\"jsonrpc\":\"2.0\",\"result\":{"
+                                + "\"number\":\"0x1b4\",\"hash\":\"0xdc0818cf\","
+                                + "\"transactions\":[{\"hash\":\"0xc6ef2fc5\"},"
+                                + "{\"hash\":\"0x88df0164\"}],\"uncles\":[\"0x1606e5\"]}}");
+
+        List<EthBlock.TransactionObject> transactions = new ArrayList<>();
+        EthBlock ethBlock =
+                mockedHttpService.sendStreaming(
+                        new Request<>(
+                                "eth_getBlockByNumber",
+                                Arrays.asList("0x1b4", true),
+                                mockedHttpService,
+                                EthBlock.class),
+                        EthBlock.class,
+                        "/result/transactions",
+                        EthBlock.TransactionObject.class,
+                        transactions::add);
+
+        EthBlock.Block block = ethBlock.getBlock();
+        assertEquals(BigInteger.valueOf(436), block.getNumber());
+        assertEquals("0xdc0818cf", block.getHash());
+        assertEquals(Collections.singletonList("0x1606e5"), block.getUncles());
+        assertTrue(block.getTransactions().isEmpty());
+        assertEquals(2, transactions.size());
+        assertEquals("0xc6ef2fc5", transactions.get(0).getHash());
+        assertEquals("0x88df0164", transactions.get(1).getHash());
+    }
+
+    @Test
+    public void testSendAsync() throws Exception {
+        HttpService mockedHttpService =
+                mockedHttpService("{\"id\":1,\"jsonrpc\":\"2.0\",\"result\":\"0x4b7\"}");
+
+        EthBlockNumber ethBlockNumber =
+                mockedHttpService
+                        .sendAsync(
+                                new Request<>(
+                                        "eth_blockNumber",
+                                        Collections.emptyList(),
+                                        mockedHttpService,
+                                        EthBlockNumber.class),
+                                EthBlockNumber.class)
+                        .get();
+
+        assertEquals(BigInteger.valueOf(1207), ethBlockNumber.getBlockNumber());
+    }
+
+    @Test
+    public void testSendBatchAsync() throws Exception {
+        HttpService mockedHttpService =
+                mockedHttpService(
+                        "[{\"id\":1,\"jsonrpc\":\"2.0\",\"result\":\"0x4b7\"},"
+                                + "{\"id\":2,\"jsonrpc\":\"2.0\",\"result\":\"0x4b8\"}]");
+
+        BatchResponse batchResponse =
+                new BatchRequest(mockedHttpService)
+                        .add(
+                                new Request<>(
+                                        "eth_blockNumber",
+                                        Collections.emptyList(),
+                                        mockedHttpService,
+                                        EthBlockNumber.class))
+                        .add(
+                                new Request<>(
+                                        "eth_blockNumber",
+                                        Collections.emptyList(),
+                                        mockedHttpService,
+                                        EthBlockNumber.class))
+                        .sendAsync()
+                        .get();
+
+        assertEquals(
+                BigInteger.valueOf(1208),
+                ((EthBlockNumber) batchResponse.getResponses().get(1)).getBlockNumber());
+    }
+
+    @Test
+    public void testSendAsyncFailure() {
+        IOException failure = new IOException("Connection refused");
+        OkHttpClient httpClient = Mockito.mock(OkHttpClient.class);
+        Mockito.when(httpClient.newCall(Mockito.any()))
+                .thenAnswer(
+                        invocation -> {
+                            Call call = Mockito.mock(Call.class);
+                            Mockito.doAnswer(
+                                            enqueue -> {
+                                                Callback callback = enqueue.getArgument(0);
+                                                callback.onFailure(call, failure);
+                                                return null;
+                                            })
+                                    .when(call)
+                                    .enqueue(Mockito.any());
+
+                            return call;
+                        });
+        HttpService mockedHttpService = new HttpService(httpClient);
+
+        ExecutionException exception =
+                assertThrows(
+                        ExecutionException.class,
+                        () ->
+                                mockedHttpService
+                                        .sendAsync(
+                                                new Request<>(
+                                                        "eth_blockNumber",
+                                                        Collections.emptyList(),
+                                                        mockedHttpService,
+                                                        EthBlockNumber.class),
+                                                EthBlockNumber.class)
+                                        .get());
+        assertEquals(failure, exception.getCause());
+    }
+
+    @Test
+    public void testSendAsyncUsesOverriddenPerformIO() throws Exception {
+        AtomicBoolean performed = new AtomicBoolean();
+        HttpService customHttpService =
+                new HttpService() {
+                    @Override
+                    protected InputStream performIO(String request) {
+                        performed.set(true);
+                        return new ByteArrayInputStream(
+                                "{\"id\":1,\"jsonrpc\":\"2.0\",\"result\":\"0x4b7\"}"
+                                        .getBytes(StandardCharsets.UTF_8));
+                    }
+                };
+
+        EthBlockNumber ethBlockNumber =
+                customHttpService
+                        .sendAsync(
+                                new Request<>(
+                                        "eth_blockNumber",
+                                        Collections.emptyList(),
+                                        customHttpService,
+                                        EthBlockNumber.class),
+                                EthBlockNumber.class)
+                        .get();
+
+        assertTrue(performed.get());
+        assertEquals(BigInteger.valueOf(1207), ethBlockNumber.getBlockNumber());
+    }
+
+    @Test
+    public void testDefaultClientKeepsOkHttpLimits() {
+        OkHttpClient httpClient = HttpService.getOkHttpClientBuilder().build();
+
+        assertEquals(5, httpClient.dispatcher().getMaxRequestsPerHost());
+        assertEquals(64, httpClient.dispatcher().getMaxRequests());
+    }
+
+    private static HttpService mockedHttpService(String content) {
+        return mockedHttpService(ResponseBody.create(content, HttpService.JSON_MEDIA_TYPE));
+    }
+
+    private static HttpService mockedHttpService(ResponseBody body) {
+        Response response =
+                new Response.Builder()
+                        .code(200)
+                        .message("")
+                        .body(body)
+                        .request(new okhttp3.Request.Builder().url(HttpService.DEFAULT_URL).build())
+                        .protocol(Protocol.HTTP_1_1)
+                        .build();
+
+        OkHttpClient httpClient = Mockito.mock(OkHttpClient.class);
+        Mockito.when(httpClient.newCall(Mockito.any()))
+                .thenAnswer(
+                        invocation -> {
+                            Call call = Mockito.mock(Call.class);
+                            Mockito.when(call.execute()).thenReturn(response);
+                            Mockito.doAnswer(
+                                            enqueue -> {
+                                                Callback callback = enqueue.getArgument(0);
+                                                callback.onResponse(call, response);
+                                                return null;
+                                            })
+                                    .when(call)
+                                    .enqueue(Mockito.any());
+
+                            return call;
+                        });
+        return new HttpService(httpClient);
+    }
 }
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.ipc;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.reactivex.disposables.Disposable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthSubscribe;
+import org.web3j.protocol.websocket.events.NewHeadsNotification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PipelinedIpcServiceTest {
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final List<Node> nodes = Collections.synchronizedList(new ArrayList<>());
+    private PipelinedIpcService service;
+
+    @BeforeEach
+    public void setUp() {
+        service =
+                new PipelinedIpcService(
+                        Collections.singletonList(
+                                () -> {
+                                    Node node = new Node();
+                                    nodes.add(node);
+                                    return node.channel;
+                                }),
+                        false);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        service.close();
+    }
+
+    @Test
+    public void testRequestsArePipelined() throws Exception {
+        List<Request<?, EthBlockNumber>> requests = new ArrayList<>();
+        List<CompletableFuture<EthBlockNumber>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Request<?, EthBlockNumber> request = blockNumberRequest();
+            requests.add(request);
+            results.add(request.sendAsync());
+        }
+
+        // all requests are sent before any reply is received
+        Node node = nodes.get(0);
+        List<JsonNode> received = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            received.add(node.receive());
+        }
+        Collections.reverse(received);
+        for (JsonNode request : received) {
+            node.reply(blockNumberReply(request.get("id").asLong()));
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            assertEquals(
+                    BigInteger.valueOf(requests.get(i).getId()),
+                    results.get(i).get(1, TimeUnit.SECONDS).getBlockNumber());
+        }
+        assertEquals(1, nodes.size());
+    }
+
+    @Test
+    public void testBatchReplyIsMatchedById() throws Exception {
+        BatchRequest batchRequest = new BatchRequest(service);
+        Request<?, EthBlockNumber> first = blockNumberRequest();
+        Request<?, EthBlockNumber> second = blockNumberRequest();
+        batchRequest.add(first).add(second);
+
+        CompletableFuture<BatchResponse> result = batchRequest.sendAsync();
+        JsonNode received = nodes.get(0).receive();
+        assertTrue(received.isArray());
+        nodes.get(0)
+                .reply(
+                        "["
+                                + blockNumberReply(second.getId())
+                                + ","
+                                + blockNumberReply(first.getId())
+                                + "]");
+
+        BatchResponse batchResponse = result.get(1, TimeUnit.SECONDS);
+        assertEquals(
+                BigInteger.valueOf(first.getId()),
+                ((EthBlockNumber) batchResponse.getResponses().get(0)).getBlockNumber());
+        assertEquals(
+                BigInteger.valueOf(second.getId()),
+                ((EthBlockNumber) batchResponse.getResponses().get(1)).getBlockNumber());
+    }
+
+    @Test
+    public void testUnparseableReplyOnlyFailsItsRequest() throws Exception {
+        Request<?, EthBlockNumber> first = blockNumberRequest();
+        Request<?, EthBlockNumber> second = blockNumberRequest();
+        CompletableFuture<EthBlockNumber> firstResult = first.sendAsync();
+        CompletableFuture<EthBlockNumber> secondResult = second.sendAsync();
+
+        Node node = nodes.get(0);
+        node.receive();
+        node.receive();
+        node.reply(
+                "{\"jsonrpc\":\"2.0\",\"id\":"
+                        + first.getId()
+                        + ",\"result\":{\"number\":[1,2]},\"extra\":{\"id\":1}}");
+        node.reply(blockNumberReply(second.getId()));
+
+        ExecutionException exception =
+                assertThrows(ExecutionException.class, () -> firstResult.get(1, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof IOException);
+        assertEquals(
+                BigInteger.valueOf(second.getId()),
+                secondResult.get(1, TimeUnit.SECONDS).getBlockNumber());
+        assertEquals(1, nodes.size());
+    }
+
+    @Test
+    public void testSubscription() throws Exception {
+        Request<?, EthSubscribe> subscribeRequest =
+                new Request<>(
+                        "eth_subscribe", Arrays.asList("newHeads"), service, EthSubscribe.class);
+        BlockingQueue<NewHeadsNotification> notifications = new LinkedBlockingQueue<>();
+
+        CompletableFuture<Disposable> subscription =
+                CompletableFuture.supplyAsync(
+                        () ->
+                                service.subscribe(
+                                                subscribeRequest,
+                                                "eth_unsubscribe",
+                                                NewHeadsNotification.class)
+                                        .subscribe(notifications::add));
+        Node node = awaitNode();
+        JsonNode received = node.receive();
+        assertEquals("eth_subscribe", received.get("method").asText());
+        node.reply(
+                "{\"jsonrpc\":\"2.0\",\"id\":"
+                        + received.get("id").asLong()
+                        + ",\"result\":\"0xcd0c3e8af590364c09d0fa6a1210faf5\"}");
+        Disposable disposable = subscription.get(1, TimeUnit.SECONDS);
+
+        node.reply(
+                "{\"jsonrpc\":\"2.0\",\"method\":\"eth_subscription\",\"params\":"
+                        + "{\"subscription\":\"0xcd0c3e8af590364c09d0fa6a1210faf5\","
+                        + "\"result\":{\"number\":\"0x1b4\"}}}");
+        assertEquals(
+                "0x1b4",
+                notifications.poll(1, TimeUnit.SECONDS).getParams().getResult().getNumber());
+
+        disposable.dispose();
+        JsonNode unsubscribe = node.receive();
+        assertEquals("eth_unsubscribe", unsubscribe.get("method").asText());
+        assertEquals(
+                "0xcd0c3e8af590364c09d0fa6a1210faf5", unsubscribe.get("params").get(0).asText());
+    }
+
+    @Test
+    public void testClosedConnectionFailsRequestsAndIsReopened() throws Exception {
+        Request<?, EthBlockNumber> request = blockNumberRequest();
+        CompletableFuture<EthBlockNumber> result = request.sendAsync();
+        nodes.get(0).receive();
+
+        nodes.get(0).close();
+
+        ExecutionException exception =
+                assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof IOException);
+        assertFalse(service.isWaitingForReply(request.getId()));
+
+        Request<?, EthBlockNumber> next = blockNumberRequest();
+        CompletableFuture<EthBlockNumber> nextResult = next.sendAsync();
+        assertEquals(2, nodes.size());
+        nodes.get(1).receive();
+        nodes.get(1).reply(blockNumberReply(next.getId()));
+        assertEquals(
+                BigInteger.valueOf(next.getId()),
+                nextResult.get(1, TimeUnit.SECONDS).getBlockNumber());
+    }
+
+    private Node awaitNode() throws InterruptedException {
+        while (nodes.isEmpty()) {
+            Thread.sleep(1);
+        }
+        return nodes.get(0);
+    }
+
+    private Request<?, EthBlockNumber> blockNumberRequest() {
+        return new Request<>(
+                "eth_blockNumber", Collections.<String>emptyList(), service, EthBlockNumber.class);
+    }
+
+    private static String blockNumberReply(long id) {
+        return "{\"jsonrpc\":\"2.0\",\"id\":"
+                + id
+                + ",\"result\":\"0x"
+                + Long.toHexString(id)
+                + "\"}";
+    }
+
+    /** Node end of an in-memory connection, which replies as instructed by the test. */
+    private class Node {
+        private final Pipe requests;
+        private final Pipe replies;
+        private final ByteChannel channel;
+        private final BlockingQueue<JsonNode> received = new LinkedBlockingQueue<>();
+
+        Node() throws IOException {
+            requests = Pipe.open();
+            replies = Pipe.open();
+            channel =
+                    new ByteChannel() {
+                        @Override
+                        public int read(ByteBuffer dst) throws IOException {
+                            return replies.source().read(dst);
+                        }
+
+                        @Override
+                        public int write(ByteBuffer src) throws IOException {
+                            return requests.sink().write(src);
+                        }
+
+                        @Override
+                        public boolean isOpen() {
+                            return replies.source().isOpen();
+                        }
+
+                        @Override
+                        public void close() throws IOException {
+                            replies.source().close();
+                            requests.sink().close();
+                        }
+                    };
+
+            Thread reader =
+                    new Thread(
+                            () -> {
+                                try (JsonParser parser =
+                                        objectMapper
+                                                .getFactory()
+                                                .createParser(
+                                                        Channels.newInputStream(
+                                                                requests.source()))) {
+                                    while (parser.nextToken() != null) {
+                                        received.add(objectMapper.readTree(parser));
+                                    }
+                                } catch (IOException e) {
+                                    // connection closed
+                                }
+                            });
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        JsonNode receive() throws InterruptedException {
+            JsonNode request = received.poll(1, TimeUnit.SECONDS);
+            if (request == null) {
+                throw new AssertionError("No request received");
+            }
+            return request;
+        }
+
+        void reply(String reply) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap((reply + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                replies.sink().write(buffer);
+            }
+        }
+
+        void close() throws IOException {
+            replies.sink().close();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.rx;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.reactivex.schedulers.Schedulers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthGetBlockReceipts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BlockBatchReplayTest {
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final Web3jService web3jService = mock(Web3jService.class);
+    private final Web3j web3j = Web3j.build(web3jService);
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        when(web3jService.sendBatch(any(BatchRequest.class)))
+                .thenAnswer(
+                        invocation -> {
+                            // batches complete out of order
+                            Thread.sleep(ThreadLocalRandom.current().nextInt(20));
+                            BatchRequest batchRequest = invocation.getArgument(0);
+                            List<Response<?>> responses = new ArrayList<>();
+                            for (Request<?, ?> request : batchRequest.getRequests()) {
+                                responses.add(response(request));
+                            }
+                            return new BatchResponse(batchRequest.getRequests(), responses);
+                        });
+    }
+
+    @Test
+    public void testBlocksAreEmittedInOrder() throws Exception {
+        List<ReplayedBlock> blocks = replay(false, null, 0, 24);
+
+        assertEquals(range(0, 24), numbers(blocks));
+        verify(web3jService, times(3)).sendBatch(any(BatchRequest.class));
+    }
+
+    @Test
+    public void testReceiptsAreFetchedWithBlocks() throws Exception {
+        List<ReplayedBlock> blocks = replay(true, null, 5, 7);
+
+        assertEquals(range(5, 7), numbers(blocks));
+        for (ReplayedBlock block : blocks) {
+            assertEquals(block.getBlock().getHash(), block.getReceipts().get(0).getBlockHash());
+        }
+    }
+
+    @Test
+    public void testReplayResumesFromCheckpoint() throws Exception {
+        BlockCheckpoint checkpoint = BlockCheckpoint.inMemory();
+
+        replay(false, checkpoint, 0, 14);
+        assertEquals(BigInteger.valueOf(15), checkpoint.getNextBlock());
+
+        assertEquals(range(15, 24), numbers(replay(false, checkpoint, 0, 24)));
+        assertEquals(BigInteger.valueOf(25), checkpoint.getNextBlock());
+    }
+
+    private List<ReplayedBlock> replay(
+            boolean includeReceipts, BlockCheckpoint checkpoint, long startBlock, long endBlock) {
+        return new BlockBatchReplay(
+                        web3j, false, includeReceipts, 10, 3, checkpoint, Schedulers.io())
+                .flowable(BigInteger.valueOf(startBlock), BigInteger.valueOf(endBlock))
+                .toList()
+                .blockingGet();
+    }
+
+    private Response<?> response(Request<?, ?> request) throws Exception {
+        String number = (String) request.getParams().get(0);
+        if (request.getMethod().equals("eth_getBlockReceipts")) {
+            return objectMapper.readValue(
+                    "{\"result\":[{\"blockHash\":\"" + hash(number) + "\"}]}",
+                    EthGetBlockReceipts.class);
+        }
+        return objectMapper.readValue(
+                "{\"result\":{\"number\":\"" + number + "\",\"hash\":\"" + hash(number) + "\"}}",
+                EthBlock.class);
+    }
+
+    private static String hash(String number) {
+        return "0xb" + number.substring(2);
+    }
+
+    private static List<Long> numbers(List<ReplayedBlock> blocks) {
+        return blocks.stream()
+                .map(block -> block.getBlock().getNumber().longValue())
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> range(long start, long end) {
+        return LongStream.rangeClosed(start, end).boxed().collect(Collectors.toList());
+    }
+}
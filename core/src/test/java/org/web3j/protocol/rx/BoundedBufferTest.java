@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.rx;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthFilter;
+import org.web3j.protocol.core.methods.response.EthLog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BoundedBufferTest {
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+
+    @Test
+    public void testOldestItemsAreDropped() {
+        BoundedBuffer buffer = new BoundedBuffer(3, BackpressureOverflowStrategy.DROP_OLDEST);
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        TestSubscriber<Integer> subscriber = buffer.apply(source).test(0);
+
+        for (int i = 1; i <= 5; i++) {
+            source.onNext(i);
+        }
+
+        assertEquals(3, buffer.getSize());
+        assertEquals(2, buffer.getDroppedCount());
+        assertTrue(buffer.isFull());
+
+        subscriber.request(3);
+        subscriber.assertValues(3, 4, 5);
+        assertEquals(0, buffer.getSize());
+        assertEquals(3, buffer.getMaxSize());
+    }
+
+    @Test
+    public void testStreamFailsOnOverflow() {
+        BoundedBuffer buffer = new BoundedBuffer(1, BackpressureOverflowStrategy.ERROR);
+        PublishProcessor<Integer> source = PublishProcessor.create();
+        TestSubscriber<Integer> subscriber = buffer.apply(source).test(0);
+
+        source.onNext(1);
+        source.onNext(2);
+
+        subscriber.assertError(MissingBackpressureException.class);
+    }
+
+    @Test
+    public void testPollingIsPausedWhileBufferIsFull() throws Exception {
+        Web3jService web3jService = mock(Web3jService.class);
+        ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+        doReturn(mock(ScheduledFuture.class))
+                .when(executor)
+                .scheduleAtFixedRate(any(Runnable.class), eq(0L), anyLong(), any());
+        when(web3jService.send(any(Request.class), eq(EthFilter.class)))
+                .thenReturn(objectMapper.readValue("{\"result\":\"0x1\"}", EthFilter.class));
+        when(web3jService.send(any(Request.class), eq(EthLog.class)))
+                .thenReturn(objectMapper.readValue("{\"result\":[\"0xa\",\"0xb\"]}", EthLog.class));
+        Web3j web3j = Web3j.build(web3jService, 1000, executor);
+        BoundedBuffer buffer = new BoundedBuffer(2, BackpressureOverflowStrategy.DROP_OLDEST);
+
+        TestSubscriber<String> subscriber = web3j.ethBlockHashFlowable(buffer).test(0);
+        ArgumentCaptor<Runnable> poll = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).scheduleAtFixedRate(poll.capture(), eq(0L), eq(1000L), any());
+
+        poll.getValue().run();
+        poll.getValue().run();
+        verify(web3jService, times(1)).send(any(Request.class), eq(EthLog.class));
+
+        subscriber.request(2);
+        subscriber.assertValues("0xa", "0xb");
+        poll.getValue().run();
+        verify(web3jService, times(2)).send(any(Request.class), eq(EthLog.class));
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.rx;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.reactivex.Flowable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.utils.Numeric;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LogRangeStreamTest {
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final Web3jService web3jService = mock(Web3jService.class);
+    private final Web3j web3j = Web3j.build(web3jService);
+    private final List<EthFilter> requests = new ArrayList<>();
+
+    // ranges wider than this are rejected, as a node limiting its results would
+    private int maxRange = Integer.MAX_VALUE;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        when(web3jService.send(any(Request.class), eq(EthLog.class)))
+                .thenAnswer(
+                        invocation -> {
+                            Request<?, ?> request = invocation.getArgument(0);
+                            EthFilter filter = (EthFilter) request.getParams().get(0);
+                            requests.add(filter);
+                            long from = blockNumber(filter.getFromBlock().getValue());
+                            long to = blockNumber(filter.getToBlock().getValue());
+                            if (to - from + 1 > maxRange) {
+                                return objectMapper.readValue(
+                                        "{\"error\":{\"code\":-32005,"
+                                                + "\"message\":\"query limit exceeded\"}}",
+                                        EthLog.class);
+                            }
+                            // one log for the first block of each range
+                            return objectMapper.readValue(
+                                    "{\"result\":[{\"blockNumber\":\""
+                                            + Numeric.encodeQuantity(BigInteger.valueOf(from))
+                                            + "\"}]}",
+                                    EthLog.class);
+                        });
+    }
+
+    @Test
+    public void testChunkIsReducedWhenRangeIsRejected() {
+        maxRange = 30;
+        EthFilter ethFilter =
+                new EthFilter(
+                        DefaultBlockParameterName.EARLIEST,
+                        new DefaultBlockParameterNumber(59),
+                        "0x1");
+
+        List<Log> logs = logs(ethFilter, BlockCheckpoint.inMemory(), 100);
+
+        // the chunk is halved when rejected and doubled again after a small result
+        assertEquals(
+                Arrays.asList("0-59", "0-49", "0-24", "25-59", "25-49", "50-59"),
+                requests.stream().map(this::range).collect(Collectors.toList()));
+        assertEquals(
+                Arrays.asList(0L, 25L, 50L),
+                logs.stream()
+                        .map(log -> log.getBlockNumber().longValue())
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testStreamResumesFromCheckpoint() {
+        BlockCheckpoint checkpoint = BlockCheckpoint.inMemory();
+        checkpoint.setNextBlock(BigInteger.valueOf(10));
+        EthFilter ethFilter =
+                new EthFilter(
+                        DefaultBlockParameterName.EARLIEST,
+                        DefaultBlockParameterName.LATEST,
+                        "0x1");
+
+        logs(ethFilter, checkpoint, 12, 12, 20);
+
+        assertEquals(
+                Arrays.asList("10-12", "13-20"),
+                requests.stream().map(this::range).collect(Collectors.toList()));
+        assertEquals(BigInteger.valueOf(21), checkpoint.getNextBlock());
+    }
+
+    @Test
+    public void testAddressAndTopicsArePreserved() {
+        EthFilter ethFilter =
+                new EthFilter(
+                        new DefaultBlockParameterNumber(5),
+                        DefaultBlockParameterName.LATEST,
+                        Arrays.asList("0x1", "0x2"));
+        ethFilter.addSingleTopic("0xaa").addOptionalTopics("0xbb", "0xcc");
+
+        logs(ethFilter, BlockCheckpoint.inMemory(), 6);
+
+        EthFilter request = requests.get(0);
+        assertEquals(Arrays.asList("0x1", "0x2"), request.getAddress());
+        assertEquals(ethFilter.getTopics(), request.getTopics());
+        assertEquals("5-6", range(request));
+    }
+
+    private List<Log> logs(EthFilter ethFilter, BlockCheckpoint checkpoint, long... heads) {
+        Flowable<BigInteger> blockNumbers =
+                Flowable.fromIterable(
+                        Arrays.stream(heads)
+                                .mapToObj(BigInteger::valueOf)
+                                .collect(Collectors.toList()));
+        return new LogRangeStream(web3j, ethFilter, checkpoint)
+                .flowable(blockNumbers)
+                .toList()
+                .blockingGet();
+    }
+
+    private String range(EthFilter filter) {
+        return blockNumber(filter.getFromBlock().getValue())
+                + "-"
+                + blockNumber(filter.getToBlock().getValue());
+    }
+
+    private static long blockNumber(String value) {
+        return Numeric.decodeQuantity(value).longValue();
+    }
+}
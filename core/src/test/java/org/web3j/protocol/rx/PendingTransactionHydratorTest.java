@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.rx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthTransaction;
+import org.web3j.protocol.core.methods.response.Transaction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PendingTransactionHydratorTest {
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final Web3jService web3jService = mock(Web3jService.class);
+    private final Web3j web3j = Web3j.build(web3jService);
+
+    @Test
+    public void testTransactionsAreFetchedInBatches() throws Exception {
+        List<List<String>> batches = new ArrayList<>();
+        when(web3jService.sendBatch(any(BatchRequest.class)))
+                .thenAnswer(
+                        invocation -> {
+                            BatchRequest batchRequest = invocation.getArgument(0);
+                            List<String> batch = new ArrayList<>();
+                            List<Response<?>> responses = new ArrayList<>();
+                            for (Request<?, ?> request : batchRequest.getRequests()) {
+                                String hash = (String) request.getParams().get(0);
+                                batch.add(hash);
+                                // 0xb is unknown to the node, 0xd is already mined
+                                String result =
+                                        hash.equals("0xb")
+                                                ? "null"
+                                                : "{\"hash\":\""
+                                                        + hash
+                                                        + (hash.equals("0xd")
+                                                                ? "\",\"blockNumber\":\"0x1"
+                                                                : "")
+                                                        + "\"}";
+                                responses.add(
+                                        objectMapper.readValue(
+                                                "{\"result\":" + result + "}",
+                                                EthTransaction.class));
+                            }
+                            synchronized (batches) {
+                                batches.add(batch);
+                            }
+                            return new BatchResponse(batchRequest.getRequests(), responses);
+                        });
+
+        List<Transaction> transactions =
+                new PendingTransactionHydrator(web3j, 2, Schedulers.io())
+                        .hydrate(Flowable.just("0xa", "0xb", "0xa", "0xc", "0xd"))
+                        .toList()
+                        .blockingGet();
+
+        assertEquals(
+                Arrays.asList("0xa", "0xc"),
+                transactions.stream()
+                        .map(Transaction::getHash)
+                        .sorted()
+                        .collect(Collectors.toList()));
+        verify(web3jService, times(2)).sendBatch(any(BatchRequest.class));
+        assertEquals(
+                Arrays.asList(Arrays.asList("0xa", "0xb"), Arrays.asList("0xc", "0xd")),
+                batches.stream()
+                        .sorted((first, second) -> first.get(0).compareTo(second.get(0)))
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testSlowFetchingDropsBatchesInsteadOfFailing() throws Exception {
+        AtomicInteger fetched = new AtomicInteger();
+        when(web3jService.sendBatch(any(BatchRequest.class)))
+                .thenAnswer(
+                        invocation -> {
+                            BatchRequest batchRequest = invocation.getArgument(0);
+                            Thread.sleep(20);
+                            fetched.incrementAndGet();
+                            String hash =
+                                    (String) batchRequest.getRequests().get(0).getParams().get(0);
+                            return new BatchResponse(
+                                    batchRequest.getRequests(),
+                                    Collections.singletonList(
+                                            objectMapper.readValue(
+                                                    "{\"result\":{\"hash\":\"" + hash + "\"}}",
+                                                    EthTransaction.class)));
+                        });
+
+        List<Transaction> transactions =
+                new PendingTransactionHydrator(web3j, 1, Schedulers.io())
+                        .hydrate(Flowable.range(0, 500).map(i -> "0x" + Integer.toHexString(i)))
+                        .toList()
+                        .blockingGet();
+
+        assertEquals(fetched.get(), transactions.size());
+        assertTrue(fetched.get() < 500);
+    }
+}
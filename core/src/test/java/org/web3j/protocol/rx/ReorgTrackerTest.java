@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.rx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReorgTrackerTest {
+
+    private final Web3jService web3jService = mock(Web3jService.class);
+    private final Web3j web3j = Web3j.build(web3jService);
+    // blocks which can be fetched by hash
+    private final Map<String, EthBlock.Block> chain = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        when(web3jService.send(any(Request.class), eq(EthBlock.class)))
+                .thenAnswer(
+                        invocation -> {
+                            Request<?, ?> request = invocation.getArgument(0);
+                            EthBlock ethBlock = new EthBlock();
+                            ethBlock.setResult(chain.get((String) request.getParams().get(0)));
+                            return ethBlock;
+                        });
+    }
+
+    @Test
+    public void testRolledBackBlocksAreRemoved() throws Exception {
+        ReorgTracker tracker = new ReorgTracker(web3j, false, 0);
+        block("0x2b", 2, "0x1a");
+
+        List<String> events = new ArrayList<>();
+        events.addAll(events(tracker.onBlock(block("0x1a", 1, "0x0"))));
+        events.addAll(events(tracker.onBlock(block("0x2a", 2, "0x1a"))));
+        events.addAll(events(tracker.onBlock(block("0x3a", 3, "0x2a"))));
+        events.addAll(events(tracker.onBlock(block("0x3b", 3, "0x2b"))));
+
+        assertEquals(
+                Arrays.asList("+0x1a", "+0x2a", "+0x3a", "-0x3a", "-0x2a", "+0x2b", "+0x3b"),
+                events);
+    }
+
+    @Test
+    public void testMissedBlocksAreFetched() throws Exception {
+        ReorgTracker tracker = new ReorgTracker(web3j, false, 0);
+        block("0x2", 2, "0x1");
+
+        tracker.onBlock(block("0x1", 1, "0x0"));
+
+        assertEquals(
+                Arrays.asList("+0x2", "+0x3"), events(tracker.onBlock(block("0x3", 3, "0x2"))));
+        assertEquals(Collections.emptyList(), events(tracker.onBlock(block("0x2", 2, "0x1"))));
+    }
+
+    @Test
+    public void testBlocksAreEmittedOnceConfirmed() throws Exception {
+        ReorgTracker tracker = new ReorgTracker(web3j, false, 2);
+
+        assertEquals(Collections.emptyList(), events(tracker.onBlock(block("0x1", 1, "0x0"))));
+        assertEquals(Collections.emptyList(), events(tracker.onBlock(block("0x2a", 2, "0x1"))));
+        assertEquals(
+                Collections.singletonList("+0x1"),
+                events(tracker.onBlock(block("0x3a", 3, "0x2a"))));
+
+        // the reorganisation only replaces unconfirmed blocks
+        block("0x2b", 2, "0x1");
+        block("0x3b", 3, "0x2b");
+        assertEquals(
+                Collections.singletonList("+0x2b"),
+                events(tracker.onBlock(block("0x4b", 4, "0x3b"))));
+        assertEquals(
+                Collections.singletonList("+0x3b"),
+                events(tracker.onBlock(block("0x5b", 5, "0x4b"))));
+    }
+
+    private EthBlock.Block block(String hash, long number, String parentHash) {
+        EthBlock.Block block = new EthBlock.Block();
+        block.setHash(hash);
+        block.setNumber("0x" + Long.toHexString(number));
+        block.setParentHash(parentHash);
+        chain.put(hash, block);
+        return block;
+    }
+
+    private static List<String> events(List<BlockEvent> blockEvents) {
+        List<String> events = new ArrayList<>();
+        for (BlockEvent blockEvent : blockEvents) {
+            events.add((blockEvent.isRemoved() ? "-" : "+") + blockEvent.getBlock().getHash());
+        }
+        return events;
+    }
+}
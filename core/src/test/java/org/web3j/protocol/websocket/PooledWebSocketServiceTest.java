@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.protocol.websocket;
+
+import java.net.ConnectException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.processors.PublishProcessor;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthSubscribe;
+import org.web3j.protocol.websocket.events.NewHeadsNotification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PooledWebSocketServiceTest {
+
+    private final WebSocketService first = mock(WebSocketService.class);
+    private final WebSocketService second = mock(WebSocketService.class);
+    private final PooledWebSocketService service =
+            new PooledWebSocketService(Arrays.asList(first, second));
+
+    @Test
+    public void testRequestIsSentOverLeastBusyConnection() {
+        when(first.isConnected()).thenReturn(true);
+        when(second.isConnected()).thenReturn(true);
+        when(first.getPendingRequestCount()).thenReturn(5);
+        when(second.getPendingRequestCount()).thenReturn(0);
+        when(second.sendAsync(any(), eq(EthBlockNumber.class)))
+                .thenReturn(new CompletableFuture<>());
+
+        for (int i = 0; i < 4; i++) {
+            blockNumberRequest().sendAsync();
+        }
+
+        verify(first, never()).sendAsync(any(), any());
+        verify(second, times(4)).sendAsync(any(), eq(EthBlockNumber.class));
+    }
+
+    @Test
+    public void testClosedConnectionIsSkipped() {
+        when(first.isConnected()).thenReturn(false);
+        when(second.isConnected()).thenReturn(true);
+        when(first.getPendingRequestCount()).thenReturn(0);
+        when(second.getPendingRequestCount()).thenReturn(5);
+        when(second.sendAsync(any(), eq(EthBlockNumber.class)))
+                .thenReturn(new CompletableFuture<>());
+
+        blockNumberRequest().sendAsync();
+
+        verify(first, never()).sendAsync(any(), any());
+        assertEquals(1, service.getOpenConnectionCount());
+    }
+
+    @Test
+    public void testSubscriptionsArePinnedToLeastUsedConnection() {
+        when(first.isConnected()).thenReturn(true);
+        when(second.isConnected()).thenReturn(true);
+        when(first.subscribe(any(), any(), eq(NewHeadsNotification.class)))
+                .thenAnswer(invocation -> PublishProcessor.create());
+        when(second.subscribe(any(), any(), eq(NewHeadsNotification.class)))
+                .thenAnswer(invocation -> PublishProcessor.create());
+
+        Disposable firstSubscription = subscribe();
+        subscribe();
+        verify(first, times(1)).subscribe(any(), any(), any());
+        verify(second, times(1)).subscribe(any(), any(), any());
+
+        firstSubscription.dispose();
+        subscribe();
+        subscribe();
+        verify(first, times(2)).subscribe(any(), any(), any());
+        verify(second, times(2)).subscribe(any(), any(), any());
+    }
+
+    @Test
+    public void testConnectFailsOnlyIfNoConnectionOpens() throws Exception {
+        doThrow(new ConnectException("Connection refused")).when(first).connect();
+
+        service.connect();
+
+        doThrow(new ConnectException("Connection refused")).when(second).connect();
+        assertThrows(ConnectException.class, service::connect);
+    }
+
+    private Disposable subscribe() {
+        return service.subscribe(
+                        new Request<>(
+                                "eth_subscribe",
+                                Collections.singletonList("newHeads"),
+                                service,
+                                EthSubscribe.class),
+                        "eth_unsubscribe",
+                        NewHeadsNotification.class)
+                .subscribe();
+    }
+
+    private Request<?, EthBlockNumber> blockNumberRequest() {
+        return new Request<>(
+                "eth_blockNumber", Collections.<String>emptyList(), service, EthBlockNumber.class);
+    }
+}
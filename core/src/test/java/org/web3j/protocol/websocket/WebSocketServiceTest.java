@@ -14,23 +14,32 @@ package org.web3j.protocol.websocket;
 
 import java.io.IOException;
 import java.net.ConnectException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import io.reactivex.Flowable;
 import io.reactivex.disposables.Disposable;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 
+import org.web3j.protocol.ObjectMapperFactory;
 import org.web3j.protocol.core.BatchRequest;
 import org.web3j.protocol.core.BatchResponse;
 import org.web3j.protocol.core.Request;
@@ -38,19 +47,28 @@ import org.web3j.protocol.core.Response;
 import org.web3j.protocol.core.methods.response.EthSubscribe;
 import org.web3j.protocol.core.methods.response.NetVersion;
 import org.web3j.protocol.core.methods.response.Web3ClientVersion;
+import org.web3j.protocol.websocket.events.LogNotification;
 import org.web3j.protocol.websocket.events.NewHeadsNotification;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.atMostOnce;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -78,6 +96,7 @@ public class WebSocketServiceTest {
         when(webSocketClient.connectBlocking()).thenReturn(true);
         when(webSocketClient.reconnectBlocking()).thenReturn(true);
         request.setId(1);
+        WebSocketService.nextBatchId.set(0);
     }
 
     @Test
@@ -86,6 +105,20 @@ public class WebSocketServiceTest {
         assertThrows(RuntimeException.class, () -> new WebSocketService("invalid\\url", true));
     }
 
+    @Test
+    public void testSuppliedExecutorIsNotReconfigured() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        try {
+            new WebSocketService(webSocketClient, executor, true);
+            assertFalse(executor.getRemoveOnCancelPolicy());
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(
+                ((ScheduledThreadPoolExecutor) WebSocketService.createExecutor())
+                        .getRemoveOnCancelPolicy());
+    }
+
     @Test
     public void testConnectViaWebSocketClient() throws Exception {
         service.connect();
@@ -276,6 +309,18 @@ public class WebSocketServiceTest {
         assertEquals("geth-version", reply.get().getWeb3ClientVersion());
     }
 
+    @Test
+    public void testReceiveReplyWithIdAfterResult() throws Exception {
+        CompletableFuture<Web3ClientVersion> reply =
+                service.sendAsync(request, Web3ClientVersion.class);
+        String message = "{\"jsonrpc\":\"2.0\",\"result\":\"geth-version\",\"id\":1}";
+        service.onWebSocketMessage(message);
+
+        assertTrue(reply.isDone());
+        assertEquals("geth-version", reply.get().getWeb3ClientVersion());
+        assertEquals(message, reply.get().getRawResponse());
+    }
+
     @Test
     public void testReceiveError() throws Exception {
         CompletableFuture<Web3ClientVersion> reply =
@@ -296,14 +341,99 @@ public class WebSocketServiceTest {
 
         assertTrue(reply.isDone());
         assertThrows(ExecutionException.class, () -> reply.get());
+        assertEquals(0, service.getPendingRequestCount());
+    }
+
+    @Test
+    public void testSendWhileDisconnectedReleasesPermit() throws Exception {
+        service.setMaxInFlightRequests(1, false);
+        doThrow(new WebsocketNotConnectedException()).when(webSocketClient).send(anyString());
+
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<Web3ClientVersion> reply =
+                    service.sendAsync(request, Web3ClientVersion.class);
+            ExecutionException exception = assertThrows(ExecutionException.class, reply::get);
+            assertTrue(exception.getCause() instanceof IOException);
+        }
+        assertThrows(IOException.class, () -> service.send(request, Web3ClientVersion.class));
+
+        BatchRequest batchRequest = new BatchRequest(service);
+        batchRequest.add(request);
+        assertThrows(ExecutionException.class, () -> service.sendBatchAsync(batchRequest).get());
+        assertEquals(0, service.getPendingRequestCount());
+
+        doNothing().when(webSocketClient).send(anyString());
+        assertFalse(
+                CompletableFuture.supplyAsync(
+                                () -> service.sendAsync(request, Web3ClientVersion.class))
+                        .get(1, TimeUnit.SECONDS)
+                        .isDone());
+        assertTrue(service.isWaitingForReply(1));
+    }
+
+    @Test
+    public void testTimeoutIsCancelledOnReply() throws Exception {
+        ScheduledFuture<?> timeout = mock(ScheduledFuture.class);
+        doReturn(timeout).when(executorService).schedule(any(Runnable.class), eq(10L), any());
+        service.setRequestTimeout(10, TimeUnit.MILLISECONDS);
+
+        CompletableFuture<Web3ClientVersion> reply =
+                service.sendAsync(request, Web3ClientVersion.class);
+        sendGethVersionReply();
+
+        assertTrue(reply.isDone());
+        verify(timeout).cancel(false);
+        assertEquals(0, service.getTimedOutRequestCount());
+    }
+
+    @Test
+    public void testFailFastWhenTooManyRequestsAreInFlight() throws Exception {
+        service.setMaxInFlightRequests(1, true);
+        CompletableFuture<Web3ClientVersion> reply =
+                service.sendAsync(request, Web3ClientVersion.class);
+
+        request.setId(2);
+        CompletableFuture<Web3ClientVersion> rejected =
+                service.sendAsync(request, Web3ClientVersion.class);
+        ExecutionException exception = assertThrows(ExecutionException.class, rejected::get);
+        assertTrue(exception.getCause() instanceof IOException);
+        assertEquals(1, service.getRejectedRequestCount());
+        assertEquals(1, service.getPendingRequestCount());
+
+        sendGethVersionReply();
+        assertTrue(reply.isDone());
+        assertFalse(service.sendAsync(request, Web3ClientVersion.class).isDone());
+    }
+
+    @Test
+    public void testBlockUntilInFlightRequestIsAnswered() throws Exception {
+        service.setMaxInFlightRequests(1, false);
+        service.sendAsync(request, Web3ClientVersion.class);
+
+        Request<?, Web3ClientVersion> next =
+                new Request<>(
+                        "web3_clientVersion",
+                        Collections.<String>emptyList(),
+                        service,
+                        Web3ClientVersion.class);
+        next.setId(2);
+        CompletableFuture<CompletableFuture<Web3ClientVersion>> sent =
+                CompletableFuture.supplyAsync(
+                        () -> service.sendAsync(next, Web3ClientVersion.class));
+        Thread.sleep(50);
+        assertFalse(sent.isDone());
+
+        sendGethVersionReply();
+        sent.get(1, TimeUnit.SECONDS);
+        assertTrue(service.isWaitingForReply(2));
     }
 
     @Test
     public void testCancelRequestAfterTimeout() {
         when(executorService.schedule(
                         any(Runnable.class),
-                        eq(WebSocketService.REQUEST_TIMEOUT),
-                        eq(TimeUnit.SECONDS)))
+                        eq(TimeUnit.SECONDS.toMillis(WebSocketService.REQUEST_TIMEOUT)),
+                        eq(TimeUnit.MILLISECONDS)))
                 .then(
                         invocation -> {
                             Runnable runnable = invocation.getArgument(0, Runnable.class);
@@ -316,6 +446,8 @@ public class WebSocketServiceTest {
 
         assertTrue(reply.isDone());
         assertThrows(ExecutionException.class, () -> reply.get());
+        assertEquals(1, service.getTimedOutRequestCount());
+        assertEquals(0, service.getPendingRequestCount());
     }
 
     @Test
@@ -396,6 +528,178 @@ public class WebSocketServiceTest {
                 actualNotificationRef.get().getParams().getResult().getDifficulty());
     }
 
+    @Test
+    public void testPropagateSubscriptionEventWithSubscriptionAfterResult() throws Exception {
+        CountDownLatch eventReceived = new CountDownLatch(1);
+        AtomicReference<NewHeadsNotification> actualNotificationRef = new AtomicReference<>();
+
+        runAsync(
+                () ->
+                        subscribeToEvents()
+                                .subscribe(
+                                        newHeadsNotification -> {
+                                            actualNotificationRef.set(newHeadsNotification);
+                                            eventReceived.countDown();
+                                        }));
+
+        sendSubscriptionConfirmation();
+        service.onWebSocketMessage(
+                "{"
+                        + "  \"params\":{"
+                        + "    \"result\":{"
+                        + "      \"difficulty\":\"0xd9263f42a87\","
+                        + "      \"uncles\":[]"
+                        + "    },"
+                        + "    \"subscription\":\"0xcd0c3e8af590364c09d0fa6a1210faf5\""
+                        + "  },"
+                        + "  \"method\":\"eth_subscription\","
+                        + "  \"jsonrpc\":\"2.0\""
+                        + "}");
+
+        assertTrue(eventReceived.await(2, TimeUnit.SECONDS));
+        assertEquals(
+                "0xd9263f42a87",
+                actualNotificationRef.get().getParams().getResult().getDifficulty());
+    }
+
+    @Test
+    public void testResumeLogsSubscriptionAfterReconnect() throws Exception {
+        service.enableAutoReconnect(10, 100, TimeUnit.MILLISECONDS);
+        List<String> blockNumbers = new CopyOnWriteArrayList<>();
+        Request<Object, EthSubscribe> logsRequest =
+                new Request<>(
+                        "eth_subscribe",
+                        Arrays.asList("logs", Collections.singletonMap("address", "0x01")),
+                        service,
+                        EthSubscribe.class);
+        logsRequest.setId(1);
+
+        runAsync(
+                () ->
+                        service.subscribe(logsRequest, "eth_unsubscribe", LogNotification.class)
+                                .subscribe(
+                                        notification ->
+                                                blockNumbers.add(
+                                                        notification
+                                                                .getParams()
+                                                                .getResult()
+                                                                .getBlockNumber())));
+        sendSubscriptionConfirmation();
+        service.onWebSocketMessage(logEvent("0xcd0c3e8af590364c09d0fa6a1210faf5", "0x10", "0x0"));
+        while (blockNumbers.isEmpty()) {
+            Thread.sleep(10);
+        }
+
+        service.onWebSocketClose();
+        ArgumentCaptor<Runnable> reconnect = ArgumentCaptor.forClass(Runnable.class);
+        verify(executorService).schedule(reconnect.capture(), eq(10L), eq(TimeUnit.MILLISECONDS));
+        reconnect.getValue().run();
+
+        JsonNode subscribe = lastSentRequest();
+        assertEquals("eth_subscribe", subscribe.get("method").asText());
+        assertEquals("logs", subscribe.get("params").get(0).asText());
+        service.onWebSocketMessage(
+                "{\"jsonrpc\":\"2.0\",\"id\":"
+                        + subscribe.get("id").asLong()
+                        + ",\"result\":\"0x02\"}");
+
+        JsonNode getLogs = lastSentRequest();
+        assertEquals("eth_getLogs", getLogs.get("method").asText());
+        assertEquals("0x10", getLogs.get("params").get(0).get("fromBlock").asText());
+        assertEquals("0x01", getLogs.get("params").get(0).get("address").asText());
+
+        // received while the missed logs are fetched
+        service.onWebSocketMessage(logEvent("0x02", "0x12", "0x0"));
+        assertEquals(1, blockNumbers.size());
+
+        service.onWebSocketMessage(
+                "{\"jsonrpc\":\"2.0\",\"id\":"
+                        + getLogs.get("id").asLong()
+                        + ",\"result\":["
+                        + log("0x10", "0x0")
+                        + ","
+                        + log("0x10", "0x1")
+                        + ","
+                        + log("0x11", "0x0")
+                        + "]}");
+        assertEquals(Arrays.asList("0x10", "0x10", "0x11", "0x12"), blockNumbers);
+    }
+
+    @Test
+    public void testResumeSubscriptionsAfterConnectionDropsDuringReconnect() throws Exception {
+        service.enableAutoReconnect(10, 100, TimeUnit.MILLISECONDS);
+        List<String> subscriptions = new CopyOnWriteArrayList<>();
+        for (long id = 1; id <= 2; id++) {
+            Request<Object, EthSubscribe> headsRequest =
+                    new Request<>(
+                            "eth_subscribe",
+                            Arrays.asList("newHeads", Collections.emptyMap()),
+                            service,
+                            EthSubscribe.class);
+            headsRequest.setId(id);
+            String subscriber = String.valueOf(id);
+            runAsync(
+                    () ->
+                            service.subscribe(
+                                            headsRequest,
+                                            "eth_unsubscribe",
+                                            NewHeadsNotification.class)
+                                    .subscribe(notification -> subscriptions.add(subscriber)));
+            while (!service.isWaitingForReply(id)) {
+                Thread.sleep(10);
+            }
+            service.onWebSocketMessage(
+                    "{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"result\":\"0x0" + id + "\"}");
+        }
+
+        // the connection drops again while resubscribing
+        service.onWebSocketClose();
+        doThrow(new WebsocketNotConnectedException()).when(webSocketClient).send(anyString());
+        ArgumentCaptor<Runnable> reconnect = ArgumentCaptor.forClass(Runnable.class);
+        verify(executorService).schedule(reconnect.capture(), eq(10L), eq(TimeUnit.MILLISECONDS));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> reconnect.getValue().run());
+        verify(webSocketClient, times(4)).send(contains("eth_subscribe"));
+        assertEquals(0, service.getPendingRequestCount());
+
+        service.onWebSocketClose();
+        doNothing().when(webSocketClient).send(anyString());
+        verify(executorService, times(2))
+                .schedule(reconnect.capture(), eq(10L), eq(TimeUnit.MILLISECONDS));
+        reconnect.getValue().run();
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(webSocketClient, times(6)).send(payload.capture());
+        List<String> payloads = payload.getAllValues();
+        for (int i = 4; i < 6; i++) {
+            JsonNode subscribe = ObjectMapperFactory.getObjectMapper().readTree(payloads.get(i));
+            assertEquals("eth_subscribe", subscribe.get("method").asText());
+            service.onWebSocketMessage(
+                    "{\"jsonrpc\":\"2.0\",\"id\":"
+                            + subscribe.get("id").asLong()
+                            + ",\"result\":\"0x1"
+                            + i
+                            + "\"}");
+        }
+
+        service.onWebSocketMessage(newHeadsEvent("0x14"));
+        service.onWebSocketMessage(newHeadsEvent("0x15"));
+        assertEquals(2, subscriptions.size());
+        assertTrue(subscriptions.containsAll(Arrays.asList("1", "2")));
+    }
+
+    @Test
+    public void testReconnectBackoffIsIncreased() throws Exception {
+        service.enableAutoReconnect(10, 15, TimeUnit.MILLISECONDS);
+        when(webSocketClient.connectBlocking()).thenReturn(false);
+
+        service.onWebSocketClose();
+        ArgumentCaptor<Runnable> reconnect = ArgumentCaptor.forClass(Runnable.class);
+        verify(executorService).schedule(reconnect.capture(), eq(10L), eq(TimeUnit.MILLISECONDS));
+        reconnect.getValue().run();
+
+        verify(executorService).schedule(any(Runnable.class), eq(15L), eq(TimeUnit.MILLISECONDS));
+    }
+
     @Test
     public void testSendUnsubscribeRequest() throws Exception {
         CountDownLatch unsubscribed = new CountDownLatch(1);
@@ -577,7 +881,8 @@ public class WebSocketServiceTest {
     }
 
     private void verifyStartedSubscriptionHandshake() {
-        verify(webSocketClient)
+        // the request is registered just before it is sent
+        verify(webSocketClient, timeout(1000))
                 .send(
                         "{\"jsonrpc\":\"2.0\",\"method\":\"eth_subscribe\","
                                 + "\"params\":[\"newHeads\",{}],\"id\":1}");
@@ -608,6 +913,32 @@ public class WebSocketServiceTest {
         }
     }
 
+    private JsonNode lastSentRequest() throws IOException {
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(webSocketClient, atLeastOnce()).send(payload.capture());
+        List<String> payloads = payload.getAllValues();
+        return ObjectMapperFactory.getObjectMapper().readTree(payloads.get(payloads.size() - 1));
+    }
+
+    private static String logEvent(String subscriptionId, String blockNumber, String logIndex) {
+        return "{\"jsonrpc\":\"2.0\",\"method\":\"eth_subscription\",\"params\":{"
+                + "\"subscription\":\""
+                + subscriptionId
+                + "\",\"result\":"
+                + log(blockNumber, logIndex)
+                + "}}";
+    }
+
+    private static String log(String blockNumber, String logIndex) {
+        return "{\"address\":\"0x01\",\"blockNumber\":\""
+                + blockNumber
+                + "\",\"logIndex\":\""
+                + logIndex
+                + "\",\"transactionHash\":\"0x"
+                + blockNumber.substring(2)
+                + "\"}";
+    }
+
     private void sendWebSocketEvent() throws IOException {
         service.onWebSocketMessage(
                 "{"
@@ -622,4 +953,11 @@ public class WebSocketServiceTest {
                         + "  }"
                         + "}");
     }
+
+    private static String newHeadsEvent(String subscriptionId) {
+        return "{\"jsonrpc\":\"2.0\",\"method\":\"eth_subscription\",\"params\":{"
+                + "\"subscription\":\""
+                + subscriptionId
+                + "\",\"result\":{\"difficulty\":\"0xd9263f42a87\",\"uncles\":[]}}}";
+    }
 }
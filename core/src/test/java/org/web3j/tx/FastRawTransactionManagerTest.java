@@ -0,0 +1,216 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.tx;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.SampleKeys;
+import org.web3j.crypto.TransactionDecoder;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.service.TxSignServiceImpl;
+import org.web3j.tx.exceptions.TxHashMismatchException;
+import org.web3j.utils.Numeric;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FastRawTransactionManagerTest {
+
+    private static final long CHAIN_ID = 1337;
+
+    private final Web3j web3j = mock(Web3j.class);
+    private final AtomicLong pendingCount = new AtomicLong(5);
+    private final List<String> sentTransactions = new ArrayList<>();
+
+    // reply of the node to each signed transaction, accepting it by default
+    private Function<String, Object> reply = FastRawTransactionManagerTest::accept;
+
+    private FastRawTransactionManager transactionManager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        Request<?, EthGetTransactionCount> transactionCountRequest = mock(Request.class);
+        when(transactionCountRequest.send())
+                .thenAnswer(
+                        invocation -> {
+                            EthGetTransactionCount ethGetTransactionCount =
+                                    new EthGetTransactionCount();
+                            ethGetTransactionCount.setResult(
+                                    Numeric.encodeQuantity(BigInteger.valueOf(pendingCount.get())));
+                            return ethGetTransactionCount;
+                        });
+        when(web3j.ethGetTransactionCount(SampleKeys.ADDRESS, DefaultBlockParameterName.PENDING))
+                .thenReturn((Request) transactionCountRequest);
+
+        when(web3j.ethSendRawTransaction(anyString()))
+                .thenAnswer(
+                        invocation -> {
+                            String signedTransaction = invocation.getArgument(0);
+                            Request<?, EthSendTransaction> request = mock(Request.class);
+                            when(request.send())
+                                    .thenAnswer(
+                                            send -> {
+                                                sentTransactions.add(signedTransaction);
+                                                Object response = reply.apply(signedTransaction);
+                                                if (response instanceof IOException) {
+                                                    throw (IOException) response;
+                                                }
+                                                return response;
+                                            });
+                            return request;
+                        });
+
+        transactionManager = new FastRawTransactionManager(web3j, SampleKeys.CREDENTIALS, CHAIN_ID);
+    }
+
+    @Test
+    public void testNoncesAreIncremented() throws Exception {
+        send();
+        send();
+
+        assertEquals(BigInteger.valueOf(5), nonceOf(0));
+        assertEquals(BigInteger.valueOf(6), nonceOf(1));
+        assertEquals(BigInteger.valueOf(6), transactionManager.getCurrentNonce());
+    }
+
+    @Test
+    public void testNonceIsReusedAfterErrorResponse() throws Exception {
+        send();
+        pendingCount.set(6);
+        reply =
+                signedTransaction -> {
+                    EthSendTransaction ethSendTransaction = new EthSendTransaction();
+                    ethSendTransaction.setError(new Response.Error(-32000, "underpriced"));
+                    return ethSendTransaction;
+                };
+        assertTrue(send().hasError());
+
+        reply = FastRawTransactionManagerTest::accept;
+        send();
+        assertEquals(BigInteger.valueOf(6), nonceOf(1));
+        assertEquals(BigInteger.valueOf(6), nonceOf(2));
+    }
+
+    @Test
+    public void testNonceIsReusedAfterIOException() throws Exception {
+        send();
+        pendingCount.set(6);
+        reply = signedTransaction -> new IOException("connection reset");
+        assertThrows(IOException.class, this::send);
+
+        reply = FastRawTransactionManagerTest::accept;
+        send();
+        assertEquals(BigInteger.valueOf(6), nonceOf(1));
+        assertEquals(BigInteger.valueOf(6), nonceOf(2));
+    }
+
+    @Test
+    public void testNonceIsNotReusedAfterTxHashMismatch() throws Exception {
+        reply =
+                signedTransaction -> {
+                    EthSendTransaction ethSendTransaction = new EthSendTransaction();
+                    ethSendTransaction.setResult(Hash.sha3("0x00"));
+                    return ethSendTransaction;
+                };
+        assertThrows(TxHashMismatchException.class, this::send);
+
+        reply = FastRawTransactionManagerTest::accept;
+        send();
+        assertEquals(BigInteger.valueOf(5), nonceOf(0));
+        assertEquals(BigInteger.valueOf(6), nonceOf(1));
+    }
+
+    @Test
+    public void testSetNonce() throws Exception {
+        assertEquals(BigInteger.valueOf(-1), transactionManager.getCurrentNonce());
+
+        transactionManager.setNonce(BigInteger.valueOf(9));
+        assertEquals(BigInteger.valueOf(9), transactionManager.getCurrentNonce());
+
+        send();
+        assertEquals(BigInteger.valueOf(10), nonceOf(0));
+        assertEquals(BigInteger.valueOf(10), transactionManager.getCurrentNonce());
+    }
+
+    @Test
+    public void testResetNonce() throws Exception {
+        send();
+        send();
+
+        // the node dropped the second transaction
+        pendingCount.set(6);
+        transactionManager.resetNonce();
+        assertEquals(BigInteger.valueOf(5), transactionManager.getCurrentNonce());
+
+        send();
+        assertEquals(BigInteger.valueOf(6), nonceOf(2));
+    }
+
+    @Test
+    public void testInitialNonce() throws Exception {
+        transactionManager =
+                new FastRawTransactionManager(
+                        web3j,
+                        new TxSignServiceImpl(SampleKeys.CREDENTIALS),
+                        CHAIN_ID,
+                        BigInteger.valueOf(2));
+        assertEquals(BigInteger.valueOf(2), transactionManager.getCurrentNonce());
+        send();
+        assertEquals(BigInteger.valueOf(3), nonceOf(0));
+
+        // a negative nonce leaves it to the node
+        transactionManager =
+                new FastRawTransactionManager(
+                        web3j,
+                        new TxSignServiceImpl(SampleKeys.CREDENTIALS),
+                        CHAIN_ID,
+                        BigInteger.valueOf(-1));
+        assertEquals(BigInteger.valueOf(-1), transactionManager.getCurrentNonce());
+        send();
+        assertEquals(BigInteger.valueOf(5), nonceOf(1));
+    }
+
+    private EthSendTransaction send() throws IOException {
+        return transactionManager.sendTransaction(
+                BigInteger.ONE, BigInteger.TEN, "0x0add5355", "", BigInteger.ONE);
+    }
+
+    private BigInteger nonceOf(int index) {
+        return TransactionDecoder.decode(sentTransactions.get(index)).getNonce();
+    }
+
+    private static Object accept(String signedTransaction) {
+        EthSendTransaction ethSendTransaction = new EthSendTransaction();
+        ethSendTransaction.setResult(Hash.sha3(signedTransaction));
+        return ethSendTransaction;
+    }
+}
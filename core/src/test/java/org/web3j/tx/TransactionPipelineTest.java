@@ -0,0 +1,257 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.tx;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.SampleKeys;
+import org.web3j.crypto.TransactionDecoder;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.protocol.exceptions.JsonRpcError;
+import org.web3j.protocol.exceptions.TransactionException;
+import org.web3j.service.TxSignServiceImpl;
+import org.web3j.tx.nonce.NonceManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TransactionPipelineTest {
+
+    private static final long CHAIN_ID = 1337;
+
+    private final Web3j web3j = mock(Web3j.class);
+    private final ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+
+    private final List<String> sentTransactions = new ArrayList<>();
+    private final List<CompletableFuture<EthSendTransaction>> sendResponses = new ArrayList<>();
+
+    private Request<?, EthGetTransactionCount> transactionCountRequest;
+    private Runnable pollReceipts;
+    private TransactionPipeline pipeline;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        EthGetTransactionCount ethGetTransactionCount = new EthGetTransactionCount();
+        ethGetTransactionCount.setResult("0x5");
+        transactionCountRequest = mock(Request.class);
+        when(transactionCountRequest.send()).thenReturn(ethGetTransactionCount);
+        when(web3j.ethGetTransactionCount(SampleKeys.ADDRESS, DefaultBlockParameterName.PENDING))
+                .thenReturn((Request) transactionCountRequest);
+
+        when(web3j.ethSendRawTransaction(anyString()))
+                .thenAnswer(
+                        invocation -> {
+                            Request<?, EthSendTransaction> request = mock(Request.class);
+                            CompletableFuture<EthSendTransaction> response =
+                                    new CompletableFuture<>();
+                            when(request.sendAsync()).thenReturn(response);
+                            sentTransactions.add(invocation.getArgument(0));
+                            sendResponses.add(response);
+                            return request;
+                        });
+
+        when(web3j.ethGetTransactionReceipt(anyString()))
+                .thenAnswer(
+                        invocation -> {
+                            TransactionReceipt transactionReceipt = new TransactionReceipt();
+                            transactionReceipt.setTransactionHash(invocation.getArgument(0));
+                            EthGetTransactionReceipt ethGetTransactionReceipt =
+                                    new EthGetTransactionReceipt();
+                            ethGetTransactionReceipt.setResult(transactionReceipt);
+                            Request<?, EthGetTransactionReceipt> request = mock(Request.class);
+                            when(request.sendAsync())
+                                    .thenReturn(
+                                            CompletableFuture.completedFuture(
+                                                    ethGetTransactionReceipt));
+                            return request;
+                        });
+
+        doReturn(mock(ScheduledFuture.class))
+                .when(executor)
+                .scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any());
+
+        pipeline =
+                new TransactionPipeline(
+                        web3j,
+                        new TxSignServiceImpl(SampleKeys.CREDENTIALS),
+                        CHAIN_ID,
+                        new NonceManager(web3j),
+                        2,
+                        Runnable::run,
+                        executor,
+                        1000,
+                        10);
+
+        ArgumentCaptor<Runnable> poll = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).scheduleAtFixedRate(poll.capture(), anyLong(), anyLong(), any());
+        pollReceipts = poll.getValue();
+    }
+
+    @Test
+    public void testInFlightTransactionsAreBounded() throws Exception {
+        List<CompletableFuture<TransactionReceipt>> receipts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            receipts.add(
+                    pipeline.sendTransaction(
+                            BigInteger.ONE, BigInteger.TEN, "0xadd5355", "", BigInteger.ONE));
+        }
+
+        assertEquals(2, sentTransactions.size());
+        assertEquals(2, pipeline.getInFlightCount());
+        assertEquals(1, pipeline.getQueuedCount());
+
+        accept(0);
+        assertEquals(3, sentTransactions.size());
+        accept(1);
+        accept(2);
+        assertEquals(0, pipeline.getInFlightCount());
+        assertEquals(3, pipeline.getPendingReceiptCount());
+
+        pollReceipts.run();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(
+                    Hash.sha3(sentTransactions.get(i)), receipts.get(i).get().getTransactionHash());
+            assertEquals(BigInteger.valueOf(5 + i), nonceOf(i));
+        }
+        assertEquals(0, pipeline.getPendingReceiptCount());
+    }
+
+    @Test
+    public void testNonceOfRejectedTransactionIsReused() throws Exception {
+        CompletableFuture<TransactionReceipt> rejected =
+                pipeline.sendTransaction(
+                        BigInteger.ONE, BigInteger.TEN, "0xadd5355", "", BigInteger.ONE);
+
+        EthSendTransaction ethSendTransaction = new EthSendTransaction();
+        ethSendTransaction.setError(new Response.Error(-32000, "insufficient funds"));
+        sendResponses.get(0).complete(ethSendTransaction);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, rejected::get);
+        assertTrue(exception.getCause() instanceof JsonRpcError);
+
+        CompletableFuture<TransactionReceipt> receipt =
+                pipeline.sendTransaction(
+                        BigInteger.ONE, BigInteger.TEN, "0xadd5355", "", BigInteger.ONE);
+        assertEquals(BigInteger.valueOf(5), nonceOf(1));
+
+        accept(1);
+        pollReceipts.run();
+        assertEquals(Hash.sha3(sentTransactions.get(1)), receipt.get().getTransactionHash());
+    }
+
+    @Test
+    public void testFailedReconcileReleasesSlot() throws Exception {
+        List<CompletableFuture<TransactionReceipt>> receipts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            receipts.add(
+                    pipeline.sendTransaction(
+                            BigInteger.ONE, BigInteger.TEN, "0xadd5355", "", BigInteger.ONE));
+        }
+        when(transactionCountRequest.send())
+                .thenThrow(new ClientConnectionException("connection refused"));
+
+        EthSendTransaction ethSendTransaction = new EthSendTransaction();
+        ethSendTransaction.setError(new Response.Error(-32000, "insufficient funds"));
+        sendResponses.get(0).complete(ethSendTransaction);
+
+        ExecutionException exception =
+                assertThrows(ExecutionException.class, () -> receipts.get(0).get());
+        assertTrue(exception.getCause() instanceof JsonRpcError);
+        assertEquals(3, sentTransactions.size());
+        assertEquals(BigInteger.valueOf(5), nonceOf(2));
+        assertEquals(0, pipeline.getQueuedCount());
+        assertEquals(2, pipeline.getInFlightCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRejectedReceiptRequestsCountAsAttempts() throws Exception {
+        CompletableFuture<TransactionReceipt> receipt =
+                pipeline.sendTransaction(
+                        BigInteger.ONE, BigInteger.TEN, "0xadd5355", "", BigInteger.ONE);
+        accept(0);
+
+        Request<?, EthGetTransactionReceipt> request = mock(Request.class);
+        when(request.sendAsync()).thenThrow(new RejectedExecutionException("shut down"));
+        when(web3j.ethGetTransactionReceipt(anyString())).thenReturn((Request) request);
+
+        for (int i = 0; i < 9; i++) {
+            pollReceipts.run();
+            assertFalse(receipt.isDone());
+        }
+        pollReceipts.run();
+
+        ExecutionException exception = assertThrows(ExecutionException.class, receipt::get);
+        assertTrue(exception.getCause() instanceof TransactionException);
+        assertEquals(0, pipeline.getPendingReceiptCount());
+    }
+
+    @Test
+    public void testShutdownCancelsQueuedTransactions() {
+        pipeline.sendTransaction(BigInteger.ONE, BigInteger.TEN, "0xadd5355", "", BigInteger.ONE);
+        pipeline.sendTransaction(BigInteger.ONE, BigInteger.TEN, "0xadd5355", "", BigInteger.ONE);
+        CompletableFuture<TransactionReceipt> queued =
+                pipeline.sendTransaction(
+                        BigInteger.ONE, BigInteger.TEN, "0xadd5355", "", BigInteger.ONE);
+
+        pipeline.shutdown();
+
+        assertTrue(queued.isCancelled());
+        accept(0);
+        assertEquals(2, sentTransactions.size());
+        assertTrue(
+                pipeline.sendTransaction(
+                                BigInteger.ONE, BigInteger.TEN, "0xadd5355", "", BigInteger.ONE)
+                        .isCompletedExceptionally());
+    }
+
+    private void accept(int index) {
+        EthSendTransaction ethSendTransaction = new EthSendTransaction();
+        ethSendTransaction.setResult(Hash.sha3(sentTransactions.get(index)));
+        sendResponses.get(index).complete(ethSendTransaction);
+    }
+
+    private BigInteger nonceOf(int index) {
+        return TransactionDecoder.decode(sentTransactions.get(index)).getNonce();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.tx.nonce;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+import org.web3j.utils.Numeric;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NonceManagerTest {
+
+    private static final String ADDRESS = "0xef678007d18427e6022059dbc264f27507cd1ffc";
+    private static final String OTHER_ADDRESS = "0x19e03255f667bdfd50a32722df860b1eeaf4d635";
+
+    private final Web3j web3j = mock(Web3j.class);
+    private final NonceManager nonceManager = new NonceManager(web3j);
+
+    @Test
+    public void testNoncesAreAllocatedConcurrently() throws Exception {
+        preparePendingCount(ADDRESS, new AtomicLong(5));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Set<BigInteger> nonces = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(
+                    executor.submit(
+                            () -> {
+                                for (int j = 0; j < 100; j++) {
+                                    nonces.add(nonceManager.acquire(ADDRESS));
+                                }
+                                return null;
+                            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(800, nonces.size());
+        for (long nonce = 5; nonce < 805; nonce++) {
+            assertTrue(nonces.contains(BigInteger.valueOf(nonce)));
+        }
+        assertEquals(BigInteger.valueOf(805), nonceManager.getNextNonce(ADDRESS));
+        assertEquals(800, nonceManager.getInFlightCount(ADDRESS));
+    }
+
+    @Test
+    public void testReleasedNonceIsReused() throws Exception {
+        preparePendingCount(ADDRESS, new AtomicLong(5));
+
+        assertEquals(BigInteger.valueOf(5), nonceManager.acquire(ADDRESS));
+        assertEquals(BigInteger.valueOf(6), nonceManager.acquire(ADDRESS));
+        assertEquals(BigInteger.valueOf(7), nonceManager.acquire(ADDRESS));
+
+        nonceManager.confirm(ADDRESS, BigInteger.valueOf(5));
+        nonceManager.release(ADDRESS, BigInteger.valueOf(6));
+        // not allocated by the manager, so not reused
+        nonceManager.release(ADDRESS, BigInteger.valueOf(100));
+
+        assertEquals(BigInteger.valueOf(6), nonceManager.acquire(ADDRESS));
+        assertEquals(BigInteger.valueOf(8), nonceManager.acquire(ADDRESS));
+        assertEquals(3, nonceManager.getInFlightCount(ADDRESS));
+    }
+
+    @Test
+    public void testReconcileWithPendingCount() throws Exception {
+        AtomicLong pendingCount = new AtomicLong(5);
+        preparePendingCount(ADDRESS, pendingCount);
+
+        nonceManager.acquire(ADDRESS);
+        nonceManager.acquire(ADDRESS);
+        nonceManager.acquire(ADDRESS);
+        nonceManager.release(ADDRESS, BigInteger.valueOf(5));
+
+        // nonce 5 reached the node despite the failure, and another sender used nonces 8 and 9
+        pendingCount.set(10);
+        nonceManager.reconcile(ADDRESS);
+        assertEquals(BigInteger.valueOf(10), nonceManager.acquire(ADDRESS));
+
+        // the node dropped all transactions after nonce 6
+        nonceManager.confirm(ADDRESS, BigInteger.valueOf(6));
+        nonceManager.confirm(ADDRESS, BigInteger.valueOf(7));
+        nonceManager.confirm(ADDRESS, BigInteger.valueOf(10));
+        pendingCount.set(7);
+        nonceManager.reconcile(ADDRESS);
+        assertEquals(BigInteger.valueOf(7), nonceManager.acquire(ADDRESS));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testNonceAllocatedWhileReconcilingIsNotReused() throws Exception {
+        AtomicLong pendingCount = new AtomicLong(5);
+        preparePendingCount(ADDRESS, pendingCount);
+
+        nonceManager.acquire(ADDRESS);
+        nonceManager.acquire(ADDRESS);
+        nonceManager.confirm(ADDRESS, BigInteger.valueOf(5));
+        nonceManager.release(ADDRESS, BigInteger.valueOf(6));
+
+        // the pending count is retrieved before the reused nonce 6 reaches the node
+        CountDownLatch countRequested = new CountDownLatch(1);
+        CountDownLatch nonceConfirmed = new CountDownLatch(1);
+        Request<?, EthGetTransactionCount> request = mock(Request.class);
+        when(request.send())
+                .thenAnswer(
+                        invocation -> {
+                            countRequested.countDown();
+                            nonceConfirmed.await();
+                            EthGetTransactionCount ethGetTransactionCount =
+                                    new EthGetTransactionCount();
+                            ethGetTransactionCount.setResult("0x6");
+                            return ethGetTransactionCount;
+                        });
+        when(web3j.ethGetTransactionCount(eq(ADDRESS), eq(DefaultBlockParameterName.PENDING)))
+                .thenReturn((Request) request);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> reconcile =
+                executor.submit(
+                        () -> {
+                            nonceManager.reconcile(ADDRESS);
+                            return null;
+                        });
+        countRequested.await();
+        assertEquals(BigInteger.valueOf(6), nonceManager.acquire(ADDRESS));
+        nonceManager.confirm(ADDRESS, BigInteger.valueOf(6));
+        nonceConfirmed.countDown();
+        reconcile.get();
+        executor.shutdown();
+
+        assertEquals(BigInteger.valueOf(7), nonceManager.acquire(ADDRESS));
+    }
+
+    @Test
+    public void testAccountsAreIndependent() throws Exception {
+        preparePendingCount(ADDRESS, new AtomicLong(5));
+        preparePendingCount(OTHER_ADDRESS, new AtomicLong(0));
+
+        assertEquals(BigInteger.valueOf(5), nonceManager.acquire(ADDRESS));
+        assertEquals(BigInteger.ZERO, nonceManager.acquire(OTHER_ADDRESS));
+        assertEquals(BigInteger.valueOf(6), nonceManager.acquire(ADDRESS.toUpperCase()));
+        assertEquals(BigInteger.ONE, nonceManager.acquire(OTHER_ADDRESS));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void preparePendingCount(String address, AtomicLong pendingCount) throws Exception {
+        Request<?, EthGetTransactionCount> request = mock(Request.class);
+        when(request.send())
+                .thenAnswer(
+                        invocation -> {
+                            EthGetTransactionCount ethGetTransactionCount =
+                                    new EthGetTransactionCount();
+                            ethGetTransactionCount.setResult(
+                                    Numeric.encodeQuantity(BigInteger.valueOf(pendingCount.get())));
+                            return ethGetTransactionCount;
+                        });
+        when(web3j.ethGetTransactionCount(eq(address), eq(DefaultBlockParameterName.PENDING)))
+                .thenReturn((Request) request);
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.tx.response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthGetBlockReceipts;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+import org.web3j.protocol.exceptions.TransactionException;
+import org.web3j.tx.response.QueuingTransactionReceiptProcessor.PollingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class QueuingTransactionReceiptProcessorTest {
+
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final Web3jService web3jService = mock(Web3jService.class);
+    private final Web3j web3j = Web3j.build(web3jService);
+    private final ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+
+    private final List<TransactionReceipt> receipts = new ArrayList<>();
+    private final List<Exception> exceptions = new ArrayList<>();
+    private final Callback callback =
+            new Callback() {
+                @Override
+                public void accept(TransactionReceipt transactionReceipt) {
+                    receipts.add(transactionReceipt);
+                }
+
+                @Override
+                public void exception(Exception exception) {
+                    exceptions.add(exception);
+                }
+            };
+
+    @Test
+    public void testReceiptsArePolledInBatches() throws Exception {
+        List<Integer> batchSizes = new ArrayList<>();
+        when(web3jService.sendBatch(any(BatchRequest.class)))
+                .thenAnswer(
+                        invocation -> {
+                            BatchRequest batchRequest = invocation.getArgument(0);
+                            batchSizes.add(batchRequest.getRequests().size());
+                            List<Response<?>> responses = new ArrayList<>();
+                            for (Request<?, ?> request : batchRequest.getRequests()) {
+                                String hash = (String) request.getParams().get(0);
+                                // 0xb is not mined yet
+                                responses.add(
+                                        objectMapper.readValue(
+                                                hash.equals("0xb")
+                                                        ? "{\"result\":null}"
+                                                        : "{\"result\":{\"transactionHash\":\""
+                                                                + hash
+                                                                + "\"}}",
+                                                EthGetTransactionReceipt.class));
+                            }
+                            return new BatchResponse(batchRequest.getRequests(), responses);
+                        });
+
+        Runnable poll = startProcessor(PollingMode.BATCH, 1, "0xa", "0xb", "0xc");
+
+        poll.run();
+        assertEquals(Arrays.asList(2, 1), batchSizes);
+        assertEquals(Arrays.asList("0xa", "0xc"), transactionHashes());
+
+        poll.run();
+        assertEquals(Arrays.asList(2, 1, 1), batchSizes);
+        assertEquals(1, exceptions.size());
+        assertTrue(exceptions.get(0) instanceof TransactionException);
+        verify(web3jService, never()).send(any(Request.class), eq(EthGetTransactionReceipt.class));
+    }
+
+    @Test
+    public void testReceiptsAreMatchedFromBlockReceipts() throws Exception {
+        prepareBlockNumber("0x10", "0x11");
+        when(web3jService.send(any(Request.class), eq(EthGetBlockReceipts.class)))
+                .thenReturn(
+                        objectMapper.readValue(
+                                "{\"result\":[{\"transactionHash\":\"0xA\"},"
+                                        + "{\"transactionHash\":\"0xd\"}]}",
+                                EthGetBlockReceipts.class))
+                .thenReturn(
+                        objectMapper.readValue(
+                                "{\"result\":[{\"transactionHash\":\"0xb\"}]}",
+                                EthGetBlockReceipts.class));
+
+        // 0xa was mined in the latest block when it was queued, before the first poll
+        Runnable poll = startProcessor(PollingMode.BLOCK_RECEIPTS, 5, "0xa", "0xb");
+
+        poll.run();
+        assertEquals(Arrays.asList("0xA", "0xb"), transactionHashes());
+        assertEquals(0, exceptions.size());
+
+        poll.run();
+        verify(web3jService, times(2)).send(any(Request.class), eq(EthGetBlockReceipts.class));
+    }
+
+    @Test
+    public void testBlockReceiptsAreRetriedAfterIOException() throws Exception {
+        prepareBlockNumber("0x10");
+        when(web3jService.send(any(Request.class), eq(EthGetBlockReceipts.class)))
+                .thenThrow(new IOException("timeout"))
+                .thenReturn(
+                        objectMapper.readValue(
+                                "{\"result\":[{\"transactionHash\":\"0xa\"}]}",
+                                EthGetBlockReceipts.class));
+
+        Runnable poll = startProcessor(PollingMode.BLOCK_RECEIPTS, 5, "0xa");
+
+        poll.run();
+        assertEquals(0, receipts.size());
+        assertEquals(0, exceptions.size());
+
+        poll.run();
+        assertEquals(Arrays.asList("0xa"), transactionHashes());
+        assertEquals(0, exceptions.size());
+    }
+
+    @Test
+    public void testBatchIsRetriedAfterConnectionFailure() throws Exception {
+        when(web3jService.sendBatch(any(BatchRequest.class)))
+                .thenThrow(new ClientConnectionException("Invalid response received: 429"))
+                .thenAnswer(
+                        invocation -> {
+                            BatchRequest batchRequest = invocation.getArgument(0);
+                            return new BatchResponse(
+                                    batchRequest.getRequests(),
+                                    Arrays.asList(
+                                            objectMapper.readValue(
+                                                    "{\"result\":{\"transactionHash\":\"0xa\"}}",
+                                                    EthGetTransactionReceipt.class)));
+                        });
+
+        Runnable poll = startProcessor(PollingMode.BATCH, 5, "0xa");
+
+        poll.run();
+        assertEquals(0, receipts.size());
+        assertEquals(0, exceptions.size());
+
+        poll.run();
+        assertEquals(Arrays.asList("0xa"), transactionHashes());
+        assertEquals(0, exceptions.size());
+    }
+
+    @Test
+    public void testBlockReceiptsAreRetriedAfterConnectionFailure() throws Exception {
+        when(web3jService.send(any(Request.class), eq(EthBlockNumber.class)))
+                .thenReturn(
+                        blockNumber("0x10"),
+                        objectMapper.readValue(
+                                "{\"error\":{\"code\":-32000,\"message\":\"syncing\"}}",
+                                EthBlockNumber.class),
+                        blockNumber("0x10"));
+        when(web3jService.send(any(Request.class), eq(EthGetBlockReceipts.class)))
+                .thenThrow(new ClientConnectionException("Invalid response received: 503"))
+                .thenReturn(
+                        objectMapper.readValue(
+                                "{\"result\":[{\"transactionHash\":\"0xa\"}]}",
+                                EthGetBlockReceipts.class));
+
+        Runnable poll = startProcessor(PollingMode.BLOCK_RECEIPTS, 5, "0xa");
+
+        // the block number is not available
+        poll.run();
+        verify(web3jService, never()).send(any(Request.class), eq(EthGetBlockReceipts.class));
+
+        poll.run();
+        assertEquals(0, receipts.size());
+
+        poll.run();
+        assertEquals(Arrays.asList("0xa"), transactionHashes());
+        assertEquals(0, exceptions.size());
+    }
+
+    @Test
+    public void testBlockNumberErrorFailsQueuing() throws Exception {
+        when(web3jService.send(any(Request.class), eq(EthBlockNumber.class)))
+                .thenReturn(
+                        objectMapper.readValue(
+                                "{\"error\":{\"code\":-32000,\"message\":\"syncing\"}}",
+                                EthBlockNumber.class));
+
+        assertThrows(
+                TransactionException.class,
+                () -> startProcessor(PollingMode.BLOCK_RECEIPTS, 5, "0xa"));
+    }
+
+    @Test
+    public void testPollingContinuesAfterUnexpectedException() throws Exception {
+        when(web3jService.send(any(Request.class), eq(EthGetTransactionReceipt.class)))
+                .thenThrow(new IllegalStateException("unexpected"))
+                .thenReturn(
+                        objectMapper.readValue(
+                                "{\"result\":{\"transactionHash\":\"0xa\"}}",
+                                EthGetTransactionReceipt.class));
+
+        Runnable poll = startProcessor(PollingMode.INDIVIDUAL, 5, "0xa");
+
+        poll.run();
+        assertEquals(0, receipts.size());
+
+        poll.run();
+        assertEquals(Arrays.asList("0xa"), transactionHashes());
+    }
+
+    @Test
+    public void testUnsupportedBlockReceiptsFailTransactions() throws Exception {
+        prepareBlockNumber("0x10");
+        when(web3jService.send(any(Request.class), eq(EthGetBlockReceipts.class)))
+                .thenReturn(
+                        objectMapper.readValue(
+                                "{\"error\":{\"code\":-32601,\"message\":\"method not found\"}}",
+                                EthGetBlockReceipts.class));
+
+        Runnable poll = startProcessor(PollingMode.BLOCK_RECEIPTS, 5, "0xa", "0xb");
+
+        poll.run();
+        assertEquals(2, exceptions.size());
+        assertTrue(exceptions.get(0).getMessage().contains("eth_getBlockReceipts"));
+        assertEquals(0, receipts.size());
+    }
+
+    private void prepareBlockNumber(String blockNumber, String... blockNumbers) throws IOException {
+        EthBlockNumber[] later = new EthBlockNumber[blockNumbers.length];
+        for (int i = 0; i < blockNumbers.length; i++) {
+            later[i] = blockNumber(blockNumbers[i]);
+        }
+        when(web3jService.send(any(Request.class), eq(EthBlockNumber.class)))
+                .thenReturn(blockNumber(blockNumber), later);
+    }
+
+    private EthBlockNumber blockNumber(String blockNumber) throws IOException {
+        return objectMapper.readValue("{\"result\":\"" + blockNumber + "\"}", EthBlockNumber.class);
+    }
+
+    private Runnable startProcessor(PollingMode pollingMode, int attempts, String... hashes)
+            throws Exception {
+        doReturn(mock(ScheduledFuture.class))
+                .when(executor)
+                .scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any());
+
+        QueuingTransactionReceiptProcessor processor =
+                new QueuingTransactionReceiptProcessor(
+                        web3j, callback, attempts, 1000, pollingMode, 2, executor);
+        for (String hash : hashes) {
+            processor.waitForTransactionReceipt(hash);
+        }
+
+        ArgumentCaptor<Runnable> poll = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).scheduleAtFixedRate(poll.capture(), eq(1000L), eq(1000L), any());
+        return poll.getValue();
+    }
+
+    private List<String> transactionHashes() {
+        List<String> transactionHashes = new ArrayList<>();
+        for (TransactionReceipt receipt : receipts) {
+            transactionHashes.add(receipt.getTransactionHash());
+        }
+        return transactionHashes;
+    }
+}
@@ -12,12 +12,19 @@
  */
 package org.web3j.utils;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class AsyncTest {
 
@@ -39,4 +46,91 @@ public class AsyncTest {
                             .get();
                 });
     }
+
+    @Test
+    public void testDaemonExecutorService() throws Exception {
+        ScheduledExecutorService executorService = Async.daemonExecutorService("test-daemon");
+        try {
+            Thread thread = executorService.submit(Thread::currentThread).get();
+            assertTrue(thread.isDaemon());
+            assertEquals("test-daemon", thread.getName());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testBoundedExecutorServiceRunsOverflowOnCaller() throws Exception {
+        ExecutorService executorService = Async.boundedExecutorService(1, 1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        try {
+            executorService.execute(
+                    () -> {
+                        try {
+                            blocked.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+            executorService.execute(() -> {});
+
+            Thread caller = Thread.currentThread();
+            Thread[] runner = new Thread[1];
+            executorService.execute(() -> runner[0] = Thread.currentThread());
+            assertEquals(caller, runner[0]);
+        } finally {
+            blocked.countDown();
+            executorService.shutdown();
+        }
+        assertTrue(executorService.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExecutorStrategy() throws Exception {
+        ExecutorService executorService =
+                Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "strategy"));
+        ExecutorStrategy previous = Async.getExecutorStrategy();
+        try {
+            Async.setExecutorStrategy(
+                    ExecutorStrategy.of(
+                            executorService, () -> Executors.newScheduledThreadPool(1)));
+
+            assertEquals("strategy", Async.run(() -> Thread.currentThread().getName()).get());
+        } finally {
+            Async.setExecutorStrategy(previous);
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        if (!ExecutorStrategy.isVirtualThreadsSupported()) {
+            assertThrows(UnsupportedOperationException.class, ExecutorStrategy::virtualThreads);
+            return;
+        }
+
+        ExecutorStrategy executorStrategy = ExecutorStrategy.virtualThreads();
+        Method isVirtual = Thread.class.getMethod("isVirtual");
+        assertEquals(
+                true,
+                Async.run(
+                                () -> isVirtual.invoke(Thread.currentThread()),
+                                executorStrategy.getExecutorService())
+                        .get());
+
+        ScheduledExecutorService scheduledExecutorService =
+                executorStrategy.newScheduledExecutorService();
+        try {
+            assertEquals(
+                    true,
+                    scheduledExecutorService
+                            .schedule(
+                                    () -> isVirtual.invoke(Thread.currentThread()),
+                                    1,
+                                    TimeUnit.MILLISECONDS)
+                            .get());
+        } finally {
+            scheduledExecutorService.shutdown();
+        }
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022 Web3 Labs Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.web3j.crypto;
+
+import java.math.BigInteger;
+
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.signers.DSAKCalculator;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.FixedPointCombMultiplier;
+
+import org.web3j.utils.Numeric;
+
+/**
+ * ECDSA signer which determines the recovery id of a signature from the nonce point while signing,
+ * rather than by recovering public keys from the signature until one matches.
+ *
+ * <p>Signatures are the same as those of BouncyCastle's {@code ECDSASigner} with a deterministic
+ * (RFC 6979) nonce, canonicalised to a low S value.
+ */
+class RecoverableECDSASigner {
+
+    private final DSAKCalculator kCalculator;
+
+    RecoverableECDSASigner() {
+        this(new HMacDSAKCalculator(new SHA256Digest()));
+    }
+
+    RecoverableECDSASigner(DSAKCalculator kCalculator) {
+        this.kCalculator = kCalculator;
+    }
+
+    /**
+     * Sign a message hash.
+     *
+     * @param privateKey private key to sign with
+     * @param messageHash hash to sign
+     * @return signature, with a v value of the recovery id plus 27
+     */
+    Sign.SignatureData sign(BigInteger privateKey, byte[] messageHash) {
+        BigInteger n = Sign.CURVE.getN();
+        BigInteger e = calculateE(n, messageHash);
+        kCalculator.init(n, privateKey, messageHash);
+
+        FixedPointCombMultiplier multiplier = new FixedPointCombMultiplier();
+        BigInteger r;
+        BigInteger s;
+        int recId;
+        do {
+            ECPoint p;
+            BigInteger k;
+            do {
+                k = kCalculator.nextK();
+                p = multiplier.multiply(Sign.CURVE.getG(), k).normalize();
+                r = p.getAffineXCoord().toBigInteger().mod(n);
+            } while (r.signum() == 0);
+            s = k.modInverse(n).multiply(e.add(privateKey.multiply(r))).mod(n);
+
+            // the parity of R's y coordinate, and whether its x coordinate exceeded the order
+            recId = p.getAffineYCoord().testBitZero() ? 1 : 0;
+            if (!p.getAffineXCoord().toBigInteger().equals(r)) {
+                recId |= 2;
+            }
+        } while (s.signum() == 0);
+
+        if (s.compareTo(Sign.HALF_CURVE_ORDER) > 0) {
+            // negating s corresponds to negating R, which flips the parity of its y coordinate
+            s = n.subtract(s);
+            recId ^= 1;
+        }
+
+        return new Sign.SignatureData(
+                (byte) (recId + 27), Numeric.toBytesPadded(r, 32), Numeric.toBytesPadded(s, 32));
+    }
+
+    private static BigInteger calculateE(BigInteger n, byte[] message) {
+        int log2n = n.bitLength();
+        int messageBitLength = message.length * 8;
+
+        BigInteger e = new BigInteger(1, message);
+        if (log2n < messageBitLength) {
+            e = e.shiftRight(messageBitLength - log2n);
+        }
+        return e;
+    }
+}
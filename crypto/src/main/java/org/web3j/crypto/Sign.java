@@ -15,6 +15,8 @@ package org.web3j.crypto;
 import java.math.BigInteger;
 import java.security.SignatureException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
 
 import org.bouncycastle.asn1.x9.X9ECParameters;
 import org.bouncycastle.asn1.x9.X9IntegerConverter;
@@ -56,6 +58,21 @@ public class Sign {
 
     static final String MESSAGE_PREFIX = "\u0019Ethereum Signed Message:\n";
 
+    // key pairs which sign with ECKeyPair's own implementation, and so can use the recovering
+    // signer
+    private static final ClassValue<Boolean> DEFAULT_SIGNER =
+            new ClassValue<Boolean>() {
+                @Override
+                protected Boolean computeValue(Class<?> type) {
+                    try {
+                        return type.getMethod("sign", byte[].class).getDeclaringClass()
+                                == ECKeyPair.class;
+                    } catch (NoSuchMethodException e) {
+                        return false;
+                    }
+                }
+            };
+
     static byte[] getEthereumMessagePrefix(int messageLength) {
         return MESSAGE_PREFIX.concat(String.valueOf(messageLength)).getBytes();
     }
@@ -87,6 +104,11 @@ public class Sign {
             messageHash = message;
         }
 
+        if (DEFAULT_SIGNER.get(keyPair.getClass())) {
+            // the recovery id is known from the nonce point, so no public key recovery is needed
+            return new RecoverableECDSASigner().sign(keyPair.getPrivateKey(), messageHash);
+        }
+
         ECDSASignature sig = keyPair.sign(messageHash);
 
         return createSignatureData(sig, publicKey, messageHash);
@@ -281,6 +303,37 @@ public class Sign {
         return key;
     }
 
+    /**
+     * Recover the sender addresses of a batch of signed transactions in parallel on the common fork
+     * join pool, as per {@link SignatureDataOperations#getFrom()}.
+     *
+     * @param signedTransactions the signed transactions
+     * @return the sender addresses, in the order of the given transactions
+     * @throws SignatureException If the sender of any transaction could not be recovered
+     */
+    public static List<String> recoverAll(
+            List<? extends SignatureDataOperations> signedTransactions) throws SignatureException {
+        String[] senders = new String[signedTransactions.size()];
+        SignatureException[] errors = new SignatureException[senders.length];
+        IntStream.range(0, senders.length)
+                .parallel()
+                .forEach(
+                        i -> {
+                            try {
+                                senders[i] = signedTransactions.get(i).getFrom();
+                            } catch (SignatureException e) {
+                                errors[i] = e;
+                            }
+                        });
+
+        for (SignatureException error : errors) {
+            if (error != null) {
+                throw error;
+            }
+        }
+        return Arrays.asList(senders);
+    }
+
     /**
      * Returns recovery ID.
      *
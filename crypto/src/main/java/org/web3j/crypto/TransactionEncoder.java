@@ -15,6 +15,7 @@ package org.web3j.crypto;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.web3j.crypto.exception.CryptoWeb3jException;
 import org.web3j.rlp.RlpEncoder;
@@ -72,6 +73,34 @@ public class TransactionEncoder {
         return signMessage(rawTransaction, (long) chainId, credentials);
     }
 
+    /**
+     * Sign a batch of transactions in parallel on the common fork join pool, as per {@link
+     * #signMessage(RawTransaction, Credentials)}.
+     *
+     * @return signed transactions, in the order of the given transactions
+     */
+    public static List<byte[]> signAll(
+            List<RawTransaction> rawTransactions, Credentials credentials) {
+        return rawTransactions
+                .parallelStream()
+                .map(rawTransaction -> signMessage(rawTransaction, credentials))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sign a batch of transactions in parallel on the common fork join pool, as per {@link
+     * #signMessage(RawTransaction, long, Credentials)}.
+     *
+     * @return signed transactions, in the order of the given transactions
+     */
+    public static List<byte[]> signAll(
+            List<RawTransaction> rawTransactions, long chainId, Credentials credentials) {
+        return rawTransactions
+                .parallelStream()
+                .map(rawTransaction -> signMessage(rawTransaction, chainId, credentials))
+                .collect(Collectors.toList());
+    }
+
     public static Sign.SignatureData createEip155SignatureData(
             Sign.SignatureData signatureData, long chainId) {
         BigInteger v = Numeric.toBigInt(signatureData.getV());
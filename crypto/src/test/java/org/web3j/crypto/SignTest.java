@@ -52,6 +52,20 @@ public class SignTest {
         assertEquals(signatureData, (expected));
     }
 
+    @Test
+    public void testSignMessageMatchesRecoveredSignature() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            ECKeyPair keyPair = Keys.createEcKeyPair();
+            byte[] messageHash = Hash.sha3(("message " + i).getBytes());
+
+            Sign.SignatureData expected =
+                    Sign.createSignatureData(
+                            keyPair.sign(messageHash), keyPair.getPublicKey(), messageHash);
+
+            assertEquals(expected, Sign.signMessage(messageHash, keyPair, false));
+        }
+    }
+
     @Test
     public void testSignedMessageToKey() throws SignatureException {
         Sign.SignatureData signatureData =
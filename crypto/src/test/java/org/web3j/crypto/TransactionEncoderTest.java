@@ -13,6 +13,7 @@
 package org.web3j.crypto;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -111,6 +112,40 @@ public class TransactionEncoderTest {
                         "02f8698206178082162e8310c8e082753094627306090abab3a6e1400e9345bc60c78a8bef577b80c001a0d1f9ee3bdde4d4e0792c7089b84059fb28e17f494556d8a775450b1dd6c318a1a038bd3e2fb9e018528e0a41f57c7a32a8d23b2693e0451aa6ef4519b234466e7f")));
     }
 
+    @Test
+    public void testSignAll() throws Exception {
+        List<RawTransaction> rawTransactions = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            rawTransactions.add(
+                    RawTransaction.createEtherTransaction(
+                            BigInteger.valueOf(i),
+                            BigInteger.ONE,
+                            BigInteger.TEN,
+                            "0xadd5355",
+                            BigInteger.valueOf(i)));
+        }
+
+        List<byte[]> signedTransactions =
+                TransactionEncoder.signAll(rawTransactions, 1L, SampleKeys.CREDENTIALS);
+
+        assertEquals(rawTransactions.size(), signedTransactions.size());
+        List<SignedRawTransaction> decoded = new ArrayList<>();
+        for (int i = 0; i < rawTransactions.size(); i++) {
+            assertArrayEquals(
+                    TransactionEncoder.signMessage(
+                            rawTransactions.get(i), 1L, SampleKeys.CREDENTIALS),
+                    signedTransactions.get(i));
+            decoded.add(
+                    (SignedRawTransaction)
+                            TransactionDecoder.decode(
+                                    Numeric.toHexString(signedTransactions.get(i))));
+        }
+
+        for (String from : Sign.recoverAll(decoded)) {
+            assertEquals(SampleKeys.ADDRESS, from);
+        }
+    }
+
     private static RawTransaction createEtherTransaction() {
         return RawTransaction.createEtherTransaction(
                 BigInteger.ZERO,